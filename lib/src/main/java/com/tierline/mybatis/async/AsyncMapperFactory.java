@@ -0,0 +1,152 @@
+package com.tierline.mybatis.async;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * Factory of asynchronous facades for MyBatis mapper interfaces.
+ *
+ * <p>Each call runs on its own virtual thread with its own {@link SqlSession}. The number of calls
+ * running at the same time is limited per mapper interface by a semaphore, so the facade never
+ * holds more connections than {@code maxConcurrency} for one mapper.
+ *
+ * <pre>
+ * interface AsyncTestEntityMapper {
+ *   CompletableFuture&lt;TestEntity&gt; findById(Integer id);
+ * }
+ *
+ * AsyncTestEntityMapper mapper =
+ *     factory.create(TestEntityMapper.class, AsyncTestEntityMapper.class);
+ * </pre>
+ */
+public class AsyncMapperFactory implements AutoCloseable {
+  private final SqlSessionFactory sqlSessionFactory;
+  private final int maxConcurrency;
+  private final ExecutorService executor;
+  private final Map<Class<?>, Semaphore> permits = new ConcurrentHashMap<>();
+
+  /**
+   * コンストラクタ.
+   *
+   * @param sqlSessionFactory 呼び出しごとにセッションを開くファクトリ
+   * @param maxConcurrency Mapper ごとの同時実行数の上限（通常はコネクションプールのサイズ）
+   */
+  public AsyncMapperFactory(SqlSessionFactory sqlSessionFactory, int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+    }
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.maxConcurrency = maxConcurrency;
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  /**
+   * 非同期版インターフェースのプロキシを生成する.
+   *
+   * <p>{@code asyncType} の各メソッドは {@link CompletableFuture} を返し、{@code mapperType} に同名・同じ引数型の
+   * メソッドが存在しなければならない.
+   *
+   * @param mapperType MyBatis に登録済みの Mapper インターフェース
+   * @param asyncType 非同期版インターフェース
+   * @return 非同期版インターフェースの実装
+   */
+  public <M, A> A create(Class<M> mapperType, Class<A> asyncType) {
+    Map<Method, Method> targets = new ConcurrentHashMap<>();
+    for (Method method : asyncType.getMethods()) {
+      if (method.isDefault() || method.getDeclaringClass() == Object.class) {
+        continue;
+      }
+      if (method.getReturnType() != CompletableFuture.class) {
+        throw new IllegalArgumentException(
+            "Async method must return CompletableFuture: " + method.toGenericString());
+      }
+      try {
+        targets.put(method, mapperType.getMethod(method.getName(), method.getParameterTypes()));
+      } catch (NoSuchMethodException e) {
+        throw new IllegalArgumentException(
+            "No matching method in " + mapperType.getName() + ": " + method.toGenericString(), e);
+      }
+    }
+
+    InvocationHandler handler =
+        (proxy, method, args) -> {
+          Method target = targets.get(method);
+          if (target == null) {
+            if (method.isDefault()) {
+              return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            return invokeObjectMethod(proxy, method, args, asyncType);
+          }
+          return submit(mapperType, mapper -> invoke(target, mapper, args));
+        };
+    return asyncType.cast(
+        Proxy.newProxyInstance(asyncType.getClassLoader(), new Class<?>[] {asyncType}, handler));
+  }
+
+  /**
+   * Mapper に対する任意の呼び出しを非同期に実行する.
+   *
+   * @param mapperType MyBatis に登録済みの Mapper インターフェース
+   * @param call 専用セッションから取得した Mapper を受け取る処理
+   * @return 処理結果
+   */
+  public <M, R> CompletableFuture<R> submit(Class<M> mapperType, Function<M, R> call) {
+    Semaphore semaphore =
+        permits.computeIfAbsent(mapperType, key -> new Semaphore(maxConcurrency, true));
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            semaphore.acquire();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+          }
+          try (SqlSession session = sqlSessionFactory.openSession()) {
+            R result = call.apply(session.getMapper(mapperType));
+            session.commit();
+            return result;
+          } finally {
+            semaphore.release();
+          }
+        },
+        executor);
+  }
+
+  /** 新しい呼び出しの受け付けを終了する. 実行中の呼び出しはそのまま完了する. */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  private static Object invoke(Method target, Object mapper, Object... args) {
+    try {
+      return target.invoke(mapper, args);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    } catch (InvocationTargetException e) {
+      throw new CompletionException(e.getCause());
+    }
+  }
+
+  private static Object invokeObjectMethod(
+      Object proxy, Method method, Object[] args, Class<?> asyncType) {
+    return switch (method.getName()) {
+      case "equals" -> proxy == args[0];
+      case "hashCode" -> System.identityHashCode(proxy);
+      case "toString" -> "Async proxy for " + asyncType.getName();
+      default -> throw new UnsupportedOperationException(method.toGenericString());
+    };
+  }
+}
@@ -0,0 +1,116 @@
+package com.tierline.mybatis.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Statement handed out by {@link CachingConnection}; closing it returns the physical statement to
+ * the cache.
+ *
+ * <p>Before the statement is cached, everything a previous user could have left behind is reset:
+ * parameters, including the {@code setNull} bindings of empty {@code Optional}s, pending batches,
+ * warnings, and the fetch size, timeout and limits, which MyBatis and the plugins of this library
+ * only set when they differ from the defaults. An open result set is closed by the driver on the
+ * next execution.
+ */
+final class CachedStatement implements InvocationHandler {
+  private final CachingConnection connection;
+  private final List<Object> key;
+  private final PreparedStatement target;
+  private final int fetchSize;
+  private final int fetchDirection;
+  private final int queryTimeout;
+  private final int maxRows;
+  private final int maxFieldSize;
+  private boolean modified;
+  private boolean batched;
+  private boolean closed;
+
+  CachedStatement(CachingConnection connection, List<Object> key, PreparedStatement target)
+      throws SQLException {
+    this.connection = connection;
+    this.key = key;
+    this.target = target;
+    this.fetchSize = target.getFetchSize();
+    this.fetchDirection = target.getFetchDirection();
+    this.queryTimeout = target.getQueryTimeout();
+    this.maxRows = target.getMaxRows();
+    this.maxFieldSize = target.getMaxFieldSize();
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    String name = method.getName();
+    switch (name) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "toString":
+        return "CachedStatement[" + target + "]";
+      case "isClosed":
+        return closed || target.isClosed();
+      case "close":
+        close();
+        return null;
+      case "addBatch":
+        batched = true;
+        break;
+      case "setFetchSize",
+          "setFetchDirection",
+          "setQueryTimeout",
+          "setMaxRows",
+          "setLargeMaxRows",
+          "setMaxFieldSize":
+        modified = true;
+        break;
+      default:
+        break;
+    }
+    if (closed) {
+      throw new SQLException("Statement is closed");
+    }
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void close() throws SQLException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      reset();
+    } catch (SQLException e) {
+      // 状態を戻せない文は再利用しない
+      target.close();
+      throw e;
+    }
+    connection.release(key, target);
+  }
+
+  private void reset() throws SQLException {
+    if (target.isClosed()) {
+      return;
+    }
+    target.clearParameters();
+    if (batched) {
+      target.clearBatch();
+    }
+    target.clearWarnings();
+    if (modified) {
+      target.setFetchSize(fetchSize);
+      target.setFetchDirection(fetchDirection);
+      target.setQueryTimeout(queryTimeout);
+      target.setMaxRows(maxRows);
+      target.setMaxFieldSize(maxFieldSize);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.tierline.mybatis.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Physical connection handed out by {@link StatementCachingDataSource}.
+ *
+ * <p>The cache holds idle statements only: a statement is removed while it is in use and put back
+ * when it is closed, so eviction never closes a statement that is being executed. When the same
+ * SQL is in use twice at once, the extra statement is closed instead of cached.
+ */
+final class CachingConnection implements InvocationHandler {
+  private final Connection target;
+  private final int maxSize;
+  private final Map<List<Object>, PreparedStatement> idle;
+  private boolean closed;
+
+  CachingConnection(Connection target, int maxSize) {
+    this.target = target;
+    this.maxSize = maxSize;
+    this.idle = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "toString":
+        return "CachingConnection[" + target + "]";
+      case "close":
+        close();
+        return null;
+      case "prepareStatement":
+        return prepare(method, args);
+      default:
+        break;
+    }
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private PreparedStatement prepare(Method method, Object[] args) throws Throwable {
+    List<Object> key = key(args);
+    return (PreparedStatement)
+        Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] {PreparedStatement.class},
+            new CachedStatement(this, key, obtain(key, method, args)));
+  }
+
+  /** キャッシュにある文を取り出す. ない場合は準備する. */
+  private PreparedStatement obtain(List<Object> key, Method method, Object[] args)
+      throws Throwable {
+    PreparedStatement cached = idle.remove(key);
+    if (cached != null) {
+      return cached;
+    }
+    try {
+      return (PreparedStatement) method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /** 使い終わった文をキャッシュに戻す. 戻せない場合は閉じる. */
+  void release(List<Object> key, PreparedStatement statement) throws SQLException {
+    if (closed || statement.isClosed() || idle.containsKey(key)) {
+      statement.close();
+      return;
+    }
+    idle.put(key, statement);
+    if (idle.size() > maxSize) {
+      Iterator<PreparedStatement> eldest = idle.values().iterator();
+      PreparedStatement evicted = eldest.next();
+      eldest.remove();
+      evicted.close();
+    }
+  }
+
+  /** キャッシュの文の数を返す. */
+  int size() {
+    return idle.size();
+  }
+
+  private void close() throws SQLException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    List<PreparedStatement> statements = new ArrayList<>(idle.values());
+    idle.clear();
+    try {
+      for (PreparedStatement statement : statements) {
+        statement.close();
+      }
+    } finally {
+      target.close();
+    }
+  }
+
+  /** SQL と、生成したキーの指定などのオプションをキーにする. 配列は内容で比較する. */
+  private static List<Object> key(Object[] args) {
+    List<Object> key = new ArrayList<>(args.length);
+    for (Object arg : args) {
+      if (arg instanceof int[] indexes) {
+        key.add(Arrays.stream(indexes).boxed().toList());
+      } else if (arg instanceof String[] names) {
+        key.add(List.of(names));
+      } else {
+        key.add(arg);
+      }
+    }
+    return List.copyOf(key);
+  }
+}
@@ -0,0 +1,98 @@
+package com.tierline.mybatis.datasource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+
+/**
+ * Unpooled data source whose connections keep their prepared statements open across sessions.
+ *
+ * <p>Each physical connection holds an LRU cache of idle {@code PreparedStatement}s keyed by the
+ * SQL and the {@code prepareStatement} options. Closing a statement clears its parameters, batch
+ * and warnings, restores the fetch size, timeout and row limits it was prepared with, and returns
+ * it to the cache instead of closing it, so a later {@code prepareStatement} with the same SQL on
+ * the same physical connection skips the parse and keeps the server-side plan. Unlike {@code
+ * ExecutorType.REUSE}, which only reuses statements within one {@code SqlSession}, this works
+ * across sessions when the data source is pooled:
+ *
+ * <pre>
+ * DataSource dataSource =
+ *     new StatementCachingDataSource(driver, url, username, password).pooled();
+ * </pre>
+ *
+ * <p>or, in {@code mybatis-config.xml}, with {@link StatementCachingPooledDataSourceFactory}.
+ * Statements are closed when they are evicted or when the physical connection is closed.
+ */
+public class StatementCachingDataSource extends UnpooledDataSource {
+  /** 物理コネクションごとにキャッシュする文の数の既定値. */
+  public static final int DEFAULT_STATEMENT_CACHE_SIZE = 100;
+
+  private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+
+  /** コンストラクタ. */
+  public StatementCachingDataSource() {
+    super();
+  }
+
+  /**
+   * コンストラクタ.
+   *
+   * @param driver JDBC ドライバのクラス名
+   * @param url JDBC の URL
+   * @param username ユーザー名
+   * @param password パスワード
+   */
+  public StatementCachingDataSource(String driver, String url, String username, String password) {
+    super(driver, url, username, password);
+  }
+
+  /** 物理コネクションごとにキャッシュする文の数を返す. */
+  public int getStatementCacheSize() {
+    return statementCacheSize;
+  }
+
+  /**
+   * 物理コネクションごとにキャッシュする文の数を設定する. すでに開いたコネクションには影響しない.
+   *
+   * @param statementCacheSize 文の数. {@code 0} の場合はキャッシュしない
+   */
+  public void setStatementCacheSize(int statementCacheSize) {
+    if (statementCacheSize < 0) {
+      throw new IllegalArgumentException(
+          "statementCacheSize must not be negative: " + statementCacheSize);
+    }
+    this.statementCacheSize = statementCacheSize;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return wrap(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return wrap(super.getConnection(username, password));
+  }
+
+  /**
+   * このデータソースをプールするデータソースを生成する.
+   *
+   * @return {@link PooledDataSource}
+   */
+  public PooledDataSource pooled() {
+    return new PooledDataSource(this);
+  }
+
+  private Connection wrap(Connection connection) {
+    if (statementCacheSize == 0) {
+      return connection;
+    }
+    return (Connection)
+        Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new CachingConnection(connection, statementCacheSize));
+  }
+}
@@ -0,0 +1,39 @@
+package com.tierline.mybatis.datasource;
+
+import java.util.Properties;
+import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
+
+/**
+ * {@code DataSourceFactory} for a {@code PooledDataSource} over a {@link
+ * StatementCachingDataSource}.
+ *
+ * <p>Accepts the properties of the {@code POOLED} data source plus {@code statementCacheSize}.
+ *
+ * <pre>
+ * &lt;dataSource type="com.tierline.mybatis.datasource.StatementCachingPooledDataSourceFactory"&gt;
+ *   &lt;property name="driver" value="org.postgresql.Driver"/&gt;
+ *   &lt;property name="url" value="jdbc:postgresql://localhost/app"/&gt;
+ *   &lt;property name="statementCacheSize" value="200"/&gt;
+ * &lt;/dataSource&gt;
+ * </pre>
+ */
+public class StatementCachingPooledDataSourceFactory extends PooledDataSourceFactory {
+  private final StatementCachingDataSource unpooled = new StatementCachingDataSource();
+
+  /** コンストラクタ. */
+  public StatementCachingPooledDataSourceFactory() {
+    super();
+    this.dataSource = unpooled.pooled();
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+    Properties rest = new Properties();
+    rest.putAll(properties);
+    String size = (String) rest.remove("statementCacheSize");
+    if (size != null) {
+      unpooled.setStatementCacheSize(Integer.parseInt(size.strip()));
+    }
+    super.setProperties(rest);
+  }
+}
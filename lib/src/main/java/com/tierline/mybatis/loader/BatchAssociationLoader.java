@@ -0,0 +1,178 @@
+package com.tierline.mybatis.loader;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * Loads the associations of many parent rows with one query per batch of keys.
+ *
+ * <p>Replaces nested {@code select=} associations and collections, which issue one query per
+ * parent row. The keys of all parents are collected, {@link Optional} keys are unwrapped, and the
+ * children are selected with a statement that receives the keys both as a {@link List} under
+ * {@value #KEYS_KEY} and as a typed array under {@value #KEY_ARRAY_KEY}:
+ *
+ * <pre>
+ * &lt;select id="findByOrderIds" resultMap="lineItemResultMap"&gt;
+ *   SELECT * FROM line_item WHERE order_id IN
+ *   &lt;foreach collection="keys" item="key" open="(" separator="," close=")"&gt;
+ *     #{key}
+ *   &lt;/foreach&gt;
+ * &lt;/select&gt;
+ *
+ * &lt;select id="findByOrderIdArray" resultMap="lineItemResultMap"&gt;
+ *   SELECT * FROM line_item
+ *   WHERE order_id = ANY(#{keyArray, typeHandler=org.apache.ibatis.type.ArrayTypeHandler})
+ * &lt;/select&gt;
+ * </pre>
+ *
+ * <p>Parent and child keys are matched with {@link Object#equals(Object)}, so both sides must map
+ * to the same Java type.
+ */
+public class BatchAssociationLoader {
+  /** キーの {@link List} を格納するキー. */
+  public static final String KEYS_KEY = "keys";
+
+  /** キーの配列を格納するキー. */
+  public static final String KEY_ARRAY_KEY = "keyArray";
+
+  /** 1 回のクエリで送るキー数のデフォルト値. */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  private final SqlSession session;
+  private final int batchSize;
+
+  /**
+   * コンストラクタ.
+   *
+   * @param session クエリを実行するセッション
+   */
+  public BatchAssociationLoader(SqlSession session) {
+    this(session, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * コンストラクタ.
+   *
+   * @param session クエリを実行するセッション
+   * @param batchSize 1 回のクエリで送るキー数の上限
+   */
+  public BatchAssociationLoader(SqlSession session, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+    }
+    this.session = session;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * 1 対 1 の関連を一括で読み込む.
+   *
+   * <p>キーを持つ親には、対応する子（存在しない場合は {@code null}）が設定される. キーが {@code null} または空の {@link
+   * Optional} の親には何も設定しない.
+   *
+   * @param parents 親の一覧
+   * @param parentKey 親から子を参照するキー（外部キー）を取得する関数
+   * @param statement 子を取得する select のステートメント ID
+   * @param childKey 子のキーを取得する関数
+   * @param setter 親に子を設定する関数
+   */
+  public <P, C> void loadAssociation(
+      List<P> parents,
+      Function<? super P, ?> parentKey,
+      String statement,
+      Function<? super C, ?> childKey,
+      BiConsumer<? super P, ? super C> setter) {
+    Map<Object, C> children = new HashMap<>();
+    for (C child : this.<C>select(statement, collectKeys(parents, parentKey))) {
+      children.putIfAbsent(unwrap(childKey.apply(child)), child);
+    }
+    for (P parent : parents) {
+      Object key = unwrap(parentKey.apply(parent));
+      if (key != null) {
+        setter.accept(parent, children.get(key));
+      }
+    }
+  }
+
+  /**
+   * 1 対多の関連を一括で読み込む.
+   *
+   * <p>キーを持つ親には、対応する子の一覧（存在しない場合は空の一覧）が設定される. キーが {@code null} または空の {@link Optional}
+   * の親には何も設定しない.
+   *
+   * @param parents 親の一覧
+   * @param parentKey 子から参照される親のキーを取得する関数
+   * @param statement 子を取得する select のステートメント ID
+   * @param childKey 子から親を参照するキー（外部キー）を取得する関数
+   * @param setter 親に子の一覧を設定する関数
+   */
+  public <P, C> void loadCollection(
+      List<P> parents,
+      Function<? super P, ?> parentKey,
+      String statement,
+      Function<? super C, ?> childKey,
+      BiConsumer<? super P, ? super List<C>> setter) {
+    Map<Object, List<C>> children = new HashMap<>();
+    for (C child : this.<C>select(statement, collectKeys(parents, parentKey))) {
+      children.computeIfAbsent(unwrap(childKey.apply(child)), key -> new ArrayList<>()).add(child);
+    }
+    for (P parent : parents) {
+      Object key = unwrap(parentKey.apply(parent));
+      if (key != null) {
+        setter.accept(parent, children.getOrDefault(key, new ArrayList<>()));
+      }
+    }
+  }
+
+  private <C> List<C> select(String statement, List<Object> keys) {
+    List<C> result = new ArrayList<>();
+    for (int from = 0; from < keys.size(); from += batchSize) {
+      List<Object> batch = keys.subList(from, Math.min(from + batchSize, keys.size()));
+      Map<String, Object> params = new HashMap<>();
+      params.put(KEYS_KEY, batch);
+      params.put(KEY_ARRAY_KEY, toTypedArray(batch));
+      result.addAll(session.<C>selectList(statement, params));
+    }
+    return result;
+  }
+
+  private static <P> List<Object> collectKeys(List<P> parents, Function<? super P, ?> parentKey) {
+    Set<Object> keys = new LinkedHashSet<>();
+    for (P parent : parents) {
+      Object key = unwrap(parentKey.apply(parent));
+      if (key != null) {
+        keys.add(key);
+      }
+    }
+    return new ArrayList<>(keys);
+  }
+
+  /** {@link Optional} のキーを中身の値に、空の {@link Optional} を {@code null} に変換する. */
+  static Object unwrap(Object key) {
+    if (key instanceof Optional<?> optional) {
+      return optional.orElse(null);
+    }
+    return key;
+  }
+
+  // ArrayTypeHandler は配列の要素型から SQL の型名を決めるため、Object[] ではなく要素型の配列にする
+  private static Object[] toTypedArray(List<Object> keys) {
+    Class<?> componentType = keys.get(0).getClass();
+    for (Object key : keys) {
+      if (key.getClass() != componentType) {
+        return keys.toArray();
+      }
+    }
+    Object[] array = (Object[]) Array.newInstance(componentType, keys.size());
+    return keys.toArray(array);
+  }
+}
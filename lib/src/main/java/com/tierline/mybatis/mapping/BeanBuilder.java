@@ -0,0 +1,111 @@
+package com.tierline.mybatis.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Builds JavaBeans through a no-arg constructor and setters composed into one method handle.
+ *
+ * <p>The composed handle takes the new bean and the row values and calls every setter in order,
+ * skipping {@code null} values unless {@code callSettersOnNulls} is enabled, as MyBatis does.
+ */
+final class BeanBuilder implements ObjectBuilder {
+  private static final MethodType POPULATE_TYPE =
+      MethodType.methodType(void.class, Object.class, Object[].class);
+
+  private final MethodHandle constructor;
+  private final MethodHandle populate;
+
+  private BeanBuilder(MethodHandle constructor, MethodHandle populate) {
+    this.constructor = constructor;
+    this.populate = populate;
+  }
+
+  /**
+   * Bean 用のビルダーを生成する.
+   *
+   * @return 引数なしの public コンストラクタと public な setter がない場合は {@code null}
+   */
+  static BeanBuilder create(Class<?> type, String[] properties, boolean callSettersOnNulls) {
+    if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+      return null;
+    }
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    try {
+      MethodHandle constructor =
+          lookup
+              .findConstructor(type, MethodType.methodType(void.class))
+              .asType(MethodType.methodType(Object.class));
+      MethodHandle populate = MethodHandles.empty(POPULATE_TYPE);
+      // foldArguments は先に combiner を実行するため、最後の setter から順に組み立てる
+      for (int i = properties.length - 1; i >= 0; i--) {
+        Method setter = findSetter(type, properties[i]);
+        if (setter == null) {
+          return null;
+        }
+        MethodHandle step = setterStep(lookup.unreflect(setter), i);
+        if (!callSettersOnNulls || setter.getParameterTypes()[0].isPrimitive()) {
+          step =
+              MethodHandles.guardWithTest(
+                  isNonNull(i), step, MethodHandles.empty(POPULATE_TYPE));
+        }
+        populate = MethodHandles.foldArguments(populate, step);
+      }
+      return new BeanBuilder(constructor, populate);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public Object build(Object[] values) throws Throwable {
+    Object bean = (Object) constructor.invokeExact();
+    populate.invokeExact(bean, values);
+    return bean;
+  }
+
+  /** (Object bean, Object[] values) -> setter(bean, values[index]). */
+  private static MethodHandle setterStep(MethodHandle setter, int index) {
+    MethodHandle generic =
+        setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+    return MethodHandles.filterArguments(generic, 1, element(index));
+  }
+
+  /** (Object bean, Object[] values) -> values[index] != null. */
+  private static MethodHandle isNonNull(int index)
+      throws NoSuchMethodException, IllegalAccessException {
+    MethodHandle nonNull =
+        MethodHandles.publicLookup()
+            .findStatic(
+                Objects.class, "nonNull", MethodType.methodType(boolean.class, Object.class));
+    MethodHandle test = MethodHandles.filterArguments(nonNull, 0, element(index));
+    return MethodHandles.dropArguments(test, 0, Object.class);
+  }
+
+  /** (Object[] values) -> values[index]. */
+  private static MethodHandle element(int index) {
+    return MethodHandles.insertArguments(
+        MethodHandles.arrayElementGetter(Object[].class), 1, index);
+  }
+
+  private static Method findSetter(Class<?> type, String property) {
+    if (property == null || property.indexOf('.') >= 0) {
+      return null;
+    }
+    String name =
+        "set" + property.substring(0, 1).toUpperCase(Locale.ENGLISH) + property.substring(1);
+    for (Method method : type.getMethods()) {
+      if (method.getName().equals(name)
+          && method.getParameterCount() == 1
+          && !Modifier.isStatic(method.getModifiers())) {
+        return method;
+      }
+    }
+    return null;
+  }
+}
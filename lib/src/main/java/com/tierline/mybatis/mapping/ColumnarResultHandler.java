@@ -0,0 +1,437 @@
+package com.tierline.mybatis.mapping;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.ibatis.session.ResultContext;
+
+/**
+ * Result handler that stores selected columns in primitive arrays with a null bitmap per column.
+ *
+ * <p>Meant for analytic selects over many rows: instead of one object and one {@code Optional} per
+ * column and row, each column is one growing array. Dates are stored as epoch days and timestamps
+ * as epoch microseconds, decoded the same way as {@code OptionalDateTypeHandler} and {@code
+ * OptionalTimestampTypeHandler}. Columns are added before the first select; once rows have been
+ * read, adding a column fails. Requires {@link DirectResultHandlerInterceptor}.
+ *
+ * <pre>
+ * ColumnarResultHandler columns =
+ *     new ColumnarResultHandler().intColumn("age").timestampColumn("created_at");
+ * session.select("com.tierline.mybatis.integration.TestEntityMapper.findAll", columns);
+ * int[] ages = columns.getInts("age");
+ * BitSet agesMissing = columns.getNulls("age");
+ * </pre>
+ */
+public class ColumnarResultHandler implements DirectResultHandler<Object> {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final Map<String, Column> columns = new LinkedHashMap<>();
+  private int capacity = INITIAL_CAPACITY;
+  private int rowCount;
+
+  /**
+   * {@code int} の列を追加する.
+   *
+   * @param name 列名（大文字・小文字は区別しない）
+   * @return このハンドラー
+   * @throws IllegalStateException 行を読み込んだ後の場合
+   */
+  public ColumnarResultHandler intColumn(String name) {
+    return add(new IntColumn(name));
+  }
+
+  /**
+   * {@code long} の列を追加する.
+   *
+   * @param name 列名（大文字・小文字は区別しない）
+   * @return このハンドラー
+   * @throws IllegalStateException 行を読み込んだ後の場合
+   */
+  public ColumnarResultHandler longColumn(String name) {
+    return add(new LongColumn(name));
+  }
+
+  /**
+   * {@code double} の列を追加する.
+   *
+   * @param name 列名（大文字・小文字は区別しない）
+   * @return このハンドラー
+   * @throws IllegalStateException 行を読み込んだ後の場合
+   */
+  public ColumnarResultHandler doubleColumn(String name) {
+    return add(new DoubleColumn(name));
+  }
+
+  /**
+   * {@code boolean} の列を追加する.
+   *
+   * @param name 列名（大文字・小文字は区別しない）
+   * @return このハンドラー
+   * @throws IllegalStateException 行を読み込んだ後の場合
+   */
+  public ColumnarResultHandler booleanColumn(String name) {
+    return add(new BooleanColumn(name));
+  }
+
+  /**
+   * 日付の列を追加する. 値はエポック日数で保持する.
+   *
+   * @param name 列名（大文字・小文字は区別しない）
+   * @return このハンドラー
+   * @throws IllegalStateException 行を読み込んだ後の場合
+   */
+  public ColumnarResultHandler dateColumn(String name) {
+    return add(new DateColumn(name));
+  }
+
+  /**
+   * タイムスタンプの列を追加する. 値はエポックからのマイクロ秒で保持する.
+   *
+   * @param name 列名（大文字・小文字は区別しない）
+   * @return このハンドラー
+   * @throws IllegalStateException 行を読み込んだ後の場合
+   */
+  public ColumnarResultHandler timestampColumn(String name) {
+    return add(new TimestampColumn(name));
+  }
+
+  /**
+   * 文字列の列を追加する.
+   *
+   * @param name 列名（大文字・小文字は区別しない）
+   * @return このハンドラー
+   * @throws IllegalStateException 行を読み込んだ後の場合
+   */
+  public ColumnarResultHandler stringColumn(String name) {
+    return add(new StringColumn(name));
+  }
+
+  @Override
+  public void handleResultSet(ResultSet rs) throws SQLException {
+    Column[] targets = columns.values().toArray(Column[]::new);
+    resolveIndexes(rs.getMetaData(), targets);
+    while (rs.next()) {
+      if (rowCount == capacity) {
+        capacity += capacity >> 1;
+        for (Column column : targets) {
+          column.grow(capacity);
+        }
+      }
+      for (Column column : targets) {
+        column.read(rs, rowCount);
+      }
+      rowCount++;
+    }
+  }
+
+  /** {@link DirectResultHandlerInterceptor} が登録されていない場合に呼ばれる. */
+  @Override
+  public void handleResult(ResultContext<?> resultContext) {
+    throw new IllegalStateException(
+        "ColumnarResultHandler requires " + DirectResultHandlerInterceptor.class.getName());
+  }
+
+  /** 読み込んだ行数を返す. */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * {@code int} の列の値を返す. NULL の行は 0.
+   *
+   * @param name 列名
+   * @return 行数分の値
+   */
+  public int[] getInts(String name) {
+    return Arrays.copyOf(column(name, IntColumn.class).values, rowCount);
+  }
+
+  /**
+   * {@code long} の列の値を返す. NULL の行は 0.
+   *
+   * @param name 列名
+   * @return 行数分の値
+   */
+  public long[] getLongs(String name) {
+    return Arrays.copyOf(column(name, LongColumn.class).values, rowCount);
+  }
+
+  /**
+   * {@code double} の列の値を返す. NULL の行は 0.
+   *
+   * @param name 列名
+   * @return 行数分の値
+   */
+  public double[] getDoubles(String name) {
+    return Arrays.copyOf(column(name, DoubleColumn.class).values, rowCount);
+  }
+
+  /**
+   * {@code boolean} の列の値を返す. {@code true} の行のビットが立つ.
+   *
+   * @param name 列名
+   * @return 値のビットセット
+   */
+  public BitSet getBooleans(String name) {
+    return (BitSet) column(name, BooleanColumn.class).values.clone();
+  }
+
+  /**
+   * 日付の列の値をエポック日数で返す. NULL の行は 0.
+   *
+   * @param name 列名
+   * @return 行数分の値
+   */
+  public int[] getEpochDays(String name) {
+    return Arrays.copyOf(column(name, DateColumn.class).values, rowCount);
+  }
+
+  /**
+   * タイムスタンプの列の値をエポックからのマイクロ秒で返す. NULL の行は 0.
+   *
+   * @param name 列名
+   * @return 行数分の値
+   */
+  public long[] getEpochMicros(String name) {
+    return Arrays.copyOf(column(name, TimestampColumn.class).values, rowCount);
+  }
+
+  /**
+   * 文字列の列の値を返す. NULL の行は {@code null}.
+   *
+   * @param name 列名
+   * @return 行数分の値
+   */
+  public String[] getStrings(String name) {
+    return Arrays.copyOf(column(name, StringColumn.class).values, rowCount);
+  }
+
+  /**
+   * 列の NULL の行を返す.
+   *
+   * @param name 列名
+   * @return NULL の行のビットが立ったビットセット
+   */
+  public BitSet getNulls(String name) {
+    return (BitSet) column(name, Column.class).nulls.clone();
+  }
+
+  /** 列を追加する. 読み込み済みの行には新しい列の値がないため、行を読み込んだ後は追加できない. */
+  private ColumnarResultHandler add(Column column) {
+    if (rowCount > 0) {
+      throw new IllegalStateException(
+          "Cannot add column " + column.key + " after " + rowCount + " rows were read");
+    }
+    columns.put(column.key, column);
+    return this;
+  }
+
+  private <C extends Column> C column(String name, Class<C> type) {
+    Column column = columns.get(name.toUpperCase(Locale.ENGLISH));
+    if (!type.isInstance(column)) {
+      throw new IllegalArgumentException("No " + type.getSimpleName() + " named " + name);
+    }
+    return type.cast(column);
+  }
+
+  private static void resolveIndexes(ResultSetMetaData metaData, Column... targets)
+      throws SQLException {
+    Map<String, Integer> indexes = new HashMap<>();
+    for (int i = metaData.getColumnCount(); i >= 1; i--) {
+      indexes.put(metaData.getColumnLabel(i).toUpperCase(Locale.ENGLISH), i);
+    }
+    for (Column column : targets) {
+      Integer index = indexes.get(column.key);
+      if (index == null) {
+        throw new SQLException("Column not found in result set: " + column.key);
+      }
+      column.index = index;
+    }
+  }
+
+  /** One stored column. */
+  private abstract static class Column {
+    final String key;
+    final BitSet nulls = new BitSet();
+    int index;
+
+    Column(String name) {
+      this.key = name.toUpperCase(Locale.ENGLISH);
+    }
+
+    abstract void read(ResultSet rs, int row) throws SQLException;
+
+    abstract void grow(int capacity);
+  }
+
+  private static final class IntColumn extends Column {
+    int[] values = new int[INITIAL_CAPACITY];
+
+    IntColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    void read(ResultSet rs, int row) throws SQLException {
+      int value = rs.getInt(index);
+      if (rs.wasNull()) {
+        nulls.set(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  private static final class LongColumn extends Column {
+    long[] values = new long[INITIAL_CAPACITY];
+
+    LongColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    void read(ResultSet rs, int row) throws SQLException {
+      long value = rs.getLong(index);
+      if (rs.wasNull()) {
+        nulls.set(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  private static final class DoubleColumn extends Column {
+    double[] values = new double[INITIAL_CAPACITY];
+
+    DoubleColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    void read(ResultSet rs, int row) throws SQLException {
+      double value = rs.getDouble(index);
+      if (rs.wasNull()) {
+        nulls.set(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  private static final class BooleanColumn extends Column {
+    final BitSet values = new BitSet();
+
+    BooleanColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    void read(ResultSet rs, int row) throws SQLException {
+      boolean value = rs.getBoolean(index);
+      if (rs.wasNull()) {
+        nulls.set(row);
+      } else if (value) {
+        values.set(row);
+      }
+    }
+
+    @Override
+    void grow(int capacity) {
+      // BitSet は必要に応じて自動的に拡張される
+    }
+  }
+
+  private static final class DateColumn extends Column {
+    int[] values = new int[INITIAL_CAPACITY];
+
+    DateColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    void read(ResultSet rs, int row) throws SQLException {
+      Date date = rs.getDate(index);
+      if (date == null) {
+        nulls.set(row);
+      } else {
+        values[row] = Math.toIntExact(date.toLocalDate().toEpochDay());
+      }
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  private static final class TimestampColumn extends Column {
+    long[] values = new long[INITIAL_CAPACITY];
+
+    TimestampColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    void read(ResultSet rs, int row) throws SQLException {
+      Timestamp timestamp = rs.getTimestamp(index);
+      if (timestamp == null) {
+        nulls.set(row);
+      } else {
+        // getTime() はミリ秒まで、getNanos() は秒未満すべてを持つため、秒とナノ秒に分けて合成する
+        long seconds = Math.floorDiv(timestamp.getTime(), 1000L);
+        values[row] = seconds * 1_000_000L + timestamp.getNanos() / 1000;
+      }
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+
+  private static final class StringColumn extends Column {
+    String[] values = new String[INITIAL_CAPACITY];
+
+    StringColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    void read(ResultSet rs, int row) throws SQLException {
+      String value = rs.getString(index);
+      if (value == null) {
+        nulls.set(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void grow(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+  }
+}
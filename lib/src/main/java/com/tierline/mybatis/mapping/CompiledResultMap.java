@@ -0,0 +1,234 @@
+package com.tierline.mybatis.mapping;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Row mapper compiled from a flat result map.
+ *
+ * <p>Each column is decoded by the type handler of its result mapping, read by column index, and
+ * the object is built by an {@link ObjectBuilder} without going through {@code MetaObject}: beans
+ * through their setters, and records mapped with {@code <constructor>} arguments through their
+ * canonical constructor.
+ */
+final class CompiledResultMap {
+  /** 結果セットに存在しない列の番号. */
+  static final int MISSING = 0;
+
+  /** 自動マッピングの対象になる列があることを表す、キャッシュ上の値. */
+  private static final int[] AUTO_MAPPED = new int[0];
+
+  /** 列の組み合わせごとにキャッシュする結果の数の上限. 動的 SQL で列が変わり続ける場合に備える. */
+  private static final int MAX_CACHED_COLUMN_SETS = 64;
+
+  private final ResultMap resultMap;
+  private final Configuration configuration;
+  private final String[] columns;
+  private final TypeHandler<?>[] typeHandlers;
+  private final ObjectBuilder builder;
+
+  /** 結果セットの列名の並びごとの {@link #resolveColumns(ResultSet)} の結果. */
+  private final Map<List<String>, int[]> resolved = new ConcurrentHashMap<>();
+
+  private CompiledResultMap(
+      ResultMap resultMap,
+      Configuration configuration,
+      List<ResultMapping> mappings,
+      ObjectBuilder builder) {
+    this.resultMap = resultMap;
+    this.configuration = configuration;
+    this.columns = new String[mappings.size()];
+    this.typeHandlers = new TypeHandler<?>[mappings.size()];
+    for (int i = 0; i < mappings.size(); i++) {
+      columns[i] = mappings.get(i).getColumn().toUpperCase(Locale.ENGLISH);
+      typeHandlers[i] = mappings.get(i).getTypeHandler();
+    }
+    this.builder = builder;
+  }
+
+  /**
+   * 結果マップをコンパイルする.
+   *
+   * @return 入れ子の結果マップやディスクリミネータなど、標準の処理が必要な結果マップの場合は {@code null}
+   */
+  static CompiledResultMap compile(ResultMap resultMap, Configuration configuration) {
+    if (resultMap.hasNestedResultMaps()
+        || resultMap.hasNestedQueries()
+        || resultMap.getDiscriminator() != null
+        || configuration.getObjectFactory().getClass() != DefaultObjectFactory.class) {
+      return null;
+    }
+    // コンストラクタ引数のマッピングはレコードの正規コンストラクタで、それ以外は setter で生成する
+    List<ResultMapping> constructorMappings = resultMap.getConstructorResultMappings();
+    List<ResultMapping> mappings =
+        constructorMappings.isEmpty() ? resultMap.getPropertyResultMappings() : constructorMappings;
+    if (!constructorMappings.isEmpty() && !resultMap.getPropertyResultMappings().isEmpty()) {
+      return null;
+    }
+    String[] names = new String[mappings.size()];
+    for (int i = 0; i < mappings.size(); i++) {
+      ResultMapping mapping = mappings.get(i);
+      if (mapping.getColumn() == null
+          || !mapping.getComposites().isEmpty()
+          || mapping.getTypeHandler() == null) {
+        return null;
+      }
+      names[i] = mapping.getProperty();
+    }
+    ObjectBuilder builder =
+        constructorMappings.isEmpty()
+            ? BeanBuilder.create(resultMap.getType(), names, configuration.isCallSettersOnNulls())
+            : RecordBuilder.create(resultMap.getType(), names);
+    if (builder == null) {
+      return null;
+    }
+    return new CompiledResultMap(resultMap, configuration, mappings, builder);
+  }
+
+  /**
+   * 結果マッピングの列を結果セットの列番号に対応付ける. 結果は結果セットの列名の並びごとにキャッシュする.
+   *
+   * @return 各結果マッピングの列番号（存在しない列は {@link #MISSING}）. 共有されるため変更しない.
+   *     自動マッピングの対象になる列がある場合は {@code null}
+   */
+  int[] resolveColumns(ResultSet rs) throws SQLException {
+    ResultSetMetaData metaData = rs.getMetaData();
+    String[] labels = new String[metaData.getColumnCount()];
+    for (int i = 0; i < labels.length; i++) {
+      String label =
+          configuration.isUseColumnLabel()
+              ? metaData.getColumnLabel(i + 1)
+              : metaData.getColumnName(i + 1);
+      labels[i] = label.toUpperCase(Locale.ENGLISH);
+    }
+    List<String> key = Arrays.asList(labels);
+    int[] result = resolved.get(key);
+    if (result == null) {
+      result = resolve(labels);
+      if (resolved.size() < MAX_CACHED_COLUMN_SETS) {
+        resolved.put(key, result);
+      }
+    }
+    return result == AUTO_MAPPED ? null : result;
+  }
+
+  private int[] resolve(String[] labels) {
+    Map<String, Integer> indexes = new HashMap<>();
+    for (int i = labels.length; i >= 1; i--) {
+      indexes.put(labels[i - 1], i);
+    }
+    int[] result = new int[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      Integer index = indexes.get(columns[i]);
+      result[i] = index == null ? MISSING : index;
+    }
+    indexes.keySet().removeAll(Arrays.asList(columns));
+    if (isAutoMapping() && hasAutoMappableColumn(indexes.keySet())) {
+      return AUTO_MAPPED;
+    }
+    return result;
+  }
+
+  /**
+   * 結果セットのすべての行をマッピングする.
+   *
+   * @param rs 結果セット
+   * @param indexes {@link #resolveColumns(ResultSet)} の戻り値
+   * @return マッピングしたオブジェクトの一覧
+   */
+  List<Object> mapAll(ResultSet rs, int[] indexes) throws SQLException {
+    List<Object> results = new ArrayList<>();
+    Object[] values = new Object[columns.length];
+    while (rs.next()) {
+      results.add(mapRow(rs, indexes, values));
+    }
+    return results;
+  }
+
+  /**
+   * 現在の行をマッピングする.
+   *
+   * @param values 値を格納する作業用の配列. 行ごとに再利用できる
+   * @return マッピングしたオブジェクト. すべての列が {@code null} の場合は MyBatis と同じく、{@code
+   *     returnInstanceForEmptyRow} が有効なら空のオブジェクト、無効なら {@code null}
+   */
+  Object mapRow(ResultSet rs, int[] indexes, Object[] values) throws SQLException {
+    for (int i = 0; i < indexes.length; i++) {
+      values[i] = indexes[i] == MISSING ? null : typeHandlers[i].getResult(rs, indexes[i]);
+    }
+    return buildRow(values);
+  }
+
+  /**
+   * デコード済みの 1 行分の値からオブジェクトを生成する.
+   *
+   * @param values 結果マッピングの順に並んだ値
+   * @return 生成したオブジェクト. すべての値が {@code null} の場合は {@link #mapRow(ResultSet, int[], Object[])} と同じ
+   */
+  Object buildRow(Object[] values) {
+    for (Object value : values) {
+      if (value != null) {
+        return build(values);
+      }
+    }
+    return configuration.isReturnInstanceForEmptyRow() ? build(null) : null;
+  }
+
+  /** 結果マッピングの順に並んだ TypeHandler を返す. */
+  TypeHandler<?>[] getTypeHandlers() {
+    return typeHandlers.clone();
+  }
+
+  /**
+   * デコード済みの値からオブジェクトを生成する.
+   *
+   * @param values 結果マッピングの順に並んだ値. {@code null} の場合はすべての値が {@code null} の空の行
+   * @return 生成したオブジェクト
+   */
+  @SuppressWarnings("PMD.AvoidCatchingThrowable")
+  Object build(Object[] values) {
+    try {
+      return values == null ? builder.buildEmpty(columns.length) : builder.build(values);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new ExecutorException("Error mapping result map " + resultMap.getId(), e);
+    }
+  }
+
+  private boolean isAutoMapping() {
+    if (resultMap.getAutoMapping() != null) {
+      return resultMap.getAutoMapping();
+    }
+    return configuration.getAutoMappingBehavior() != AutoMappingBehavior.NONE;
+  }
+
+  private boolean hasAutoMappableColumn(Iterable<String> unmappedColumns) {
+    MetaClass metaClass =
+        MetaClass.forClass(resultMap.getType(), configuration.getReflectorFactory());
+    for (String column : unmappedColumns) {
+      String property =
+          metaClass.findProperty(column, configuration.isMapUnderscoreToCamelCase());
+      if (property != null && metaClass.hasSetter(property)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,115 @@
+package com.tierline.mybatis.mapping;
+
+import com.tierline.mybatis.plugin.PluginTargets;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * MyBatis plugin that maps registered result maps without {@code MetaObject} reflection.
+ *
+ * <p>For every registered result map, the first execution compiles a row mapper that reads the
+ * columns by index through the result mappings' type handlers (such as the Optional type
+ * handlers) and calls the setters through a composed method handle. Records mapped with {@code
+ * <constructor>} arguments are built through a cached canonical-constructor handle that takes the
+ * decoded values directly, so immutable types need no intermediate bean. Result maps that need the
+ * standard MyBatis processing (nested result maps or selects, discriminators, a custom object
+ * factory, properties without a public setter, or columns that would be auto-mapped), and
+ * statements executed with a {@code ResultHandler} or non-default {@code RowBounds}, fall back to
+ * the standard path.
+ *
+ * <pre>
+ * &lt;plugin interceptor="com.tierline.mybatis.mapping.CompiledResultMapInterceptor"&gt;
+ *   &lt;property name="resultMaps"
+ *       value="com.tierline.mybatis.integration.TestEntityMapper.testEntityResultMap"/&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ */
+@Intercepts({
+  @Signature(
+      type = ResultSetHandler.class,
+      method = "handleResultSets",
+      args = {Statement.class})
+})
+public class CompiledResultMapInterceptor implements Interceptor {
+  private final Set<String> resultMapIds = ConcurrentHashMap.newKeySet();
+  private final Map<ResultMap, Optional<CompiledResultMap>> compiled = new ConcurrentHashMap<>();
+
+  /**
+   * リフレクションを使わずにマッピングする結果マップを登録する.
+   *
+   * @param resultMapId 名前空間を含む結果マップの ID
+   */
+  public void register(String resultMapId) {
+    resultMapIds.add(resultMapId);
+  }
+
+  /** {@code resultMaps} プロパティにカンマ区切りで指定された結果マップを登録する. */
+  @Override
+  public void setProperties(Properties properties) {
+    String value = properties.getProperty("resultMaps", "");
+    for (String id : value.split(",")) {
+      if (!id.isBlank()) {
+        register(id.strip());
+      }
+    }
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    MetaObject handler = PluginTargets.forTarget(invocation.getTarget());
+    MappedStatement ms = (MappedStatement) handler.getValue("mappedStatement");
+    RowBounds rowBounds = (RowBounds) handler.getValue("rowBounds");
+    if (ms.getResultMaps().size() != 1
+        || ms.getResultSets() != null
+        || handler.getValue("resultHandler") != null
+        || rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET
+        || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT) {
+      return invocation.proceed();
+    }
+    ResultMap resultMap = ms.getResultMaps().get(0);
+    if (!resultMapIds.contains(resultMap.getId())) {
+      return invocation.proceed();
+    }
+    Optional<CompiledResultMap> mapper =
+        compiled.computeIfAbsent(
+            resultMap,
+            key -> Optional.ofNullable(CompiledResultMap.compile(key, ms.getConfiguration())));
+    if (mapper.isEmpty()) {
+      return invocation.proceed();
+    }
+
+    Statement stmt = (Statement) invocation.getArgs()[0];
+    ResultSet rs = stmt.getResultSet();
+    if (rs == null) {
+      return invocation.proceed();
+    }
+    int[] indexes = mapper.get().resolveColumns(rs);
+    if (indexes == null) {
+      return invocation.proceed();
+    }
+    try (rs) {
+      return mapper.get().mapAll(rs, indexes);
+    }
+  }
+
+  /** 結果マップがコンパイル済みのマッパーで処理されているかどうかを返す. */
+  boolean isCompiled(String resultMapId, Configuration configuration) {
+    ResultMap resultMap = configuration.getResultMap(resultMapId);
+    return compiled.getOrDefault(resultMap, Optional.empty()).isPresent();
+  }
+}
@@ -0,0 +1,24 @@
+package com.tierline.mybatis.mapping;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * {@link ResultHandler} that consumes the JDBC {@link ResultSet} itself instead of mapped objects.
+ *
+ * <p>Passed to {@code SqlSession.select(String, Object, ResultHandler)}, it receives the result set
+ * of the statement when {@link DirectResultHandlerInterceptor} is installed, and MyBatis builds no
+ * result objects at all.
+ *
+ * @param <T> 通常の {@link ResultHandler} として受け取る結果の型
+ */
+public interface DirectResultHandler<T> extends ResultHandler<T> {
+
+  /**
+   * 結果セットのすべての行を処理する. 結果セットは呼び出し後に閉じられる.
+   *
+   * @param rs 先頭行の前に位置する結果セット
+   */
+  void handleResultSet(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,49 @@
+package com.tierline.mybatis.mapping;
+
+import com.tierline.mybatis.plugin.PluginTargets;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+/**
+ * MyBatis plugin that hands the result set to a {@link DirectResultHandler} instead of mapping it.
+ *
+ * <p>Only the first result set of the statement is handed over, and {@code RowBounds} is not
+ * applied. Statements executed with any other kind of {@code ResultHandler} are left untouched.
+ *
+ * <pre>
+ * &lt;plugin interceptor="com.tierline.mybatis.mapping.DirectResultHandlerInterceptor"/&gt;
+ * </pre>
+ */
+@Intercepts({
+  @Signature(
+      type = ResultSetHandler.class,
+      method = "handleResultSets",
+      args = {Statement.class})
+})
+public class DirectResultHandlerInterceptor implements Interceptor {
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    Object resultHandler =
+        PluginTargets.forTarget(invocation.getTarget()).getValue("resultHandler");
+    if (!(resultHandler instanceof DirectResultHandler<?> handler)) {
+      return invocation.proceed();
+    }
+    Statement stmt = (Statement) invocation.getArgs()[0];
+    ResultSet rs = stmt.getResultSet();
+    if (rs == null) {
+      return invocation.proceed();
+    }
+    try (rs) {
+      handler.handleResultSet(rs);
+    }
+    // ResultHandler を指定した場合の MyBatis と同じく、空の一覧を返す
+    return new ArrayList<>();
+  }
+}
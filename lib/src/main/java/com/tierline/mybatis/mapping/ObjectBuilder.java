@@ -0,0 +1,23 @@
+package com.tierline.mybatis.mapping;
+
+/** Builds a mapped object from the decoded column values of one row. */
+interface ObjectBuilder {
+
+  /**
+   * 1 行分の値からオブジェクトを生成する.
+   *
+   * @param values 結果マッピングの順に並んだ値. 呼び出し後に再利用されるため保持してはならない
+   * @return 生成したオブジェクト
+   */
+  Object build(Object[] values) throws Throwable;
+
+  /**
+   * すべての値が {@code null} の行に対応するオブジェクトを生成する. {@code returnInstanceForEmptyRow} が有効な場合に使われる.
+   *
+   * @param width 結果マッピングの数
+   * @return 生成したオブジェクト
+   */
+  default Object buildEmpty(int width) throws Throwable {
+    return build(new Object[width]);
+  }
+}
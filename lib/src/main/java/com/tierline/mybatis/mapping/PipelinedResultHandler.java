@@ -0,0 +1,275 @@
+package com.tierline.mybatis.mapping;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultContext;
+
+/**
+ * Result handler that overlaps reading a large result set with mapping it.
+ *
+ * <p>The thread that executes the statement only reads the raw column values, in chunks of rows.
+ * Each chunk is then decoded by the result map's type handlers (such as the Optional type
+ * handlers) and turned into objects on an {@link Executor}, by default the common {@link
+ * ForkJoinPool}; {@code Executors.newVirtualThreadPerTaskExecutor()} works as well. The objects are
+ * passed to the consumer on the executing thread, in row order or, when {@code ordered} is {@code
+ * false}, chunk by chunk as they complete, so the consumer needs no synchronization. At most {@code
+ * maxPendingChunks} chunks are in flight; beyond that, reading waits for the consumer.
+ *
+ * <p>The result map must be one that {@link CompiledResultMapInterceptor} can compile, and the
+ * type handlers must read their column the same way on every row; see {@link RawRowReader}.
+ * Requires {@link DirectResultHandlerInterceptor}.
+ *
+ * <pre>
+ * PipelinedResultHandler&lt;TestEntity&gt; handler =
+ *     new PipelinedResultHandler&lt;&gt;(
+ *         configuration,
+ *         "com.tierline.mybatis.integration.TestEntityMapper.testEntityResultMap",
+ *         TestEntity.class,
+ *         entity -&gt; writer.write(entity));
+ * session.select("com.tierline.mybatis.integration.TestEntityMapper.findAll", handler);
+ * </pre>
+ *
+ * @param <T> 結果マップの型
+ */
+public class PipelinedResultHandler<T> implements DirectResultHandler<T> {
+  /** 1 回にワーカーへ渡す行数の既定値. */
+  public static final int DEFAULT_CHUNK_SIZE = 256;
+
+  private final String resultMapId;
+  private final CompiledResultMap compiled;
+  private final int columnCount;
+  private final Consumer<? super T> consumer;
+  private Executor executor = ForkJoinPool.commonPool();
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+  private int maxPendingChunks = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+  private boolean ordered = true;
+  private long rowCount;
+
+  /**
+   * コンストラクタ.
+   *
+   * @param configuration 結果マップを登録した設定
+   * @param resultMapId 名前空間を含む結果マップの ID
+   * @param type 結果マップの型
+   * @param consumer マッピングしたオブジェクトを受け取る処理
+   */
+  public PipelinedResultHandler(
+      Configuration configuration,
+      String resultMapId,
+      Class<T> type,
+      Consumer<? super T> consumer) {
+    ResultMap resultMap = configuration.getResultMap(resultMapId);
+    if (!type.isAssignableFrom(resultMap.getType())) {
+      throw new IllegalArgumentException(
+          "Result map " + resultMapId + " maps " + resultMap.getType().getName() + ", not " + type);
+    }
+    this.compiled = CompiledResultMap.compile(resultMap, configuration);
+    if (compiled == null) {
+      throw new IllegalArgumentException(
+          "Result map " + resultMapId + " needs the standard MyBatis mapping");
+    }
+    this.columnCount = compiled.getTypeHandlers().length;
+    this.resultMapId = resultMapId;
+    this.consumer = consumer;
+  }
+
+  /**
+   * デコードとオブジェクトの生成を実行する {@link Executor} を設定する.
+   *
+   * @param executor 実行する {@link Executor}
+   * @return このハンドラー
+   */
+  public PipelinedResultHandler<T> executor(Executor executor) {
+    this.executor = executor;
+    return this;
+  }
+
+  /**
+   * 1 回にワーカーへ渡す行数を設定する.
+   *
+   * @param chunkSize 行数
+   * @return このハンドラー
+   */
+  public PipelinedResultHandler<T> chunkSize(int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  /**
+   * 処理中にできるチャンクの数の上限を設定する.
+   *
+   * @param maxPendingChunks チャンクの数
+   * @return このハンドラー
+   */
+  public PipelinedResultHandler<T> maxPendingChunks(int maxPendingChunks) {
+    if (maxPendingChunks < 1) {
+      throw new IllegalArgumentException(
+          "maxPendingChunks must be positive: " + maxPendingChunks);
+    }
+    this.maxPendingChunks = maxPendingChunks;
+    return this;
+  }
+
+  /**
+   * 結果を行の順に渡すかどうかを設定する.
+   *
+   * @param ordered 行の順に渡す場合は {@code true}, 完了したチャンクから渡す場合は {@code false}
+   * @return このハンドラー
+   */
+  public PipelinedResultHandler<T> ordered(boolean ordered) {
+    this.ordered = ordered;
+    return this;
+  }
+
+  @Override
+  public void handleResultSet(ResultSet rs) throws SQLException {
+    int[] indexes = compiled.resolveColumns(rs);
+    if (indexes == null) {
+      throw new ExecutorException(
+          "Result map " + resultMapId + " cannot be pipelined: some columns are auto-mapped");
+    }
+    if (!rs.next()) {
+      return;
+    }
+    RawRowReader reader = RawRowReader.record(rs, indexes, compiled.getTypeHandlers());
+    int width = reader.getWidth();
+    Pipeline pipeline = new Pipeline();
+    try {
+      boolean more = true;
+      while (more) {
+        Object[] slots = new Object[chunkSize * width];
+        int rows = 0;
+        while (more && rows < chunkSize) {
+          reader.read(rs, slots, rows * width);
+          rows++;
+          more = rs.next();
+        }
+        rowCount += rows;
+        int chunkRows = rows;
+        pipeline.add(
+            CompletableFuture.supplyAsync(() -> materialize(reader, slots, chunkRows), executor));
+        pipeline.deliver(maxPendingChunks);
+      }
+      pipeline.deliver(0);
+    } finally {
+      pipeline.cancel();
+    }
+  }
+
+  /** {@link DirectResultHandlerInterceptor} が登録されていない場合に呼ばれる. */
+  @Override
+  public void handleResult(ResultContext<? extends T> resultContext) {
+    throw new IllegalStateException(
+        "PipelinedResultHandler requires " + DirectResultHandlerInterceptor.class.getName());
+  }
+
+  /** 読み込んだ行数を返す. */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /** ワーカーで実行され、チャンクの行をデコードしてオブジェクトを生成する. */
+  private Object[] materialize(RawRowReader reader, Object[] slots, int rows) {
+    RawRowReader.Decoder decoder = reader.decoder();
+    int width = reader.getWidth();
+    Object[] values = new Object[columnCount];
+    Object[] results = new Object[rows];
+    try {
+      for (int i = 0; i < rows; i++) {
+        decoder.decode(slots, i * width, values);
+        results[i] = compiled.buildRow(values);
+      }
+    } catch (SQLException e) {
+      throw new CompletionException(e);
+    }
+    return results;
+  }
+
+  /** Chunks in flight, delivered to the consumer on the executing thread. */
+  private final class Pipeline {
+    private final Deque<CompletableFuture<Object[]>> pending = new ArrayDeque<>();
+    private final BlockingQueue<CompletableFuture<Object[]>> completed =
+        new LinkedBlockingQueue<>();
+
+    void add(CompletableFuture<Object[]> chunk) {
+      pending.add(chunk);
+      if (!ordered) {
+        chunk.whenComplete((results, e) -> completed.add(chunk));
+      }
+    }
+
+    /** 完了したチャンクを渡し、処理中のチャンクが {@code limit} 個以下になるまで待つ. */
+    void deliver(int limit) throws SQLException {
+      while (!pending.isEmpty()) {
+        CompletableFuture<Object[]> chunk;
+        if (ordered) {
+          if (pending.size() <= limit && !pending.peekFirst().isDone()) {
+            return;
+          }
+          chunk = pending.pollFirst();
+        } else {
+          chunk = pending.size() > limit ? take() : completed.poll();
+          if (chunk == null) {
+            return;
+          }
+          pending.remove(chunk);
+        }
+        accept(join(chunk));
+      }
+    }
+
+    void cancel() {
+      for (CompletableFuture<Object[]> chunk : pending) {
+        chunk.cancel(false);
+      }
+      pending.clear();
+    }
+
+    private CompletableFuture<Object[]> take() {
+      try {
+        return completed.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ExecutorException("Interrupted while mapping result map " + resultMapId, e);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void accept(Object[] results) {
+    for (Object result : results) {
+      consumer.accept((T) result);
+    }
+  }
+
+  /** チャンクの結果を待つ. ワーカーで発生した例外はそのまま投げ直す. */
+  private static Object[] join(CompletableFuture<Object[]> chunk) throws SQLException {
+    try {
+      return chunk.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof SQLException sqlException) {
+        throw sqlException;
+      } else if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      } else if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,330 @@
+package com.tierline.mybatis.mapping;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Reads the raw column values of a row on the JDBC thread so that the type handlers can decode
+ * them later on another thread.
+ *
+ * <p>On the first row, each type handler is run against a recording result set that notes which
+ * getters it calls for its column. For the following rows only those getters are called, and a
+ * {@link Decoder} later replays the captured values to the type handler through a result set that
+ * answers the same getters, including {@code wasNull}. Columns whose handler reads streams, LOBs or
+ * arrays, which stay attached to the cursor, or calls anything but getters of its own column, are
+ * decoded on the JDBC thread instead. A handler that calls a getter on a later row that it did not
+ * call on the first row fails the read with an {@link SQLException}.
+ */
+final class RawRowReader {
+  /** SQL の NULL を読み込んだことを表す値. */
+  private static final Object WAS_NULL = new Object();
+
+  private final int[] indexes;
+  private final TypeHandler<?>[] handlers;
+  private final Getter[][] getters;
+  private final int[] offsets;
+  private final int width;
+
+  /** 記録時に読み込んだ先頭行の値. 最初の {@link #read(ResultSet, Object[], int)} で使われる. */
+  private Object[] recorded;
+
+  /** One getter that a type handler calls for its column. */
+  private record Getter(Method method, Read read, Object defaultValue) {}
+
+  /** Reads one captured value from the current row. */
+  @FunctionalInterface
+  private interface Read {
+    Object read(ResultSet rs) throws SQLException;
+  }
+
+  private RawRowReader(int[] indexes, TypeHandler<?>[] handlers, Getter[][] getters) {
+    this.indexes = indexes.clone();
+    this.handlers = handlers.clone();
+    this.getters = getters;
+    this.offsets = new int[indexes.length];
+    int offset = 0;
+    for (int i = 0; i < indexes.length; i++) {
+      offsets[i] = offset;
+      offset += getters[i] == null ? 1 : getters[i].length;
+    }
+    this.width = offset;
+  }
+
+  /**
+   * 現在の行で各 TypeHandler が呼び出す getter を記録する.
+   *
+   * @param rs 先頭行に位置する結果セット
+   * @param indexes 結果マッピングごとの列番号（存在しない列は {@link CompiledResultMap#MISSING}）
+   * @param handlers 結果マッピングごとの TypeHandler
+   * @return 記録した getter で行を読み込むリーダー
+   */
+  static RawRowReader record(ResultSet rs, int[] indexes, TypeHandler<?>[] handlers)
+      throws SQLException {
+    Getter[][] getters = new Getter[indexes.length][];
+    List<Object> values = new ArrayList<>();
+    for (int i = 0; i < indexes.length; i++) {
+      if (indexes[i] == CompiledResultMap.MISSING) {
+        getters[i] = new Getter[0];
+        continue;
+      }
+      Recorder recorder = new Recorder(rs, indexes[i]);
+      ResultSet recording =
+          (ResultSet)
+              Proxy.newProxyInstance(
+                  ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class}, recorder);
+      Object decoded = handlers[i].getResult(recording, indexes[i]);
+      if (recorder.attached) {
+        values.add(decoded);
+      } else {
+        getters[i] = recorder.getters.toArray(Getter[]::new);
+        values.addAll(recorder.values);
+      }
+    }
+    RawRowReader reader = new RawRowReader(indexes, handlers, getters);
+    reader.recorded = values.toArray();
+    return reader;
+  }
+
+  /** 1 行分の値の数を返す. */
+  int getWidth() {
+    return width;
+  }
+
+  /**
+   * 現在の行の値を読み込む. JDBC のスレッドで呼び出す.
+   *
+   * @param rs 結果セット
+   * @param slots 値を格納する配列
+   * @param offset 行の値を格納する位置. {@link #getWidth()} 個の値が格納される
+   */
+  void read(ResultSet rs, Object[] slots, int offset) throws SQLException {
+    if (recorded != null) {
+      System.arraycopy(recorded, 0, slots, offset, width);
+      recorded = null;
+      return;
+    }
+    for (int i = 0; i < indexes.length; i++) {
+      Getter[] columnGetters = getters[i];
+      if (columnGetters == null) {
+        slots[offset + offsets[i]] = handlers[i].getResult(rs, indexes[i]);
+        continue;
+      }
+      for (int j = 0; j < columnGetters.length; j++) {
+        slots[offset + offsets[i] + j] = columnGetters[j].read().read(rs);
+      }
+    }
+  }
+
+  /**
+   * 読み込んだ値をデコードするオブジェクトを生成する. スレッドごとに生成する.
+   *
+   * @return デコーダー
+   */
+  Decoder decoder() {
+    return new Decoder();
+  }
+
+  /** Replays the captured values of rows to the type handlers; not thread-safe. */
+  final class Decoder implements InvocationHandler {
+    private final ResultSet replay =
+        (ResultSet)
+            Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class}, this);
+    private Object[] slots;
+    private int base;
+    private int column;
+    private boolean wasNull;
+
+    /**
+     * 読み込んだ 1 行分の値を TypeHandler でデコードする.
+     *
+     * @param rowSlots {@link #read(ResultSet, Object[], int)} で値を格納した配列
+     * @param offset 行の値の位置
+     * @param values デコードした値を結果マッピングの順に格納する配列
+     */
+    void decode(Object[] rowSlots, int offset, Object[] values) throws SQLException {
+      slots = rowSlots;
+      for (int i = 0; i < indexes.length; i++) {
+        if (indexes[i] == CompiledResultMap.MISSING) {
+          values[i] = null;
+        } else if (getters[i] == null) {
+          values[i] = rowSlots[offset + offsets[i]];
+        } else {
+          base = offset + offsets[i];
+          column = i;
+          values[i] = handlers[i].getResult(replay, indexes[i]);
+        }
+      }
+      slots = null;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+      if ("wasNull".equals(method.getName())) {
+        return wasNull;
+      }
+      Getter[] columnGetters = getters[column];
+      // 記録と再生のプロキシは同じクラスなので、通常は同一の Method が渡される
+      for (int j = 0; j < columnGetters.length; j++) {
+        if (columnGetters[j].method() == method) {
+          return replay(columnGetters[j], j);
+        }
+      }
+      for (int j = 0; j < columnGetters.length; j++) {
+        if (columnGetters[j].method().equals(method)) {
+          return replay(columnGetters[j], j);
+        }
+      }
+      throw new SQLException(
+          handlers[column].getClass().getName()
+              + " called "
+              + method.getName()
+              + " for column "
+              + indexes[column]
+              + ", which it did not call on the first row");
+    }
+
+    private Object replay(Getter getter, int j) {
+      Object value = slots[base + j];
+      wasNull = value == WAS_NULL;
+      return wasNull ? getter.defaultValue() : value;
+    }
+  }
+
+  /** Result set that records the getters a type handler calls for one column. */
+  private static final class Recorder implements InvocationHandler {
+    private final ResultSet target;
+    private final Integer index;
+    private final List<Getter> getters = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+    private boolean attached;
+
+    Recorder(ResultSet target, int index) {
+      this.target = target;
+      this.index = index;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      Object result;
+      try {
+        result = method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      if ("wasNull".equals(method.getName())) {
+        return result;
+      }
+      if (!method.getName().startsWith("get")
+          || args == null
+          || !index.equals(args[0])
+          || isAttached(method.getReturnType())
+          || result != null && isAttached(result.getClass())) {
+        attached = true;
+      } else if (getters.stream().noneMatch(getter -> getter.method().equals(method))) {
+        getters.add(new Getter(method, compile(method, args), defaultValue(method)));
+        values.add(captured(method, result, target));
+      }
+      return result;
+    }
+  }
+
+  /** 読み込み後のカーソル移動で使えなくなる型かどうかを返す. */
+  private static boolean isAttached(Class<?> type) {
+    return InputStream.class.isAssignableFrom(type)
+        || Reader.class.isAssignableFrom(type)
+        || Blob.class.isAssignableFrom(type)
+        || Clob.class.isAssignableFrom(type)
+        || java.sql.Array.class.isAssignableFrom(type)
+        || SQLXML.class.isAssignableFrom(type)
+        || Ref.class.isAssignableFrom(type);
+  }
+
+  /** よく使われる getter は直接、それ以外はリフレクションで呼び出す. */
+  private static Read compile(Method method, Object[] args) {
+    int index = (Integer) args[0];
+    if (args.length == 1) {
+      switch (method.getName()) {
+        case "getObject":
+          return rs -> nullable(rs.getObject(index));
+        case "getString":
+          return rs -> nullable(rs.getString(index));
+        case "getBigDecimal":
+          return rs -> nullable(rs.getBigDecimal(index));
+        case "getTimestamp":
+          return rs -> nullable(rs.getTimestamp(index));
+        case "getDate":
+          return rs -> nullable(rs.getDate(index));
+        case "getBytes":
+          return rs -> nullable(rs.getBytes(index));
+        case "getInt":
+          return rs -> {
+            int value = rs.getInt(index);
+            return rs.wasNull() ? WAS_NULL : value;
+          };
+        case "getLong":
+          return rs -> {
+            long value = rs.getLong(index);
+            return rs.wasNull() ? WAS_NULL : value;
+          };
+        case "getDouble":
+          return rs -> {
+            double value = rs.getDouble(index);
+            return rs.wasNull() ? WAS_NULL : value;
+          };
+        case "getBoolean":
+          return rs -> {
+            boolean value = rs.getBoolean(index);
+            return rs.wasNull() ? WAS_NULL : value;
+          };
+        default:
+          break;
+      }
+    }
+    Object[] arguments = args.clone();
+    return rs -> {
+      try {
+        return captured(method, method.invoke(rs, arguments), rs);
+      } catch (InvocationTargetException e) {
+        if (e.getCause() instanceof SQLException sqlException) {
+          throw sqlException;
+        }
+        throw new SQLException("Failed to read column " + index, e.getCause());
+      } catch (IllegalAccessException e) {
+        throw new SQLException("Failed to read column " + index, e);
+      }
+    };
+  }
+
+  /** getter が返した値を、NULL の場合は {@link #WAS_NULL} にして返す. */
+  private static Object captured(Method method, Object value, ResultSet rs) throws SQLException {
+    if (value == null || method.getReturnType().isPrimitive() && rs.wasNull()) {
+      return WAS_NULL;
+    }
+    return value;
+  }
+
+  private static Object nullable(Object value) {
+    return value == null ? WAS_NULL : value;
+  }
+
+  /** NULL の列に対して getter が返す値を返す. */
+  private static Object defaultValue(Method method) {
+    Class<?> type = method.getReturnType();
+    return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+  }
+}
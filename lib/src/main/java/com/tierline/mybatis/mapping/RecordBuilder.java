@@ -0,0 +1,146 @@
+package com.tierline.mybatis.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Builds records through their canonical constructor.
+ *
+ * <p>The constructor handle is adapted once so that it takes the row values array directly:
+ * arguments are reordered to the component order, {@code null} values of {@link Optional}
+ * components become {@link Optional#empty()}, and components without a mapping receive {@code
+ * Optional.empty()} or {@code null}. Building a row therefore allocates nothing but the record.
+ *
+ * <p>For a row whose values are all {@code null}, built only when {@code returnInstanceForEmptyRow}
+ * is enabled, primitive components receive their default value instead of failing to unbox.
+ */
+final class RecordBuilder implements ObjectBuilder {
+  private final MethodHandle constructor;
+  private final Object[] emptyValues;
+
+  private RecordBuilder(MethodHandle constructor, Object[] emptyValues) {
+    this.constructor = constructor;
+    this.emptyValues = emptyValues;
+  }
+
+  /**
+   * レコード用のビルダーを生成する.
+   *
+   * @param type レコードの型
+   * @param names 各値に対応するコンポーネント名. すべて {@code null} の場合はコンポーネントの順に対応付ける
+   * @return レコードでない場合、対応するコンポーネントがない場合、値のないプリミティブのコンポーネントがある場合は {@code null}
+   */
+  static RecordBuilder create(Class<?> type, String[] names) {
+    if (!type.isRecord()) {
+      return null;
+    }
+    RecordComponent[] components = type.getRecordComponents();
+    int[] positions = positions(components, names);
+    if (positions == null) {
+      return null;
+    }
+    try {
+      Class<?>[] parameterTypes =
+          Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+      MethodHandle constructor =
+          MethodHandles.publicLookup()
+              .findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+              .asType(MethodType.genericMethodType(components.length));
+
+      // 値のないコンポーネントには既定値を埋め込み、残りを値の並びに合わせて並べ替える
+      List<Integer> reorder = new ArrayList<>();
+      for (int i = components.length - 1; i >= 0; i--) {
+        boolean optional = components[i].getType() == Optional.class;
+        if (positions[i] < 0) {
+          if (components[i].getType().isPrimitive()) {
+            return null;
+          }
+          constructor =
+              MethodHandles.insertArguments(constructor, i, optional ? Optional.empty() : null);
+        } else {
+          if (optional) {
+            constructor = MethodHandles.filterArguments(constructor, i, orEmpty());
+          }
+          reorder.add(0, positions[i]);
+        }
+      }
+      MethodHandle spread =
+          MethodHandles.permuteArguments(
+                  constructor,
+                  MethodType.genericMethodType(names.length),
+                  reorder.stream().mapToInt(Integer::intValue).toArray())
+              .asSpreader(Object[].class, names.length);
+      // 空の行では、プリミティブのコンポーネントに既定値を渡す
+      Object[] emptyValues = new Object[names.length];
+      for (int i = 0; i < components.length; i++) {
+        Class<?> componentType = components[i].getType();
+        if (positions[i] >= 0 && componentType.isPrimitive()) {
+          emptyValues[positions[i]] = Array.get(Array.newInstance(componentType, 1), 0);
+        }
+      }
+      return new RecordBuilder(spread, emptyValues);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public Object build(Object[] values) throws Throwable {
+    return (Object) constructor.invokeExact(values);
+  }
+
+  @Override
+  public Object buildEmpty(int width) throws Throwable {
+    // コンストラクタは配列を変更しないため、共有した配列を渡す
+    return (Object) constructor.invokeExact(emptyValues);
+  }
+
+  /** 各コンポーネントに対応する値の位置を返す. 値のないコンポーネントは -1. */
+  private static int[] positions(RecordComponent[] components, String[] names) {
+    int[] positions = new int[components.length];
+    Arrays.fill(positions, -1);
+    if (Arrays.stream(names).allMatch(name -> name == null)) {
+      if (names.length != components.length) {
+        return null;
+      }
+      Arrays.setAll(positions, i -> i);
+      return positions;
+    }
+    for (int i = 0; i < names.length; i++) {
+      int component = indexOf(components, names[i]);
+      if (component < 0 || positions[component] >= 0) {
+        return null;
+      }
+      positions[component] = i;
+    }
+    return positions;
+  }
+
+  private static int indexOf(RecordComponent[] components, String name) {
+    for (int i = 0; i < components.length; i++) {
+      if (components[i].getName().equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** (Object value) -> value == null ? Optional.empty() : value. */
+  private static MethodHandle orEmpty() throws NoSuchMethodException, IllegalAccessException {
+    MethodType predicate = MethodType.methodType(boolean.class, Object.class);
+    MethodHandle isNull =
+        MethodHandles.publicLookup().findStatic(Objects.class, "isNull", predicate);
+    MethodHandle empty =
+        MethodHandles.dropArguments(
+            MethodHandles.constant(Object.class, Optional.empty()), 0, Object.class);
+    return MethodHandles.guardWithTest(isNull, empty, MethodHandles.identity(Object.class));
+  }
+}
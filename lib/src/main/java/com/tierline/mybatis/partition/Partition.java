@@ -0,0 +1,67 @@
+package com.tierline.mybatis.partition;
+
+/**
+ * One slice of a partitioned select.
+ *
+ * <p>Mapped statements refer to it as {@code #{partition.index}} and {@code #{partition.count}}
+ * for hash partitioning ({@code WHERE MOD(id, #{partition.count}) = #{partition.index}}), or as
+ * {@code #{partition.lowerBound}} and {@code #{partition.upperBound}} for range partitioning.
+ * Range bounds are {@code null} for hash partitions, and for the open ends of the first and last
+ * range. A comparison with {@code NULL} matches no row, so each bound must be guarded or those
+ * partitions come back empty:
+ *
+ * <pre>
+ * &lt;where&gt;
+ *   &lt;if test="partition.lowerBound != null"&gt;
+ *     id &amp;gt;= #{partition.lowerBound}
+ *   &lt;/if&gt;
+ *   &lt;if test="partition.upperBound != null"&gt;
+ *     AND id &amp;lt; #{partition.upperBound}
+ *   &lt;/if&gt;
+ * &lt;/where&gt;
+ * </pre>
+ *
+ * @param index 0 から始まるパーティション番号
+ * @param count パーティション数
+ * @param lowerBound 範囲の下限（含む）
+ * @param upperBound 範囲の上限（含まない）
+ */
+public record Partition(int index, int count, Object lowerBound, Object upperBound) {
+
+  /**
+   * ハッシュ分割用のパーティション一覧を生成する.
+   *
+   * @param count パーティション数
+   * @return パーティション一覧
+   */
+  public static Partition[] hash(int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("count must be positive: " + count);
+    }
+    Partition[] partitions = new Partition[count];
+    for (int i = 0; i < count; i++) {
+      partitions[i] = new Partition(i, count, null, null);
+    }
+    return partitions;
+  }
+
+  /**
+   * 範囲分割用のパーティション一覧を生成する.
+   *
+   * <p>{@code n} 個の境界値から {@code n + 1} 個のパーティションを生成する.
+   * 最初と最後のパーティションは片側が開いており、その境界値は {@code null} となる.
+   *
+   * @param boundaries 昇順の境界値
+   * @return パーティション一覧
+   */
+  public static Partition[] range(Object... boundaries) {
+    int count = boundaries.length + 1;
+    Partition[] partitions = new Partition[count];
+    for (int i = 0; i < count; i++) {
+      Object lower = i == 0 ? null : boundaries[i - 1];
+      Object upper = i == boundaries.length ? null : boundaries[i];
+      partitions[i] = new Partition(i, count, lower, upper);
+    }
+    return partitions;
+  }
+}
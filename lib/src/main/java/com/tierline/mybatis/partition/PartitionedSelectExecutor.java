@@ -0,0 +1,109 @@
+package com.tierline.mybatis.partition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * Runs one mapped select as several partitions in parallel.
+ *
+ * <p>Every partition runs on its own thread with its own {@link SqlSession}, so each partition uses
+ * a separate connection and maps its rows (including the Optional type handlers) on that thread.
+ * The statement receives a map with the caller's parameter under {@value #PARAMETER_KEY} and the
+ * {@link Partition} under {@value #PARTITION_KEY}:
+ *
+ * <pre>
+ * &lt;select id="findAllPartitioned" resultMap="testEntityResultMap"&gt;
+ *   SELECT * FROM test_entity
+ *   WHERE MOD(id, #{partition.count}) = #{partition.index}
+ * &lt;/select&gt;
+ * </pre>
+ */
+public class PartitionedSelectExecutor implements AutoCloseable {
+  /** 呼び出し元のパラメータを格納するキー. */
+  public static final String PARAMETER_KEY = "param";
+
+  /** パーティションを格納するキー. */
+  public static final String PARTITION_KEY = "partition";
+
+  private final SqlSessionFactory sqlSessionFactory;
+  private final ExecutorService executor;
+
+  /**
+   * コンストラクタ.
+   *
+   * @param sqlSessionFactory パーティションごとにセッションを開くファクトリ
+   */
+  public PartitionedSelectExecutor(SqlSessionFactory sqlSessionFactory) {
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  /**
+   * パーティションを並列に実行し、結果をひとつの {@link Stream} として返す.
+   *
+   * <p>{@code ordered} が {@code true} の場合はパーティション順に、{@code false} の場合は完了したパーティションから順に要素を返す.
+   *
+   * @param statement 実行する select のステートメント ID
+   * @param parameter ステートメントに渡すパラメータ
+   * @param partitions 実行するパーティション
+   * @param ordered パーティション順に結果を返すかどうか
+   * @return 全パーティションの結果
+   */
+  public <E> Stream<E> select(
+      String statement, Object parameter, Partition[] partitions, boolean ordered) {
+    List<CompletableFuture<List<E>>> futures = new ArrayList<>(partitions.length);
+    for (Partition partition : partitions) {
+      futures.add(
+          CompletableFuture.supplyAsync(
+              () -> selectPartition(statement, parameter, partition), executor));
+    }
+
+    Stream<CompletableFuture<List<E>>> results;
+    if (ordered) {
+      results = futures.stream();
+    } else {
+      BlockingQueue<CompletableFuture<List<E>>> completed = new LinkedBlockingQueue<>();
+      futures.forEach(future -> future.whenComplete((list, e) -> completed.add(future)));
+      results = IntStream.range(0, futures.size()).mapToObj(i -> take(completed));
+    }
+    return results
+        .flatMap(future -> future.join().stream())
+        .onClose(() -> futures.forEach(future -> future.cancel(false)));
+  }
+
+  /** 新しいパーティションの受け付けを終了する. 実行中のパーティションはそのまま完了する. */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  private <E> List<E> selectPartition(String statement, Object parameter, Partition partition) {
+    Map<String, Object> params = new HashMap<>();
+    params.put(PARAMETER_KEY, parameter);
+    params.put(PARTITION_KEY, partition);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      return session.selectList(statement, params);
+    }
+  }
+
+  private static <T> T take(BlockingQueue<T> queue) {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CompletionException(e);
+    }
+  }
+}
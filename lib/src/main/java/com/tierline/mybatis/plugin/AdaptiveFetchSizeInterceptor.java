@@ -0,0 +1,230 @@
+package com.tierline.mybatis.plugin;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * MyBatis plugin that sets the fetch size of each select from what earlier executions returned.
+ *
+ * <p>For every mapped statement it keeps a moving average of the row count and of the estimated
+ * row size, and sets a fetch size large enough to read a typical result in one round trip, but
+ * never larger than the memory budget allows. Until a statement has run once, the configured
+ * {@code defaultFetchSize} or {@code initialFetchSize} is used. Statements with a {@code fetchSize}
+ * attribute, or pinned with {@link #pin(String, int)}, keep their fixed value.
+ *
+ * <p>Metering wraps the statement and its result sets in proxies, which adds a reflective call to
+ * every value the type handlers read. Only the first {@value #METERED_EXECUTIONS} executions of a
+ * statement are metered, and after that every {@value #SAMPLE_INTERVAL}th, so once the averages
+ * have settled most executions run on the plain JDBC objects.
+ *
+ * <p>PostgreSQL only honors the fetch size outside auto-commit, which is the MyBatis default for
+ * sessions.
+ *
+ * <pre>
+ * &lt;plugin interceptor="com.tierline.mybatis.plugin.AdaptiveFetchSizeInterceptor"&gt;
+ *   &lt;property name="memoryBudget" value="16777216"/&gt;
+ *   &lt;property name="pinned" value="com.example.ReportMapper.export:5000"/&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ */
+@Intercepts({
+  @Signature(
+      type = StatementHandler.class,
+      method = "prepare",
+      args = {Connection.class, Integer.class}),
+  @Signature(
+      type = ResultSetHandler.class,
+      method = "handleResultSets",
+      args = {Statement.class})
+})
+public class AdaptiveFetchSizeInterceptor implements Interceptor {
+  /** 1 回のフェッチで読み込む行の推定バイト数の上限の既定値. */
+  public static final long DEFAULT_MEMORY_BUDGET = 16L * 1024 * 1024;
+  /** 実行履歴がない文に設定するフェッチサイズの既定値. */
+  public static final int DEFAULT_INITIAL_FETCH_SIZE = 1000;
+  /** フェッチサイズの下限の既定値. */
+  public static final int DEFAULT_MIN_FETCH_SIZE = 10;
+  /** フェッチサイズの上限の既定値. */
+  public static final int DEFAULT_MAX_FETCH_SIZE = 100_000;
+
+  /** 文ごとに毎回計測する実行の数. */
+  static final int METERED_EXECUTIONS = 8;
+  /** 統計が落ち着いた後に計測する実行の間隔. */
+  static final int SAMPLE_INTERVAL = 16;
+
+  /** 移動平均で最新の実行に与える重み. */
+  private static final double SMOOTHING = 0.25;
+  /** 平均より多い行数が返る場合に備えた余裕の倍率. */
+  private static final double HEADROOM = 2.0;
+
+  private final Map<String, Integer> pinned = new ConcurrentHashMap<>();
+  private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> executions = new ConcurrentHashMap<>();
+  private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+  private int initialFetchSize = DEFAULT_INITIAL_FETCH_SIZE;
+  private int minFetchSize = DEFAULT_MIN_FETCH_SIZE;
+  private int maxFetchSize = DEFAULT_MAX_FETCH_SIZE;
+
+  /** Moving averages of one mapped statement. */
+  record Statistics(double rows, double rowBytes) {
+
+    Statistics update(long newRows, long newBytes) {
+      double newRowBytes = newRows == 0 ? rowBytes : (double) newBytes / newRows;
+      return new Statistics(
+          rows + (newRows - rows) * SMOOTHING, rowBytes + (newRowBytes - rowBytes) * SMOOTHING);
+    }
+  }
+
+  /**
+   * 文のフェッチサイズを固定する.
+   *
+   * @param statementId 名前空間を含む文の ID
+   * @param fetchSize フェッチサイズ
+   */
+  public void pin(String statementId, int fetchSize) {
+    if (fetchSize < 0) {
+      throw new IllegalArgumentException("fetchSize must not be negative: " + fetchSize);
+    }
+    pinned.put(statementId, fetchSize);
+  }
+
+  /**
+   * 1 回のフェッチで読み込む行の推定バイト数の上限を設定する.
+   *
+   * @param memoryBudget バイト数
+   */
+  public void setMemoryBudget(long memoryBudget) {
+    if (memoryBudget < 1) {
+      throw new IllegalArgumentException("memoryBudget must be positive: " + memoryBudget);
+    }
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * フェッチサイズの範囲を設定する. メモリの上限はこの範囲より優先される.
+   *
+   * @param initialFetchSize 実行履歴がない文に設定するフェッチサイズ
+   * @param minFetchSize フェッチサイズの下限
+   * @param maxFetchSize フェッチサイズの上限
+   */
+  public void setFetchSizes(int initialFetchSize, int minFetchSize, int maxFetchSize) {
+    if (minFetchSize < 1 || minFetchSize > maxFetchSize || initialFetchSize < 0) {
+      throw new IllegalArgumentException(
+          "Invalid fetch sizes: " + initialFetchSize + ", " + minFetchSize + ", " + maxFetchSize);
+    }
+    this.initialFetchSize = initialFetchSize;
+    this.minFetchSize = minFetchSize;
+    this.maxFetchSize = maxFetchSize;
+  }
+
+  /**
+   * {@code memoryBudget}, {@code initialFetchSize}, {@code minFetchSize}, {@code maxFetchSize} と、
+   * {@code 文の ID:フェッチサイズ} をカンマ区切りで並べた {@code pinned} を読み込む.
+   */
+  @Override
+  public void setProperties(Properties properties) {
+    String budget = properties.getProperty("memoryBudget");
+    if (budget != null) {
+      setMemoryBudget(Long.parseLong(budget.strip()));
+    }
+    setFetchSizes(
+        intProperty(properties, "initialFetchSize", initialFetchSize),
+        intProperty(properties, "minFetchSize", minFetchSize),
+        intProperty(properties, "maxFetchSize", maxFetchSize));
+    for (String entry : properties.getProperty("pinned", "").split(",")) {
+      int separator = entry.lastIndexOf(':');
+      if (separator > 0) {
+        String statementId = entry.substring(0, separator).strip();
+        pin(statementId, Integer.parseInt(entry.substring(separator + 1).strip()));
+      }
+    }
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    if (invocation.getTarget() instanceof StatementHandler) {
+      return prepare(invocation);
+    }
+    MappedStatement ms =
+        (MappedStatement)
+            PluginTargets.forTarget(invocation.getTarget()).getValue("mappedStatement");
+    if (isFixed(ms) || !shouldMeter(ms.getId())) {
+      return invocation.proceed();
+    }
+    ResultSetMeter meter = ResultSetMeter.attach(invocation.getArgs());
+    Object result = invocation.proceed();
+    learn(ms.getId(), meter.getRows(), meter.getBytes());
+    return result;
+  }
+
+  /**
+   * 文に設定するフェッチサイズを返す.
+   *
+   * @return フェッチサイズ. MyBatis の設定のままにする場合は {@code null}
+   */
+  Integer fetchSize(String statementId, Configuration configuration) {
+    Integer pin = pinned.get(statementId);
+    if (pin != null) {
+      return pin;
+    }
+    Statistics stats = statistics.get(statementId);
+    if (stats == null) {
+      return configuration.getDefaultFetchSize() == null ? initialFetchSize : null;
+    }
+    long expected = (long) Math.ceil(stats.rows() * HEADROOM) + 1;
+    long size = Math.max(Math.min(expected, maxFetchSize), minFetchSize);
+    long withinBudget = Math.max(1, (long) (memoryBudget / Math.max(1.0, stats.rowBytes())));
+    return (int) Math.min(size, withinBudget);
+  }
+
+  /** 文の今回の実行を計測するかどうかを返す. 呼ぶたびに実行回数を数える. */
+  boolean shouldMeter(String statementId) {
+    long execution =
+        executions.computeIfAbsent(statementId, id -> new AtomicLong()).getAndIncrement();
+    return execution < METERED_EXECUTIONS || execution % SAMPLE_INTERVAL == 0;
+  }
+
+  /** 実行結果を文の統計に反映する. */
+  void learn(String statementId, long rows, long bytes) {
+    statistics.merge(
+        statementId,
+        new Statistics(rows, rows == 0 ? 0 : (double) bytes / rows),
+        (current, ignored) -> current.update(rows, bytes));
+  }
+
+  private Object prepare(Invocation invocation) throws Throwable {
+    Statement stmt = (Statement) invocation.proceed();
+    MappedStatement ms =
+        (MappedStatement)
+            PluginTargets.forTarget(invocation.getTarget()).getValue("delegate.mappedStatement");
+    if (ms.getSqlCommandType() == SqlCommandType.SELECT && ms.getFetchSize() == null) {
+      Integer size = fetchSize(ms.getId(), ms.getConfiguration());
+      if (size != null) {
+        stmt.setFetchSize(size);
+      }
+    }
+    return stmt;
+  }
+
+  private boolean isFixed(MappedStatement ms) {
+    return ms.getFetchSize() != null || pinned.containsKey(ms.getId());
+  }
+
+  private static int intProperty(Properties properties, String name, int defaultValue) {
+    String value = properties.getProperty(name);
+    return value == null ? defaultValue : Integer.parseInt(value.strip());
+  }
+}
@@ -0,0 +1,36 @@
+package com.tierline.mybatis.plugin;
+
+import java.lang.reflect.Proxy;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+
+/** Helpers for reading the internal state of objects intercepted by MyBatis plugins. */
+public final class PluginTargets {
+
+  private PluginTargets() {}
+
+  /**
+   * 他のプラグインのプロキシを取り除き、MyBatis 本体のオブジェクトを返す.
+   *
+   * @param target {@link org.apache.ibatis.plugin.Invocation#getTarget()} の値
+   * @return プロキシでないオブジェクト
+   */
+  public static Object unwrap(Object target) {
+    Object current = target;
+    while (Proxy.isProxyClass(current.getClass())) {
+      // Proxy.h は java.base が開いていないため、公開 API でハンドラーを取り出す
+      current = SystemMetaObject.forObject(Proxy.getInvocationHandler(current)).getValue("target");
+    }
+    return current;
+  }
+
+  /**
+   * プロキシを取り除いたオブジェクトのフィールドにアクセスする {@link MetaObject} を返す.
+   *
+   * @param target {@link org.apache.ibatis.plugin.Invocation#getTarget()} の値
+   * @return フィールドを読み取るための {@link MetaObject}
+   */
+  public static MetaObject forTarget(Object target) {
+    return SystemMetaObject.forObject(unwrap(target));
+  }
+}
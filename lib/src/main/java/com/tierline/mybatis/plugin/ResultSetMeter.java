@@ -0,0 +1,183 @@
+package com.tierline.mybatis.plugin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Counts the rows read from the result sets of a statement and estimates their mapped size.
+ *
+ * <p>The estimate is taken from the values returned by the {@code ResultSet} getters that the type
+ * handlers call, sized as the mapped Java object plus the {@code Optional} that wraps it. It is a
+ * heuristic for budgeting, not a measurement of the heap.
+ *
+ * <p>Plugins that meter the same execution share one meter: a plugin first looks for the meter of
+ * an outer plugin with {@link #attach(Object[])}, and only wraps the statement itself when there
+ * is none, so every value passes through a single proxy however many plugins read the counts.
+ */
+class ResultSetMeter {
+  /** {@code Optional} などの、値を包むオブジェクトの推定バイト数. */
+  static final int WRAPPER_SIZE = 16;
+  /** 行ごとのオブジェクトの推定バイト数. */
+  static final int ROW_SIZE = 16;
+
+  private final List<RowListener> listeners = new ArrayList<>(1);
+  private long rows;
+  private long bytes;
+
+  /** Called after each row is counted. */
+  @FunctionalInterface
+  interface RowListener {
+    /**
+     * 行を読み進めるたびに呼ばれる.
+     *
+     * @param meter 行を数えた計測
+     * @throws SQLException 読み込みを中止する場合
+     */
+    void onRow(ResultSetMeter meter) throws SQLException;
+  }
+
+  /**
+   * 他のプラグインが計測している文の計測を返す.
+   *
+   * @param statement {@code handleResultSets} に渡された文
+   * @return 計測. 計測している文でない場合は {@code null}
+   */
+  static ResultSetMeter find(Statement statement) {
+    if (Proxy.isProxyClass(statement.getClass())
+        && Proxy.getInvocationHandler(statement) instanceof MeteringHandler handler) {
+      return handler.meter();
+    }
+    return null;
+  }
+
+  /**
+   * {@code handleResultSets} の引数の文の計測を返す. 他のプラグインが計測していない場合は、文を計測するプロキシで包む.
+   *
+   * @param args {@code handleResultSets} の引数. 先頭の文を置き換える場合がある
+   * @return この実行の計測
+   */
+  static ResultSetMeter attach(Object[] args) {
+    Statement statement = (Statement) args[0];
+    ResultSetMeter meter = find(statement);
+    if (meter == null) {
+      meter = new ResultSetMeter();
+      args[0] = meter.wrap(statement);
+    }
+    return meter;
+  }
+
+  /**
+   * 行を読み進めるたびに呼ぶリスナーを追加する.
+   *
+   * @param listener リスナー
+   */
+  void addListener(RowListener listener) {
+    listeners.add(listener);
+  }
+
+  /** 読み込んだ行数を返す. */
+  long getRows() {
+    return rows;
+  }
+
+  /** 読み込んだ値の推定バイト数を返す. */
+  long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * 結果セットを計測するプロキシで文を包む.
+   *
+   * @param statement 元の文
+   * @return {@link Statement#getResultSet()} が計測する結果セットを返す文
+   */
+  Statement wrap(Statement statement) {
+    return proxy(
+        Statement.class,
+        statement,
+        (method, result) ->
+            "getResultSet".equals(method.getName()) && result != null
+                ? wrap((ResultSet) result)
+                : result);
+  }
+
+  /**
+   * 値の推定バイト数を返す.
+   *
+   * @param value {@code ResultSet} の getter が返した値
+   * @return 値とそれを包む {@code Optional} の推定バイト数
+   */
+  static long estimate(Object value) {
+    long size = 16L;
+    if (value instanceof String s) {
+      size = 40L + s.length();
+    } else if (value instanceof byte[] b) {
+      size = 16L + b.length;
+    } else if (value instanceof BigDecimal d) {
+      // 18 桁を超えると BigInteger を持つ
+      size = d.precision() > 18 ? 72L + d.precision() / 2 : 40L;
+    } else if (value instanceof Date || value instanceof Temporal) {
+      size = 32L;
+    }
+    return size + WRAPPER_SIZE;
+  }
+
+  private ResultSet wrap(ResultSet resultSet) {
+    return proxy(
+        ResultSet.class,
+        resultSet,
+        (method, result) -> {
+          if ("next".equals(method.getName())) {
+            if (Boolean.TRUE.equals(result)) {
+              rows++;
+              bytes += ROW_SIZE;
+              for (RowListener listener : listeners) {
+                listener.onRow(this);
+              }
+            }
+          } else if (result != null
+              && method.getName().startsWith("get")
+              && method.getParameterCount() > 0) {
+            bytes += estimate(result);
+          }
+          return result;
+        });
+  }
+
+  private <T> T proxy(Class<T> type, T target, ResultFilter filter) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            new MeteringHandler(this, target, filter)));
+  }
+
+  /** Post-processes the value returned by a proxied method. */
+  @FunctionalInterface
+  private interface ResultFilter {
+    Object apply(Method method, Object result) throws Exception;
+  }
+
+  /** Invocation handler of the proxies, which also identifies the meter they report to. */
+  record MeteringHandler(ResultSetMeter meter, Object target, ResultFilter filter)
+      implements InvocationHandler {
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      try {
+        return filter.apply(method, method.invoke(target, args));
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
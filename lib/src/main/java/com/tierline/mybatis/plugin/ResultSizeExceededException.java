@@ -0,0 +1,71 @@
+package com.tierline.mybatis.plugin;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown by {@link ResultSizeGuardInterceptor} when a select reads more rows or bytes than its
+ * budget.
+ *
+ * <p>It is raised from {@code ResultSet.next()} while the result is being mapped, so MyBatis
+ * reports it as the cause of a {@code PersistenceException}.
+ */
+public class ResultSizeExceededException extends SQLException {
+  private static final long serialVersionUID = 1L;
+
+  private final String statementId;
+  private final transient Object parameterObject;
+  private final long rows;
+  private final long bytes;
+
+  /**
+   * コンストラクタ.
+   *
+   * @param statementId 名前空間を含む文の ID
+   * @param parameterObject 文のパラメータ
+   * @param rows 上限を超えた時点までに読み込んだ行数
+   * @param bytes 上限を超えた時点までに読み込んだ値の推定バイト数
+   * @param limit 超えた上限
+   */
+  public ResultSizeExceededException(
+      String statementId,
+      Object parameterObject,
+      long rows,
+      long bytes,
+      ResultSizeGuardInterceptor.Limit limit) {
+    super(
+        "Result of "
+            + statementId
+            + " exceeded "
+            + limit
+            + " after "
+            + rows
+            + " rows, about "
+            + bytes
+            + " bytes; parameters: "
+            + parameterObject);
+    this.statementId = statementId;
+    this.parameterObject = parameterObject;
+    this.rows = rows;
+    this.bytes = bytes;
+  }
+
+  /** 名前空間を含む文の ID を返す. */
+  public String getStatementId() {
+    return statementId;
+  }
+
+  /** 文のパラメータを返す. */
+  public Object getParameterObject() {
+    return parameterObject;
+  }
+
+  /** 上限を超えた時点までに読み込んだ行数を返す. */
+  public long getRows() {
+    return rows;
+  }
+
+  /** 上限を超えた時点までに読み込んだ値の推定バイト数を返す. */
+  public long getBytes() {
+    return bytes;
+  }
+}
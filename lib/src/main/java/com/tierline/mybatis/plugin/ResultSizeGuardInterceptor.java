@@ -0,0 +1,184 @@
+package com.tierline.mybatis.plugin;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+
+/**
+ * MyBatis plugin that stops selects whose mapped result grows beyond a row or byte budget.
+ *
+ * <p>Rows are counted as they are read, and their size is estimated from the values the type
+ * handlers read, including the {@code Optional} that wraps them (see {@link
+ * ResultSetMeter#estimate(Object)}). When a statement exceeds its {@link Limit}, a {@link
+ * ResultSizeExceededException} naming the statement and its parameters is thrown, so the query
+ * fails before the heap does. With a {@link Notifier}, the exception is passed to the notifier
+ * instead; it may rethrow it, or let the query go on, for example after raising an alert. A query
+ * that goes on is only reported: its remaining rows are still collected into the result list, so
+ * the notifier does not protect the heap, and a budget meant to do so must let the exception be
+ * thrown.
+ *
+ * <p>Selects run with a {@code ResultHandler} or as a {@code Cursor} do not collect their result
+ * and are not guarded, so these are the way to read large results.
+ *
+ * <p>Like {@link AdaptiveFetchSizeInterceptor}, the guard meters through proxies that add a
+ * reflective call to every value read. When both plugins meter the same execution they share one
+ * meter, so each value passes through a single proxy; still, a global {@code maxRows} or {@code
+ * maxBytes} puts every select on the metered path, and per-statement {@code limits} keep the cost
+ * to the statements that need a budget.
+ *
+ * <pre>
+ * &lt;plugin interceptor="com.tierline.mybatis.plugin.ResultSizeGuardInterceptor"&gt;
+ *   &lt;property name="maxRows" value="100000"/&gt;
+ *   &lt;property name="maxBytes" value="268435456"/&gt;
+ *   &lt;property name="limits" value="com.example.ReportMapper.export:1000000:0"/&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ */
+@Intercepts({
+  @Signature(
+      type = ResultSetHandler.class,
+      method = "handleResultSets",
+      args = {Statement.class})
+})
+public class ResultSizeGuardInterceptor implements Interceptor {
+  private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+  private Limit defaultLimit = Limit.UNLIMITED;
+  private Notifier notifier;
+
+  /**
+   * Row and byte budget of a statement; {@code 0} means no limit.
+   *
+   * @param maxRows 行数の上限
+   * @param maxBytes 値の推定バイト数の上限
+   */
+  public record Limit(long maxRows, long maxBytes) {
+    /** 上限なし. */
+    public static final Limit UNLIMITED = new Limit(0, 0);
+
+    /** コンストラクタ. */
+    public Limit {
+      if (maxRows < 0 || maxBytes < 0) {
+        throw new IllegalArgumentException("Invalid limit: " + maxRows + ", " + maxBytes);
+      }
+    }
+
+    boolean isExceeded(long rows, long bytes) {
+      return maxRows > 0 && rows > maxRows || maxBytes > 0 && bytes > maxBytes;
+    }
+  }
+
+  /** Is notified of the statements that exceeded their budget; it does not receive their rows. */
+  @FunctionalInterface
+  public interface Notifier {
+    /**
+     * 上限を超えた時に、文ごとに一度だけ呼ばれる. 例外を投げない場合、残りの行もそのまま結果に追加される.
+     *
+     * @param exceeded 上限を超えた文の情報
+     * @throws SQLException 問い合わせを中止する場合
+     */
+    void onExceeded(ResultSizeExceededException exceeded) throws SQLException;
+  }
+
+  /**
+   * 文ごとの上限がない文に適用する上限を設定する.
+   *
+   * @param limit 上限
+   */
+  public void setDefaultLimit(Limit limit) {
+    this.defaultLimit = limit;
+  }
+
+  /**
+   * 文の上限を設定する.
+   *
+   * @param statementId 名前空間を含む文の ID
+   * @param limit 上限
+   */
+  public void limit(String statementId, Limit limit) {
+    limits.put(statementId, limit);
+  }
+
+  /**
+   * 上限を超えた時に例外を投げる代わりに通知する先を設定する.
+   *
+   * @param notifier 通知先. {@code null} の場合は例外を投げる
+   */
+  public void setNotifier(Notifier notifier) {
+    this.notifier = notifier;
+  }
+
+  /**
+   * {@code maxRows} と {@code maxBytes} を既定の上限として、{@code 文の ID:行数:バイト数} をカンマ区切りで並べた
+   * {@code limits} を文ごとの上限として読み込む.
+   */
+  @Override
+  public void setProperties(Properties properties) {
+    setDefaultLimit(
+        new Limit(
+            Long.parseLong(properties.getProperty("maxRows", "0").strip()),
+            Long.parseLong(properties.getProperty("maxBytes", "0").strip())));
+    for (String entry : properties.getProperty("limits", "").split(",")) {
+      String[] parts = entry.split(":");
+      if (parts.length == 3) {
+        limit(
+            parts[0].strip(),
+            new Limit(Long.parseLong(parts[1].strip()), Long.parseLong(parts[2].strip())));
+      } else if (!entry.isBlank()) {
+        throw new IllegalArgumentException("Invalid limit: " + entry);
+      }
+    }
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    MetaObject target = PluginTargets.forTarget(invocation.getTarget());
+    MappedStatement ms = (MappedStatement) target.getValue("mappedStatement");
+    Limit limit = limits.getOrDefault(ms.getId(), defaultLimit);
+    if (limit.equals(Limit.UNLIMITED) || target.getValue("resultHandler") != null) {
+      return invocation.proceed();
+    }
+    ParameterHandler parameterHandler = (ParameterHandler) target.getValue("parameterHandler");
+    ResultSetMeter.attach(invocation.getArgs())
+        .addListener(new Guard(ms.getId(), parameterHandler.getParameterObject(), limit));
+    return invocation.proceed();
+  }
+
+  /** Checks the budget of one execution on every row. */
+  private final class Guard implements ResultSetMeter.RowListener {
+    private final String statementId;
+    private final Object parameterObject;
+    private final Limit limit;
+    private boolean exceeded;
+
+    Guard(String statementId, Object parameterObject, Limit limit) {
+      this.statementId = statementId;
+      this.parameterObject = parameterObject;
+      this.limit = limit;
+    }
+
+    @Override
+    public void onRow(ResultSetMeter meter) throws SQLException {
+      if (exceeded || !limit.isExceeded(meter.getRows(), meter.getBytes())) {
+        return;
+      }
+      exceeded = true;
+      ResultSizeExceededException e =
+          new ResultSizeExceededException(
+              statementId, parameterObject, meter.getRows(), meter.getBytes(), limit);
+      if (notifier == null) {
+        throw e;
+      }
+      notifier.onExceeded(e);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.tierline.mybatis.registration;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.UnknownTypeHandler;
+
+/** Overrides the generated mapping of a field or record component of an {@link OptionalEntity}. */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface Column {
+  /** 列名. 省略時はフィールド名をスネークケースにしたもの. */
+  String name() default "";
+
+  /** JDBC の型. 省略時は {@code Optional} の要素の型から決める. */
+  JdbcType jdbcType() default JdbcType.UNDEFINED;
+
+  /** TypeHandler. 引数のない public コンストラクタが必要. 省略時は要素の型から決める. */
+  @SuppressWarnings("rawtypes")
+  Class<? extends TypeHandler> typeHandler() default UnknownTypeHandler.class;
+
+  /** ID の列かどうか. フィールド名が {@code id} であっても、指定しない場合は ID の列にならない. */
+  boolean id() default false;
+
+  /** マッピングしない場合は {@code true}. */
+  boolean ignore() default false;
+}
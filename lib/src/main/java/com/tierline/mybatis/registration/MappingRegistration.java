@@ -0,0 +1,18 @@
+package com.tierline.mybatis.registration;
+
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Registration of generated result maps and type handlers with a MyBatis {@link Configuration}.
+ *
+ * <p>Implementations are generated for each {@link OptionalEntity} and listed as services, so
+ * {@link MappingRegistrations#registerAll(Configuration)} finds them without scanning.
+ */
+public interface MappingRegistration {
+  /**
+   * 結果マップと TypeHandler を登録する.
+   *
+   * @param configuration 登録先の設定
+   */
+  void register(Configuration configuration);
+}
@@ -0,0 +1,114 @@
+package com.tierline.mybatis.registration;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Entry point and helpers of the generated {@link MappingRegistration} classes.
+ *
+ * <p>Call {@link #registerAll(Configuration)} before adding the mappers that refer to the generated
+ * result maps, for example with {@code @ResultMap("userResultMap")}.
+ */
+public final class MappingRegistrations {
+
+  private MappingRegistrations() {}
+
+  /**
+   * クラスパス上の生成されたすべての登録処理を実行する.
+   *
+   * @param configuration 登録先の設定
+   * @return 実行した登録処理の数
+   */
+  public static int registerAll(Configuration configuration) {
+    ClassLoader classLoader = MappingRegistrations.class.getClassLoader();
+    int count = 0;
+    for (MappingRegistration registration :
+        ServiceLoader.load(MappingRegistration.class, classLoader)) {
+      registration.register(configuration);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * 登録済みの TypeHandler を返す. 未登録の場合は生成する.
+   *
+   * @param configuration 設定
+   * @param type TypeHandler のクラス
+   * @param factory TypeHandler を生成する処理
+   * @return TypeHandler
+   */
+  public static TypeHandler<?> typeHandler(
+      Configuration configuration, Class<?> type, Supplier<? extends TypeHandler<?>> factory) {
+    TypeHandler<?> handler = configuration.getTypeHandlerRegistry().getMappingTypeHandler(type);
+    return handler == null ? factory.get() : handler;
+  }
+
+  /**
+   * {@code Optional} と JDBC の型の組み合わせに TypeHandler が未登録の場合に登録する.
+   *
+   * <p>パラメータの {@code #{name, jdbcType=VARCHAR}} で TypeHandler を省略できるようになる.
+   *
+   * @param configuration 設定
+   * @param jdbcType JDBC の型
+   * @param handler {@code Optional} を扱う TypeHandler
+   */
+  @SuppressWarnings("unchecked")
+  public static void registerOptional(
+      Configuration configuration, JdbcType jdbcType, TypeHandler<?> handler) {
+    TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+    if (!registry.hasTypeHandler(Optional.class, jdbcType)) {
+      registry.register(Optional.class, jdbcType, (TypeHandler<Optional<?>>) handler);
+    }
+  }
+
+  /**
+   * 結果マッピングを生成する.
+   *
+   * @param configuration 設定
+   * @param property プロパティ名. コンストラクタ引数の場合は {@code null}
+   * @param column 列名
+   * @param javaType プロパティの型
+   * @param jdbcType JDBC の型. 未指定の場合は {@code null}
+   * @param typeHandler TypeHandler. 型から解決する場合は {@code null}
+   * @param flags ID やコンストラクタ引数を表すフラグ
+   * @return 結果マッピング
+   */
+  public static ResultMapping result(
+      Configuration configuration,
+      String property,
+      String column,
+      Class<?> javaType,
+      JdbcType jdbcType,
+      TypeHandler<?> typeHandler,
+      ResultFlag... flags) {
+    return new ResultMapping.Builder(configuration, property, column, javaType)
+        .jdbcType(jdbcType)
+        .typeHandler(typeHandler)
+        .flags(Arrays.asList(flags))
+        .build();
+  }
+
+  /**
+   * 結果マップを登録する.
+   *
+   * @param configuration 設定
+   * @param id 名前空間を含む結果マップの ID
+   * @param type 結果の型
+   * @param mappings 結果マッピング
+   */
+  public static void addResultMap(
+      Configuration configuration, String id, Class<?> type, List<ResultMapping> mappings) {
+    configuration.addResultMap(new ResultMap.Builder(configuration, id, type, mappings).build());
+  }
+}
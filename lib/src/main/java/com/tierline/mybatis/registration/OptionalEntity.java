@@ -0,0 +1,39 @@
+package com.tierline.mybatis.registration;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity whose result map is generated at build time by the {@code
+ * tierline-mybatis-addons-processor} annotation processor.
+ *
+ * <p>For each annotated class the processor generates a {@link MappingRegistration} that adds the
+ * result map and the Optional type handlers to a {@code Configuration}, equivalent to a
+ * hand-written {@code <resultMap>} with one {@code <result>} per field, or one {@code <arg>} per
+ * component for a record. Columns default to the snake_case of the field names and the type
+ * handler and {@code jdbcType} of {@code Optional} fields are chosen from the element type; {@link
+ * Column} overrides both. Element types without a known handler fail the build. Only members
+ * marked {@code @Column(id = true)} are mapped as {@code <id>}, whatever their name.
+ *
+ * <pre>
+ * &#64;OptionalEntity(namespace = "com.example.UserMapper")
+ * public class User {
+ *   &#64;Column(id = true)
+ *   private Integer id;
+ *   private Optional&lt;String&gt; displayName; // display_name, VARCHAR
+ * }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface OptionalEntity {
+  /** 結果マップを登録する名前空間. 通常は Mapper インターフェースの完全修飾名. */
+  String namespace();
+
+  /** 結果マップの ID. 省略時はクラスの単純名の先頭を小文字にして {@code ResultMap} を付けたもの. */
+  String id() default "";
+}
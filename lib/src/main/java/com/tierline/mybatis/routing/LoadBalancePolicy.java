@@ -0,0 +1,10 @@
+package com.tierline.mybatis.routing;
+
+/** Strategy used by {@link ReplicaRoutingDataSource} to pick a replica. */
+public enum LoadBalancePolicy {
+  /** レプリカを順番に使用する. */
+  ROUND_ROBIN,
+
+  /** 使用中のコネクションが最も少ないレプリカを使用する. */
+  LEAST_OUTSTANDING
+}
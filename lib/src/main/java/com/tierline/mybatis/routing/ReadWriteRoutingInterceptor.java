@@ -0,0 +1,104 @@
+package com.tierline.mybatis.routing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * MyBatis plugin that marks {@code <select>} statements as read-only for {@link
+ * ReplicaRoutingDataSource}.
+ *
+ * <p>A select that locks rows ({@code FOR UPDATE}, {@code FOR SHARE}, {@code LOCK IN SHARE MODE})
+ * or is declared with {@code flushCache="true"} is not read-only and goes to the primary.
+ *
+ * <pre>
+ * &lt;plugins&gt;
+ *   &lt;plugin interceptor="com.tierline.mybatis.routing.ReadWriteRoutingInterceptor"/&gt;
+ * &lt;/plugins&gt;
+ * </pre>
+ */
+@Intercepts({
+  @Signature(
+      type = Executor.class,
+      method = "update",
+      args = {MappedStatement.class, Object.class}),
+  @Signature(
+      type = Executor.class,
+      method = "query",
+      args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+  @Signature(
+      type = Executor.class,
+      method = "query",
+      args = {
+        MappedStatement.class,
+        Object.class,
+        RowBounds.class,
+        ResultHandler.class,
+        CacheKey.class,
+        BoundSql.class
+      }),
+  @Signature(
+      type = Executor.class,
+      method = "queryCursor",
+      args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class ReadWriteRoutingInterceptor implements Interceptor {
+  private static final Pattern LOCKING_CLAUSE =
+      Pattern.compile(
+          "\\bFOR\\s+(?:NO\\s+KEY\\s+)?(?:KEY\\s+)?(?:UPDATE|SHARE)\\b"
+              + "|\\bLOCK\\s+IN\\s+SHARE\\s+MODE\\b",
+          Pattern.CASE_INSENSITIVE);
+
+  /** SQL が変わらない文について、行をロックするかどうかを文の ID ごとに保持する. */
+  private final Map<String, Boolean> locking = new ConcurrentHashMap<>();
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    Object[] args = invocation.getArgs();
+    MappedStatement ms = (MappedStatement) args[0];
+    boolean select = ms.getSqlCommandType() == SqlCommandType.SELECT;
+    Boolean previous = RoutingContext.enter(select && isReadOnly(ms, args));
+    try {
+      Object result = invocation.proceed();
+      if (!select) {
+        RoutingContext.markWrite();
+      }
+      return result;
+    } finally {
+      RoutingContext.exit(previous);
+    }
+  }
+
+  private boolean isReadOnly(MappedStatement ms, Object[] args) {
+    if (ms.isFlushCacheRequired()) {
+      return false;
+    }
+    if (args.length == 6) {
+      return !isLocking((BoundSql) args[5]);
+    }
+    SqlSource source = ms.getSqlSource();
+    if (source instanceof RawSqlSource || source instanceof StaticSqlSource) {
+      return !locking.computeIfAbsent(ms.getId(), id -> isLocking(source.getBoundSql(args[1])));
+    }
+    // 動的 SQL はパラメータによって句が変わるため、毎回組み立てて確認する
+    return !isLocking(source.getBoundSql(args[1]));
+  }
+
+  private static boolean isLocking(BoundSql boundSql) {
+    return LOCKING_CLAUSE.matcher(boundSql.getSql()).find();
+  }
+}
@@ -0,0 +1,168 @@
+package com.tierline.mybatis.routing;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * DataSource that sends read-only statements to replicas and everything else to the primary.
+ *
+ * <p>Connections handed out are lazy: the physical connection is chosen when the first statement
+ * is prepared. Statements marked read-only by {@link ReadWriteRoutingInterceptor} go to a replica;
+ * any other statement goes to the primary, and once a connection is on the primary it stays there
+ * until it is closed, so reads inside a write transaction see that transaction's writes. Only
+ * connections in auto-commit mode use replicas: a connection with auto-commit off, such as one
+ * opened by {@code SqlSessionFactory.openSession()}, runs its whole transaction on the primary.
+ *
+ * <p>With {@link #setReadYourWritesWindow(Duration)}, reads on a thread that wrote within the
+ * window also go to the primary, which hides replication lag from the writer.
+ */
+public class ReplicaRoutingDataSource implements DataSource {
+  private final DataSource primary;
+  private final List<DataSource> replicas;
+  private final LoadBalancePolicy policy;
+  private final AtomicInteger next = new AtomicInteger();
+  private final AtomicIntegerArray outstanding;
+  private long readYourWritesWindowNanos;
+
+  /**
+   * コンストラクタ.
+   *
+   * @param primary 書き込みを受け付けるデータソース
+   * @param replicas 読み取り専用のデータソース
+   * @param policy レプリカの選択方法
+   */
+  public ReplicaRoutingDataSource(
+      DataSource primary, List<DataSource> replicas, LoadBalancePolicy policy) {
+    this.primary = primary;
+    this.replicas = List.copyOf(replicas);
+    this.policy = policy;
+    this.outstanding = new AtomicIntegerArray(this.replicas.size());
+  }
+
+  /**
+   * 書き込み後にプライマリから読み取る期間を設定する.
+   *
+   * @param window 期間. {@link Duration#ZERO} の場合は書き込み後すぐにレプリカから読み取る
+   */
+  public void setReadYourWritesWindow(Duration window) {
+    this.readYourWritesWindowNanos = window.toNanos();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return newRoutingConnection(null, null);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return newRoutingConnection(username, password);
+  }
+
+  private Connection newRoutingConnection(String username, String password) {
+    return (Connection)
+        Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new RoutingConnection(this, username, password));
+  }
+
+  /** 現在のスレッドのステートメントをレプリカで実行できる場合に {@code true} を返す. */
+  boolean canUseReplica() {
+    return !replicas.isEmpty()
+        && RoutingContext.isReadOnly()
+        && !RoutingContext.wroteWithin(readYourWritesWindowNanos);
+  }
+
+  Connection openPrimary(String username, String password) throws SQLException {
+    return username == null
+        ? primary.getConnection()
+        : primary.getConnection(username, password);
+  }
+
+  /** レプリカを選択してコネクションを開く. 戻り値はレプリカの番号. */
+  int selectReplica() {
+    int index =
+        switch (policy) {
+          case ROUND_ROBIN -> Math.floorMod(next.getAndIncrement(), replicas.size());
+          case LEAST_OUTSTANDING -> leastOutstanding();
+        };
+    outstanding.incrementAndGet(index);
+    return index;
+  }
+
+  Connection openReplica(int index, String username, String password) throws SQLException {
+    try {
+      DataSource replica = replicas.get(index);
+      return username == null
+          ? replica.getConnection()
+          : replica.getConnection(username, password);
+    } catch (SQLException | RuntimeException e) {
+      releaseReplica(index);
+      throw e;
+    }
+  }
+
+  void releaseReplica(int index) {
+    outstanding.decrementAndGet(index);
+  }
+
+  private int leastOutstanding() {
+    // 同数の場合に先頭へ偏らないよう、開始位置をずらして探索する
+    int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+    int best = start;
+    for (int i = 1; i < replicas.size(); i++) {
+      int index = (start + i) % replicas.size();
+      if (outstanding.get(index) < outstanding.get(best)) {
+        best = index;
+      }
+    }
+    return best;
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return primary.getLogWriter();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    primary.setLogWriter(out);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    primary.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return primary.getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    return primary.getParentLogger();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    return primary.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || primary.isWrapperFor(iface);
+  }
+}
@@ -0,0 +1,142 @@
+package com.tierline.mybatis.routing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Lazy connection handed out by {@link ReplicaRoutingDataSource}.
+ *
+ * <p>Connection settings are recorded until the first statement decides where the connection
+ * goes, then replayed on the physical connection. A connection on a replica is swapped for a
+ * primary connection when a write arrives; a connection on the primary never moves. A connection
+ * with auto-commit off always goes to the primary, since its transaction may write later.
+ */
+final class RoutingConnection implements InvocationHandler {
+  private static final int NO_REPLICA = -1;
+
+  private final ReplicaRoutingDataSource dataSource;
+  private final String username;
+  private final String password;
+
+  private Connection target;
+  private int replica = NO_REPLICA;
+  private boolean autoCommit = true;
+  private boolean readOnly;
+  private Integer transactionIsolation;
+  private boolean closed;
+
+  RoutingConnection(ReplicaRoutingDataSource dataSource, String username, String password) {
+    this.dataSource = dataSource;
+    this.username = username;
+    this.password = password;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "toString":
+        return "RoutingConnection[" + target + "]";
+      case "isClosed":
+        return closed;
+      case "close":
+        close();
+        return null;
+      case "getAutoCommit":
+        return target == null ? autoCommit : target.getAutoCommit();
+      case "setAutoCommit":
+        autoCommit = (Boolean) args[0];
+        break;
+      case "isReadOnly":
+        return target == null ? readOnly : target.isReadOnly();
+      case "setReadOnly":
+        readOnly = (Boolean) args[0];
+        break;
+      case "setTransactionIsolation":
+        transactionIsolation = (Integer) args[0];
+        break;
+      case "commit", "rollback":
+        // まだ物理コネクションがない場合は何もしていないので、確定・取り消すものもない
+        if (target == null) {
+          return null;
+        }
+        break;
+      default:
+        // 接続先はステートメントの生成時にだけ見直す
+        if (target == null || isStatementFactory(method)) {
+          route();
+        }
+        break;
+    }
+    if (target == null) {
+      return null;
+    }
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static boolean isStatementFactory(Method method) {
+    String name = method.getName();
+    return "createStatement".equals(name)
+        || "prepareStatement".equals(name)
+        || "prepareCall".equals(name);
+  }
+
+  private void route() throws SQLException {
+    if (closed) {
+      throw new SQLException("Connection is closed");
+    }
+    // トランザクション中の読み取りは後続の書き込みと同じコネクションで行う
+    boolean useReplica = autoCommit && dataSource.canUseReplica();
+    if (target != null && (replica == NO_REPLICA || useReplica)) {
+      return;
+    }
+    // レプリカ上で書き込みが来た場合はプライマリに切り替える
+    closeTarget();
+    if (useReplica) {
+      int index = dataSource.selectReplica();
+      target = dataSource.openReplica(index, username, password);
+      replica = index;
+    } else {
+      target = dataSource.openPrimary(username, password);
+    }
+    if (target.getAutoCommit() != autoCommit) {
+      target.setAutoCommit(autoCommit);
+    }
+    if (readOnly) {
+      target.setReadOnly(true);
+    }
+    if (transactionIsolation != null) {
+      target.setTransactionIsolation(transactionIsolation);
+    }
+  }
+
+  private void close() throws SQLException {
+    closed = true;
+    closeTarget();
+  }
+
+  private void closeTarget() throws SQLException {
+    if (target == null) {
+      return;
+    }
+    try {
+      target.close();
+    } finally {
+      target = null;
+      if (replica != NO_REPLICA) {
+        dataSource.releaseReplica(replica);
+        replica = NO_REPLICA;
+      }
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.tierline.mybatis.routing;
+
+/** Per-thread routing state shared by {@link ReadWriteRoutingInterceptor} and the data source. */
+final class RoutingContext {
+  private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+  private static final ThreadLocal<Long> LAST_WRITE = new ThreadLocal<>();
+
+  private RoutingContext() {}
+
+  /** 読み取り専用かどうかを設定し、以前の値を返す. */
+  static Boolean enter(boolean readOnly) {
+    Boolean previous = READ_ONLY.get();
+    READ_ONLY.set(readOnly);
+    return previous;
+  }
+
+  /** {@link #enter(boolean)} の前の状態に戻す. */
+  static void exit(Boolean previous) {
+    if (previous == null) {
+      READ_ONLY.remove();
+    } else {
+      READ_ONLY.set(previous);
+    }
+  }
+
+  /** 現在のステートメントが読み取り専用の場合に {@code true} を返す. インターセプタ外では {@code false}. */
+  static boolean isReadOnly() {
+    return Boolean.TRUE.equals(READ_ONLY.get());
+  }
+
+  /** このスレッドで書き込みが行われた時刻を記録する. */
+  static void markWrite() {
+    LAST_WRITE.set(System.nanoTime());
+  }
+
+  /** このスレッドで最後に書き込みが行われてから {@code windowNanos} 以内の場合に {@code true} を返す. */
+  static boolean wroteWithin(long windowNanos) {
+    Long lastWrite = LAST_WRITE.get();
+    return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+  }
+}
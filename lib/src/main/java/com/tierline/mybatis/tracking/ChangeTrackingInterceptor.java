@@ -0,0 +1,185 @@
+package com.tierline.mybatis.tracking;
+
+import com.google.common.collect.MapMaker;
+import com.tierline.mybatis.plugin.PluginTargets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * MyBatis plugin that tracks the entities mapped by registered result maps, so that saving an
+ * entity writes only the columns that changed since it was loaded.
+ *
+ * <p>When a select maps rows through a tracked result map, the values of its non-{@code <id>}
+ * properties are recorded for each entity, keyed by identity and held weakly. {@link
+ * #update(SqlSession, Object)} compares the entity with that snapshot and runs an {@code UPDATE}
+ * of the changed columns only, through a statement generated once per combination of changed
+ * columns (see {@link EntityShape}). Immutable values such as the contents of an {@code Optional}
+ * are recorded by reference and compared with {@code equals}; arrays are copied.
+ *
+ * <p>Entities that were not loaded through a tracked select, such as those returned from the
+ * second-level cache or passed to a {@code ResultHandler}, are written in full. The {@code <id>}
+ * properties select the row and must not be changed. The snapshot is refreshed when the update
+ * runs, so an entity whose transaction is rolled back should be loaded again.
+ *
+ * <p>The columns written are the {@code column}s of the result map, which are labels of the select
+ * list. When a label is an alias or carries a {@code columnPrefix}, give the table column with
+ * {@link #track(String, String, Map)}; the columns are checked against the table before the first
+ * update.
+ *
+ * <pre>
+ * &lt;plugin interceptor="com.tierline.mybatis.tracking.ChangeTrackingInterceptor"&gt;
+ *   &lt;property name="entities" value="com.example.UserMapper.userResultMap:app_user"/&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ */
+@Intercepts({
+  @Signature(
+      type = ResultSetHandler.class,
+      method = "handleResultSets",
+      args = {Statement.class})
+})
+public class ChangeTrackingInterceptor implements Interceptor {
+  private final Map<String, Table> tables = new ConcurrentHashMap<>();
+  private final Map<String, EntityShape> shapes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Object, Snapshot> snapshots = new MapMaker().weakKeys().makeMap();
+
+  /** Values of an entity as it was loaded or last updated. */
+  private record Snapshot(EntityShape shape, Object[] values) {}
+
+  /** Table updated for a result map, and the table columns given for its properties. */
+  private record Table(String name, Map<String, String> columns) {}
+
+  /**
+   * 変更を追跡する結果マップを登録する.
+   *
+   * @param resultMapId 名前空間を含む結果マップの ID
+   * @param table 更新するテーブル
+   */
+  public void track(String resultMapId, String table) {
+    track(resultMapId, table, Map.of());
+  }
+
+  /**
+   * 変更を追跡する結果マップを、プロパティに対応するテーブルの列名とともに登録する.
+   *
+   * @param resultMapId 名前空間を含む結果マップの ID
+   * @param table 更新するテーブル
+   * @param columns プロパティ名とテーブルの列名の対応. 含まれないプロパティは結果マッピングの列名を使う
+   */
+  public void track(String resultMapId, String table, Map<String, String> columns) {
+    tables.put(resultMapId, new Table(table, Map.copyOf(columns)));
+  }
+
+  /** {@code 結果マップの ID:テーブル} をカンマ区切りで並べた {@code entities} を読み込む. */
+  @Override
+  public void setProperties(Properties properties) {
+    for (String entry : properties.getProperty("entities", "").split(",")) {
+      int separator = entry.lastIndexOf(':');
+      if (separator > 0) {
+        track(entry.substring(0, separator).strip(), entry.substring(separator + 1).strip());
+      }
+    }
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    Object result = invocation.proceed();
+    MappedStatement ms =
+        (MappedStatement)
+            PluginTargets.forTarget(invocation.getTarget()).getValue("mappedStatement");
+    if (ms.getResultMaps().size() != 1 || !(result instanceof List<?> rows)) {
+      return result;
+    }
+    ResultMap resultMap = ms.getResultMaps().get(0);
+    if (!tables.containsKey(resultMap.getId())) {
+      return result;
+    }
+    EntityShape shape = shape(ms.getConfiguration(), resultMap.getId());
+    for (Object row : rows) {
+      if (shape.getType().isInstance(row)) {
+        snapshots.put(row, new Snapshot(shape, shape.snapshot(row)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 読み込み後に変更された列だけを更新する. 変更がない場合は文を実行しない.
+   *
+   * @param session 更新を実行するセッション
+   * @param entity 追跡している結果マップの型のエンティティ
+   * @return 更新した行数. 変更がない場合は {@code 0}
+   */
+  public int update(SqlSession session, Object entity) {
+    Snapshot snapshot = snapshots.get(entity);
+    EntityShape shape =
+        snapshot == null ? shapeOf(session.getConfiguration(), entity) : snapshot.shape();
+    BitSet mask = shape.changes(entity, snapshot == null ? null : snapshot.values());
+    if (mask.isEmpty()) {
+      return 0;
+    }
+    try {
+      shape.verify(session.getConnection());
+    } catch (SQLException e) {
+      throw new PersistenceException("Could not read the columns of the tracked table", e);
+    }
+    int updated = session.update(shape.statement(mask).getId(), entity);
+    snapshots.put(entity, new Snapshot(shape, shape.snapshot(entity)));
+    return updated;
+  }
+
+  /**
+   * 読み込み後に変更されたプロパティを返す.
+   *
+   * @param entity エンティティ
+   * @return プロパティ名. 追跡していないエンティティの場合は空
+   */
+  public List<String> changedProperties(Object entity) {
+    Snapshot snapshot = snapshots.get(entity);
+    if (snapshot == null) {
+      return List.of();
+    }
+    return snapshot.shape().properties(snapshot.shape().changes(entity, snapshot.values()));
+  }
+
+  /** エンティティの変更を追跡しているかどうかを返す. */
+  public boolean isTracked(Object entity) {
+    return snapshots.containsKey(entity);
+  }
+
+  private EntityShape shape(Configuration configuration, String resultMapId) {
+    return shapes.computeIfAbsent(
+        resultMapId,
+        id -> {
+          Table table = tables.get(id);
+          return EntityShape.create(configuration, id, table.name(), table.columns());
+        });
+  }
+
+  /** 追跡していないエンティティの型に対応する結果マップを探す. */
+  private EntityShape shapeOf(Configuration configuration, Object entity) {
+    for (String resultMapId : tables.keySet()) {
+      if (configuration.getResultMap(resultMapId).getType() == entity.getClass()) {
+        return shape(configuration, resultMapId);
+      }
+    }
+    throw new IllegalArgumentException(
+        "No tracked result map for " + entity.getClass().getName());
+  }
+}
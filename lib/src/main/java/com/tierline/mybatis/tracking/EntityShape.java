@@ -0,0 +1,340 @@
+package com.tierline.mybatis.tracking;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMap;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Columns of a tracked result map, and the update statements generated for its change masks.
+ *
+ * <p>The {@code <id>} mappings form the {@code WHERE} clause and the other mappings the columns
+ * that can be updated. A change mask has one bit per updatable column; the statement for a mask is
+ * generated on first use, registered in the {@link Configuration}, and reused for every entity
+ * with the same changes. Each column is bound through the type handler and {@code jdbcType} of its
+ * result mapping, so empty {@code Optional}s are written as {@code NULL} as they are read.
+ *
+ * <p>The {@code column} of a result mapping is a label of the select list, which is used as the
+ * table column unless the column is given explicitly for the property. A result map that reads
+ * aliased columns, or that is used with a {@code columnPrefix}, needs the table columns of those
+ * properties given explicitly. Before the first update, the columns are checked against the table
+ * in the database metadata; the check is skipped when the metadata does not list the table.
+ */
+final class EntityShape {
+  private final Configuration configuration;
+  private final String resultMapId;
+  private final String table;
+  private final Class<?> type;
+  private final List<ResultMapping> ids = new ArrayList<>();
+  private final List<String> idColumns = new ArrayList<>();
+  private final List<ResultMapping> columns = new ArrayList<>();
+  private final List<String> columnNames = new ArrayList<>();
+  private final List<Invoker> getters = new ArrayList<>();
+  private final Map<BitSet, MappedStatement> statements = new ConcurrentHashMap<>();
+  private volatile boolean verified;
+
+  private EntityShape(
+      Configuration configuration,
+      ResultMap resultMap,
+      String table,
+      Map<String, String> tableColumns) {
+    this.configuration = configuration;
+    this.resultMapId = resultMap.getId();
+    this.table = table;
+    this.type = resultMap.getType();
+    Reflector reflector = configuration.getReflectorFactory().findForClass(type);
+    for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+      String column = tableColumns.getOrDefault(mapping.getProperty(), mapping.getColumn());
+      if (mapping.getFlags().contains(ResultFlag.ID)) {
+        ids.add(mapping);
+        idColumns.add(column);
+      } else {
+        columns.add(mapping);
+        columnNames.add(column);
+        getters.add(reflector.getGetInvoker(mapping.getProperty()));
+      }
+    }
+  }
+
+  /**
+   * 結果マップの列を解析する.
+   *
+   * @param configuration 結果マップを登録した設定
+   * @param resultMapId 名前空間を含む結果マップの ID
+   * @param table 更新するテーブル
+   * @param tableColumns プロパティ名とテーブルの列名の対応. 含まれないプロパティは結果マッピングの列名を使う
+   * @return 結果マップの列
+   * @throws IllegalArgumentException 単純なプロパティと {@code <id>} だけからなる結果マップでない場合や、
+   *     結果マップにないプロパティの列名が指定された場合
+   */
+  static EntityShape create(
+      Configuration configuration,
+      String resultMapId,
+      String table,
+      Map<String, String> tableColumns) {
+    ResultMap resultMap = configuration.getResultMap(resultMapId);
+    if (!resultMap.getConstructorResultMappings().isEmpty()
+        || resultMap.hasNestedResultMaps()
+        || resultMap.hasNestedQueries()
+        || resultMap.getDiscriminator() != null) {
+      throw new IllegalArgumentException("Result map " + resultMapId + " cannot be tracked");
+    }
+    boolean hasId = false;
+    Set<String> properties = new HashSet<>();
+    for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+      if (mapping.getColumn() == null
+          || mapping.getProperty() == null
+          || mapping.getProperty().indexOf('.') >= 0
+          || !mapping.getComposites().isEmpty()) {
+        throw new IllegalArgumentException(
+            "Result map " + resultMapId + " has a mapping that cannot be tracked: " + mapping);
+      }
+      hasId |= mapping.getFlags().contains(ResultFlag.ID);
+      properties.add(mapping.getProperty());
+    }
+    if (!hasId) {
+      throw new IllegalArgumentException("Result map " + resultMapId + " has no <id> mapping");
+    }
+    for (String property : tableColumns.keySet()) {
+      if (!properties.contains(property)) {
+        throw new IllegalArgumentException(
+            "Result map " + resultMapId + " has no mapping for property " + property);
+      }
+    }
+    return new EntityShape(configuration, resultMap, table, tableColumns);
+  }
+
+  /** 結果マップの型を返す. */
+  Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * 更新する列がテーブルにあることをデータベースのメタデータで確認する. 確認は最初の 1 回だけ行う.
+   *
+   * @param connection メタデータを読み込むコネクション
+   * @throws IllegalArgumentException テーブルにない列がある場合
+   */
+  void verify(Connection connection) throws SQLException {
+    if (verified) {
+      return;
+    }
+    Set<String> existing = tableColumns(connection.getMetaData());
+    if (!existing.isEmpty()) {
+      List<String> all = new ArrayList<>(idColumns);
+      all.addAll(columnNames);
+      for (String column : all) {
+        if (!existing.contains(normalize(column))) {
+          throw new IllegalArgumentException(
+              "Result map "
+                  + resultMapId
+                  + " reads column "
+                  + column
+                  + ", which is not a column of table "
+                  + table
+                  + "; give the table column of its property explicitly");
+        }
+      }
+    }
+    verified = true;
+  }
+
+  /** テーブルの列名を小文字で返す. テーブルが見つからない場合は空. */
+  private Set<String> tableColumns(DatabaseMetaData metaData) throws SQLException {
+    int dot = table.lastIndexOf('.');
+    String schema = dot < 0 ? null : identifier(metaData, table.substring(0, dot));
+    String name = identifier(metaData, table.substring(dot + 1));
+    Set<String> existing = new HashSet<>();
+    try (ResultSet rs = metaData.getColumns(null, schema, name, null)) {
+      while (rs.next()) {
+        existing.add(normalize(rs.getString("COLUMN_NAME")));
+      }
+    }
+    return existing;
+  }
+
+  /** 引用符で囲まれていない識別子を、データベースが格納する大文字・小文字に変換する. */
+  private static String identifier(DatabaseMetaData metaData, String identifier)
+      throws SQLException {
+    String name = identifier.strip();
+    if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+      return name.substring(1, name.length() - 1);
+    }
+    if (metaData.storesUpperCaseIdentifiers()) {
+      return name.toUpperCase(Locale.ROOT);
+    }
+    return metaData.storesLowerCaseIdentifiers() ? name.toLowerCase(Locale.ROOT) : name;
+  }
+
+  private static String normalize(String column) {
+    String name = column.strip();
+    if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+      name = name.substring(1, name.length() - 1);
+    }
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * 更新できる列の現在の値を記録する. 配列は複製する.
+   *
+   * @param entity エンティティ
+   * @return 列の順に並んだ値
+   */
+  Object[] snapshot(Object entity) {
+    Object[] values = new Object[columns.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = copy(get(i, entity));
+    }
+    return values;
+  }
+
+  /**
+   * 記録した値から変更された列を返す.
+   *
+   * @param entity エンティティ
+   * @param snapshot {@link #snapshot(Object)} の戻り値. {@code null} の場合はすべての列が変更されたとみなす
+   * @return 変更された列のビットが立ったマスク
+   */
+  BitSet changes(Object entity, Object[] snapshot) {
+    BitSet mask = new BitSet(columns.size());
+    for (int i = 0; i < columns.size(); i++) {
+      if (snapshot == null || !isSame(snapshot[i], get(i, entity))) {
+        mask.set(i);
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * 変更された列の名前を返す.
+   *
+   * @param mask {@link #changes(Object, Object[])} の戻り値
+   * @return プロパティ名
+   */
+  List<String> properties(BitSet mask) {
+    return mask.stream().mapToObj(i -> columns.get(i).getProperty()).toList();
+  }
+
+  /**
+   * マスクの列だけを更新する文を返す. 初めて使うマスクの場合は生成して設定に登録する.
+   *
+   * @param mask 空でないマスク
+   * @return エンティティをパラメータとして受け取る文
+   */
+  MappedStatement statement(BitSet mask) {
+    return statements.computeIfAbsent(mask, this::register);
+  }
+
+  private MappedStatement register(BitSet mask) {
+    String namespace = resultMapId.substring(0, Math.max(0, resultMapId.lastIndexOf('.')));
+    String id =
+        resultMapId + "-trackedUpdate-" + HexFormat.of().formatHex(mask.toByteArray());
+    synchronized (configuration) {
+      if (configuration.hasStatement(id, false)) {
+        return configuration.getMappedStatement(id, false);
+      }
+      StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+      List<ParameterMapping> parameters = new ArrayList<>();
+      String separator = "";
+      for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+        sql.append(separator).append(columnNames.get(i)).append(" = ?");
+        parameters.add(parameter(columns.get(i)));
+        separator = ", ";
+      }
+      separator = " WHERE ";
+      for (int i = 0; i < ids.size(); i++) {
+        sql.append(separator).append(idColumns.get(i)).append(" = ?");
+        parameters.add(parameter(ids.get(i)));
+        separator = " AND ";
+      }
+      MappedStatement.Builder builder =
+          new MappedStatement.Builder(
+                  configuration,
+                  id,
+                  new StaticSqlSource(configuration, sql.toString(), parameters),
+                  SqlCommandType.UPDATE)
+              .parameterMap(
+                  new ParameterMap.Builder(configuration, id + "-Inline", type, new ArrayList<>())
+                      .build())
+              .resultMaps(new ArrayList<>())
+              .flushCacheRequired(true)
+              .useCache(false);
+      if (configuration.hasCache(namespace)) {
+        builder.cache(configuration.getCache(namespace));
+      }
+      MappedStatement ms = builder.build();
+      configuration.addMappedStatement(ms);
+      return ms;
+    }
+  }
+
+  private ParameterMapping parameter(ResultMapping mapping) {
+    return new ParameterMapping.Builder(
+            configuration, mapping.getProperty(), mapping.getTypeHandler())
+        .javaType(mapping.getJavaType())
+        .jdbcType(
+            mapping.getJdbcType() == null
+                ? configuration.getJdbcTypeForNull()
+                : mapping.getJdbcType())
+        .build();
+  }
+
+  private Object get(int column, Object entity) {
+    try {
+      return getters.get(column).invoke(entity, null);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new ReflectionException(
+          "Could not read " + columns.get(column).getProperty() + " of " + type.getName(), e);
+    }
+  }
+
+  /** 値が同じかどうかを返す. {@code Optional} の中身と配列は内容で比較する. */
+  private static boolean isSame(Object before, Object after) {
+    if (before instanceof Optional<?> b && after instanceof Optional<?> a) {
+      return Objects.deepEquals(b.orElse(null), a.orElse(null));
+    }
+    return Objects.deepEquals(before, after);
+  }
+
+  /** 変更できる配列を複製する. */
+  private static Object copy(Object value) {
+    if (value instanceof Optional<?> optional
+        && optional.isPresent()
+        && optional.get().getClass().isArray()) {
+      return Optional.of(copyArray(optional.get()));
+    }
+    return value != null && value.getClass().isArray() ? copyArray(value) : value;
+  }
+
+  private static Object copyArray(Object array) {
+    int length = Array.getLength(array);
+    Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+    System.arraycopy(array, 0, copy, 0, length);
+    return copy;
+  }
+}
@@ -0,0 +1,12 @@
+package com.tierline.mybatis.typehandler;
+
+/**
+ * Enum whose constants are stored as integer codes.
+ *
+ * <p>Used by {@link OptionalCodedEnumTypeHandler}. Codes must be unique within the enum.
+ */
+public interface CodedEnum {
+
+  /** データベースに格納するコードを返す. */
+  int getCode();
+}
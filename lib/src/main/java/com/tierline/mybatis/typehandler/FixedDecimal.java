@@ -0,0 +1,156 @@
+package com.tierline.mybatis.typehandler;
+
+import java.math.BigDecimal;
+
+/**
+ * Decimal value with a fixed scale, backed by an unscaled {@code long}.
+ *
+ * <p>Intended for money and other {@code NUMERIC(p, s)} columns whose precision fits in 18 digits.
+ * Arithmetic is exact: overflow and scale changes that would need rounding throw {@link
+ * ArithmeticException}. As with {@link BigDecimal}, values with a different scale are not equal
+ * ({@code 1.0} and {@code 1.00}).
+ *
+ * @param unscaledValue スケールを適用する前の値
+ * @param scale 小数点以下の桁数
+ */
+public record FixedDecimal(long unscaledValue, int scale) {
+
+  /** コンストラクタ. */
+  public FixedDecimal {
+    if (scale < 0) {
+      throw new IllegalArgumentException("scale must not be negative: " + scale);
+    }
+  }
+
+  /**
+   * {@link BigDecimal} から変換する.
+   *
+   * @param value 値
+   * @return 同じ値とスケールの {@link FixedDecimal}
+   * @throws ArithmeticException スケールを除いた値が {@code long} に収まらない場合
+   */
+  public static FixedDecimal valueOf(BigDecimal value) {
+    BigDecimal normalized = value.scale() < 0 ? value.setScale(0) : value;
+    return new FixedDecimal(normalized.unscaledValue().longValueExact(), normalized.scale());
+  }
+
+  /**
+   * 10 進数の文字列を解析する. スケールは小数点以下の桁数になる.
+   *
+   * @param text {@code -1234.50} のような文字列
+   * @return 解析した値
+   * @throws NumberFormatException 数値でない場合
+   * @throws ArithmeticException スケールを除いた値が {@code long} に収まらない場合
+   */
+  public static FixedDecimal parse(CharSequence text) {
+    int length = text.length();
+    int i = 0;
+    boolean negative = false;
+    if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+      negative = text.charAt(0) == '-';
+      i++;
+    }
+    long unscaled = 0;
+    int scale = -1;
+    boolean digits = false;
+    for (; i < length; i++) {
+      char c = text.charAt(i);
+      if (c >= '0' && c <= '9') {
+        // Long.MIN_VALUE も表せるように負の方向に積み上げる
+        unscaled = Math.subtractExact(Math.multiplyExact(unscaled, 10L), c - '0');
+        digits = true;
+        if (scale >= 0) {
+          scale++;
+        }
+      } else if (c == '.' && scale < 0) {
+        scale = 0;
+      } else {
+        // 指数表記などはまれなので BigDecimal に任せる
+        return valueOf(new BigDecimal(text.toString()));
+      }
+    }
+    if (!digits) {
+      throw new NumberFormatException("Not a decimal number: " + text);
+    }
+    return new FixedDecimal(negative ? unscaled : Math.negateExact(unscaled), Math.max(scale, 0));
+  }
+
+  /**
+   * スケールを変更する. 丸めが必要な場合は例外となる.
+   *
+   * @param newScale 新しいスケール
+   * @return スケールを変更した値
+   * @throws ArithmeticException 丸めが必要な場合、または {@code long} に収まらない場合
+   */
+  public FixedDecimal withScale(int newScale) {
+    if (newScale == scale) {
+      return this;
+    }
+    if (newScale > scale || unscaledValue == 0) {
+      return new FixedDecimal(
+          Math.multiplyExact(unscaledValue, powerOfTen(Math.max(newScale - scale, 0))), newScale);
+    }
+    long divisor = powerOfTen(scale - newScale);
+    if (unscaledValue % divisor != 0) {
+      throw new ArithmeticException("Rounding necessary to scale " + newScale + ": " + this);
+    }
+    return new FixedDecimal(unscaledValue / divisor, newScale);
+  }
+
+  /**
+   * 加算する. 結果のスケールは大きい方のスケールになる.
+   *
+   * @param other 加える値
+   * @return 和
+   */
+  public FixedDecimal add(FixedDecimal other) {
+    int resultScale = Math.max(scale, other.scale);
+    return new FixedDecimal(
+        Math.addExact(
+            withScale(resultScale).unscaledValue, other.withScale(resultScale).unscaledValue),
+        resultScale);
+  }
+
+  /**
+   * 減算する. 結果のスケールは大きい方のスケールになる.
+   *
+   * @param other 引く値
+   * @return 差
+   */
+  public FixedDecimal subtract(FixedDecimal other) {
+    return add(other.negate());
+  }
+
+  /**
+   * 整数を掛ける.
+   *
+   * @param multiplier 乗数
+   * @return 積
+   */
+  public FixedDecimal multiply(long multiplier) {
+    return new FixedDecimal(Math.multiplyExact(unscaledValue, multiplier), scale);
+  }
+
+  /** 符号を反転した値を返す. */
+  public FixedDecimal negate() {
+    return new FixedDecimal(Math.negateExact(unscaledValue), scale);
+  }
+
+  /** {@link BigDecimal} に変換する. */
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(unscaledValue, scale);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+
+  private static long powerOfTen(int exponent) {
+    long result = 1;
+    for (int i = 0; i < exponent; i++) {
+      result = Math.multiplyExact(result, 10L);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,130 @@
+package com.tierline.mybatis.typehandler;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Optional-like holder that keeps the raw JDBC value and converts it on first access.
+ *
+ * <p>Whether a value is present is known without converting, so only the columns that are actually
+ * read pay for the conversion. The converted {@link Optional} is cached; conversions are pure, so
+ * concurrent first accesses at worst convert twice and yield equal values.
+ *
+ * @param <T> 変換後の値の型
+ */
+public final class LazyOptional<T> {
+  private static final LazyOptional<?> EMPTY = new LazyOptional<>(Optional.empty());
+
+  private final Object raw;
+  private final Function<Object, ? extends T> converter;
+  private Optional<T> value;
+
+  private LazyOptional(Object raw, Function<Object, ? extends T> converter) {
+    this.raw = raw;
+    this.converter = converter;
+  }
+
+  private LazyOptional(Optional<T> value) {
+    this(null, null);
+    this.value = value;
+  }
+
+  /**
+   * 値のないインスタンスを返す.
+   *
+   * @param <T> 値の型
+   * @return 値のないインスタンス
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> LazyOptional<T> empty() {
+    return (LazyOptional<T>) EMPTY;
+  }
+
+  /**
+   * 変換前の値と変換処理からインスタンスを生成する.
+   *
+   * @param <R> 変換前の値の型
+   * @param <T> 変換後の値の型
+   * @param raw 変換前の値. {@code null} の場合は値のないインスタンスを返す
+   * @param converter 最初のアクセス時に一度だけ呼ばれる変換処理. {@code null} を返してはならない
+   * @return インスタンス
+   */
+  @SuppressWarnings("unchecked")
+  public static <R, T> LazyOptional<T> of(R raw, Function<? super R, ? extends T> converter) {
+    if (raw == null) {
+      return empty();
+    }
+    return new LazyOptional<>(raw, (Function<Object, ? extends T>) converter);
+  }
+
+  /**
+   * 変換済みの {@link Optional} からインスタンスを生成する.
+   *
+   * @param <T> 値の型
+   * @param value 値
+   * @return インスタンス
+   */
+  public static <T> LazyOptional<T> from(Optional<T> value) {
+    return value.isEmpty() ? empty() : new LazyOptional<>(value);
+  }
+
+  /** 値があるかどうかを返す. 値の変換は行わない. */
+  public boolean isPresent() {
+    return raw != null || value != null && value.isPresent();
+  }
+
+  /** 値がないかどうかを返す. 値の変換は行わない. */
+  public boolean isEmpty() {
+    return !isPresent();
+  }
+
+  /**
+   * 値を変換して {@link Optional} として返す. 変換は最初の呼び出しでのみ行われる.
+   *
+   * @return 変換後の値
+   */
+  public Optional<T> toOptional() {
+    Optional<T> result = value;
+    if (result == null) {
+      result = Optional.of(converter.apply(raw));
+      value = result;
+    }
+    return result;
+  }
+
+  /**
+   * 値を返す. 値がない場合は {@code other} を返す.
+   *
+   * @param other 値がない場合に返す値
+   * @return 変換後の値または {@code other}
+   */
+  public T orElse(T other) {
+    return isPresent() ? toOptional().get() : other;
+  }
+
+  /**
+   * 値を返す.
+   *
+   * @return 変換後の値
+   * @throws NoSuchElementException 値がない場合
+   */
+  public T orElseThrow() {
+    return toOptional().orElseThrow();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof LazyOptional<?> other && toOptional().equals(other.toOptional());
+  }
+
+  @Override
+  public int hashCode() {
+    return toOptional().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return isPresent() ? "LazyOptional[" + toOptional().get() + "]" : "LazyOptional.empty";
+  }
+}
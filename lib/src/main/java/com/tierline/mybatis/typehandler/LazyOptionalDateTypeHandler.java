@@ -0,0 +1,51 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.CallableStatement;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Optional;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link LazyOptional} of {@link LocalDate}.
+ *
+ * <p>Keeps the {@link Date} returned by the driver and converts it on first access, with the same
+ * conversion as {@link OptionalDateTypeHandler}.
+ */
+public class LazyOptionalDateTypeHandler extends BaseTypeHandler<LazyOptional<LocalDate>> {
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, LazyOptional<LocalDate> parameter, JdbcType jdbcType)
+      throws SQLException {
+    Optional<LocalDate> value = parameter.toOptional();
+    if (value.isPresent()) {
+      ps.setDate(i, Date.valueOf(value.get()));
+    } else {
+      ps.setNull(i, Types.DATE);
+    }
+  }
+
+  @Override
+  public LazyOptional<LocalDate> getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return LazyOptional.of(rs.getDate(columnName), Date::toLocalDate);
+  }
+
+  @Override
+  public LazyOptional<LocalDate> getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return LazyOptional.of(rs.getDate(columnIndex), Date::toLocalDate);
+  }
+
+  @Override
+  public LazyOptional<LocalDate> getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return LazyOptional.of(cs.getDate(columnIndex), Date::toLocalDate);
+  }
+}
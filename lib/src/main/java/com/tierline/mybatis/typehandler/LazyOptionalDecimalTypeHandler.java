@@ -0,0 +1,50 @@
+package com.tierline.mybatis.typehandler;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link LazyOptional} of {@link BigDecimal}.
+ *
+ * <p>Reads the column as text and parses it into a {@link BigDecimal} on first access, so numeric
+ * columns that are never read are never parsed.
+ */
+public class LazyOptionalDecimalTypeHandler extends BaseTypeHandler<LazyOptional<BigDecimal>> {
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, LazyOptional<BigDecimal> parameter, JdbcType jdbcType)
+      throws SQLException {
+    Optional<BigDecimal> value = parameter.toOptional();
+    if (value.isPresent()) {
+      ps.setBigDecimal(i, value.get());
+    } else {
+      ps.setNull(i, Types.NUMERIC);
+    }
+  }
+
+  @Override
+  public LazyOptional<BigDecimal> getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return LazyOptional.of(rs.getString(columnName), BigDecimal::new);
+  }
+
+  @Override
+  public LazyOptional<BigDecimal> getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return LazyOptional.of(rs.getString(columnIndex), BigDecimal::new);
+  }
+
+  @Override
+  public LazyOptional<BigDecimal> getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return LazyOptional.of(cs.getString(columnIndex), BigDecimal::new);
+  }
+}
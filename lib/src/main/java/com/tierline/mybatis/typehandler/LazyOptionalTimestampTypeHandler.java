@@ -0,0 +1,55 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link LazyOptional} of {@link OffsetDateTime}.
+ *
+ * <p>Keeps the {@link Timestamp} returned by the driver and converts it on first access, with the
+ * same offset as {@link OptionalTimestampTypeHandler}.
+ */
+public class LazyOptionalTimestampTypeHandler
+    extends BaseTypeHandler<LazyOptional<OffsetDateTime>> {
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, LazyOptional<OffsetDateTime> parameter, JdbcType jdbcType)
+      throws SQLException {
+    Optional<OffsetDateTime> value = parameter.toOptional();
+    if (value.isPresent()) {
+      ps.setTimestamp(i, Timestamp.from(value.get().toInstant()));
+    } else {
+      ps.setNull(i, Types.TIMESTAMP);
+    }
+  }
+
+  @Override
+  public LazyOptional<OffsetDateTime> getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return LazyOptional.of(
+        rs.getTimestamp(columnName), OptionalTimestampTypeHandler::toOffsetDateTime);
+  }
+
+  @Override
+  public LazyOptional<OffsetDateTime> getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return LazyOptional.of(
+        rs.getTimestamp(columnIndex), OptionalTimestampTypeHandler::toOffsetDateTime);
+  }
+
+  @Override
+  public LazyOptional<OffsetDateTime> getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return LazyOptional.of(
+        cs.getTimestamp(columnIndex), OptionalTimestampTypeHandler::toOffsetDateTime);
+  }
+}
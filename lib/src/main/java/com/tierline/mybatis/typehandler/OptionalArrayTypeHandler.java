@@ -0,0 +1,95 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * Base class of the MyBatis type handlers for {@link Optional} of Java arrays.
+ *
+ * <p>Column values are read with {@link Array#getArray()} and copied into the Java array type in
+ * one pass; drivers that already return the Java array type are passed through without copying.
+ * Parameters are bound with {@link java.sql.Connection#createArrayOf(String, Object[])}.
+ *
+ * @param <A> 配列の型
+ */
+abstract class OptionalArrayTypeHandler<A> extends BaseTypeHandler<Optional<A>> {
+  private final String typeName;
+  private final Class<A> arrayType;
+
+  /**
+   * コンストラクタ.
+   *
+   * @param typeName {@code createArrayOf} に渡す要素の型名
+   * @param arrayType 配列の型
+   */
+  OptionalArrayTypeHandler(String typeName, Class<A> arrayType) {
+    this.typeName = typeName;
+    this.arrayType = arrayType;
+  }
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, Optional<A> parameter, JdbcType jdbcType) throws SQLException {
+    if (parameter.isPresent()) {
+      Array array = ps.getConnection().createArrayOf(typeName, toElements(parameter.get()));
+      ps.setArray(i, array);
+      array.free();
+    } else {
+      ps.setNull(i, Types.ARRAY);
+    }
+  }
+
+  @Override
+  public Optional<A> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return decode(rs.getArray(columnName));
+  }
+
+  @Override
+  public Optional<A> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return decode(rs.getArray(columnIndex));
+  }
+
+  @Override
+  public Optional<A> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return decode(cs.getArray(columnIndex));
+  }
+
+  /** 配列をバインド用の要素の配列に変換する. */
+  abstract Object[] toElements(A array);
+
+  /**
+   * ドライバが返した要素の配列を変換する.
+   *
+   * @param elements 要素の配列
+   * @return 変換した配列
+   * @throws SQLException {@code NULL} の要素など、変換できない要素がある場合
+   */
+  abstract A fromElements(Object[] elements) throws SQLException;
+
+  /** {@code NULL} の要素を含む場合の例外を生成する. */
+  static SQLException nullElement(int index) {
+    return new SQLException("Array contains NULL element at index " + index);
+  }
+
+  private Optional<A> decode(Array array) throws SQLException {
+    if (array == null) {
+      return Optional.empty();
+    }
+    try {
+      Object values = array.getArray();
+      if (arrayType.isInstance(values)) {
+        return Optional.of(arrayType.cast(values));
+      }
+      return Optional.of(fromElements((Object[]) values));
+    } finally {
+      array.free();
+    }
+  }
+}
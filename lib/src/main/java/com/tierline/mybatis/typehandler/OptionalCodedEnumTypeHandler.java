@@ -0,0 +1,132 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link Optional} of a {@link CodedEnum} stored by its code.
+ *
+ * <p>Codes are resolved by indexing an array that spans the smallest to the largest code, built
+ * once per enum class, with one {@code Optional} per constant. Enums whose codes are too sparse
+ * for an array fall back to a binary search over the sorted codes. Declare one subclass per enum,
+ * as with {@link OptionalEnumTypeHandler}.
+ *
+ * @param <E> 列挙型
+ */
+public class OptionalCodedEnumTypeHandler<E extends Enum<E> & CodedEnum>
+    extends BaseTypeHandler<Optional<E>> {
+  private static final ClassValue<CodeTable> TABLES =
+      new ClassValue<>() {
+        @Override
+        protected CodeTable computeValue(Class<?> type) {
+          return new CodeTable((CodedEnum[]) type.getEnumConstants());
+        }
+      };
+
+  private final Class<E> type;
+  private final CodeTable table;
+
+  /**
+   * コンストラクタ.
+   *
+   * @param type 列挙型
+   */
+  public OptionalCodedEnumTypeHandler(Class<E> type) {
+    this.type = type;
+    this.table = TABLES.get(type);
+  }
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, Optional<E> parameter, JdbcType jdbcType) throws SQLException {
+    if (parameter.isPresent()) {
+      ps.setInt(i, parameter.get().getCode());
+    } else {
+      ps.setNull(i, jdbcType == null ? Types.INTEGER : jdbcType.TYPE_CODE);
+    }
+  }
+
+  @Override
+  public Optional<E> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    int code = rs.getInt(columnName);
+    return rs.wasNull() ? Optional.empty() : lookup(code);
+  }
+
+  @Override
+  public Optional<E> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    int code = rs.getInt(columnIndex);
+    return rs.wasNull() ? Optional.empty() : lookup(code);
+  }
+
+  @Override
+  public Optional<E> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    int code = cs.getInt(columnIndex);
+    return cs.wasNull() ? Optional.empty() : lookup(code);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Optional<E> lookup(int code) throws SQLException {
+    int rank = table.rank(code);
+    if (rank < 0) {
+      throw new SQLException("No constant of " + type.getName() + " with code " + code);
+    }
+    return (Optional<E>) table.values[rank];
+  }
+
+  /** Code to constant table of one enum class. */
+  private static final class CodeTable {
+    /** 配列で引く場合に許容する、定数の数に対するコードの範囲の倍率. */
+    private static final int MAX_SPREAD = 8;
+
+    /** コードの昇順に並んだ定数. */
+    final Optional<?>[] values;
+
+    private final int[] sortedCodes;
+    private final int minCode;
+    /** {@code コード - minCode} から {@link #values} の位置を引く表. コードがまばらな場合は空. */
+    private final int[] rankByOffset;
+
+    CodeTable(CodedEnum... constants) {
+      CodedEnum[] sorted = constants.clone();
+      Arrays.sort(sorted, Comparator.comparingInt(CodedEnum::getCode));
+      values = new Optional<?>[sorted.length];
+      sortedCodes = new int[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+        values[i] = Optional.of(sorted[i]);
+        sortedCodes[i] = sorted[i].getCode();
+        if (i > 0 && sortedCodes[i] == sortedCodes[i - 1]) {
+          throw new IllegalArgumentException("Duplicate code " + sortedCodes[i]);
+        }
+      }
+      minCode = sorted.length == 0 ? 0 : sortedCodes[0];
+      long span = sorted.length == 0 ? 0 : (long) sortedCodes[sorted.length - 1] - minCode + 1;
+      if (span <= (long) sorted.length * MAX_SPREAD) {
+        rankByOffset = new int[(int) span];
+        Arrays.fill(rankByOffset, -1);
+        for (int i = 0; i < sorted.length; i++) {
+          rankByOffset[sortedCodes[i] - minCode] = i;
+        }
+      } else {
+        rankByOffset = new int[0];
+      }
+    }
+
+    /** コードに対応する {@link #values} の位置を返す. 存在しない場合は -1. */
+    int rank(int code) {
+      long offset = (long) code - minCode;
+      if (offset >= 0 && offset < rankByOffset.length) {
+        return rankByOffset[(int) offset];
+      }
+      int rank = Arrays.binarySearch(sortedCodes, code);
+      return rank >= 0 ? rank : -1;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * MyBatis type handler for {@link Optional} of {@code double[]}, mapped to {@code float8[]}
+ * columns.
+ *
+ * <p>{@code NULL} elements cannot be represented and are rejected with {@link SQLException}.
+ */
+public class OptionalDoubleArrayTypeHandler extends OptionalArrayTypeHandler<double[]> {
+
+  /** コンストラクタ. */
+  public OptionalDoubleArrayTypeHandler() {
+    super("float8", double[].class);
+  }
+
+  @Override
+  Object[] toElements(double[] array) {
+    Double[] elements = new Double[array.length];
+    for (int i = 0; i < array.length; i++) {
+      elements[i] = array[i];
+    }
+    return elements;
+  }
+
+  @Override
+  double[] fromElements(Object[] elements) throws SQLException {
+    double[] array = new double[elements.length];
+    for (int i = 0; i < elements.length; i++) {
+      if (elements[i] == null) {
+        throw nullElement(i);
+      }
+      array[i] = ((Number) elements[i]).doubleValue();
+    }
+    return array;
+  }
+}
@@ -0,0 +1,94 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link Optional} of an enum stored by its name.
+ *
+ * <p>Names are resolved through a table built once per enum class, with one {@code Optional} per
+ * constant, so mapping a row allocates nothing and unknown names are reported as {@link
+ * SQLException} without going through the exception path of {@link Enum#valueOf}. Declare one
+ * subclass per enum:
+ *
+ * <pre>
+ * public class StatusTypeHandler extends OptionalEnumTypeHandler&lt;Status&gt; {
+ *   public StatusTypeHandler() {
+ *     super(Status.class);
+ *   }
+ * }
+ * </pre>
+ *
+ * @param <E> 列挙型
+ */
+public class OptionalEnumTypeHandler<E extends Enum<E>> extends BaseTypeHandler<Optional<E>> {
+  private static final ClassValue<Map<String, Optional<?>>> TABLES =
+      new ClassValue<>() {
+        @Override
+        protected Map<String, Optional<?>> computeValue(Class<?> type) {
+          Map<String, Optional<?>> table = new HashMap<>();
+          for (Object constant : type.getEnumConstants()) {
+            table.put(((Enum<?>) constant).name(), Optional.of(constant));
+          }
+          return Map.copyOf(table);
+        }
+      };
+
+  private final Class<E> type;
+  private final Map<String, Optional<?>> table;
+
+  /**
+   * コンストラクタ.
+   *
+   * @param type 列挙型
+   */
+  public OptionalEnumTypeHandler(Class<E> type) {
+    this.type = type;
+    this.table = TABLES.get(type);
+  }
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, Optional<E> parameter, JdbcType jdbcType) throws SQLException {
+    if (parameter.isPresent()) {
+      ps.setString(i, parameter.get().name());
+    } else {
+      ps.setNull(i, jdbcType == null ? Types.VARCHAR : jdbcType.TYPE_CODE);
+    }
+  }
+
+  @Override
+  public Optional<E> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return lookup(rs.getString(columnName));
+  }
+
+  @Override
+  public Optional<E> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return lookup(rs.getString(columnIndex));
+  }
+
+  @Override
+  public Optional<E> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+    return lookup(cs.getString(columnIndex));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Optional<E> lookup(String name) throws SQLException {
+    if (name == null) {
+      return Optional.empty();
+    }
+    Optional<?> value = table.get(name);
+    if (value == null) {
+      throw new SQLException("No constant of " + type.getName() + " named " + name);
+    }
+    return (Optional<E>) value;
+  }
+}
@@ -0,0 +1,100 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link Optional} of {@link FixedDecimal}.
+ *
+ * <p>Reads {@code NUMERIC} columns as text and parses the digits straight into the unscaled {@code
+ * long}, so no {@code BigDecimal} is built per row. With the no-arg constructor the scale is taken
+ * from the column value; with an explicit scale, values are rescaled exactly, and reading or
+ * binding a value that would need rounding fails instead of silently losing digits.
+ *
+ * <pre>
+ * public class AmountTypeHandler extends OptionalFixedDecimalTypeHandler {
+ *   public AmountTypeHandler() {
+ *     super(2);
+ *   }
+ * }
+ * </pre>
+ */
+public class OptionalFixedDecimalTypeHandler extends BaseTypeHandler<Optional<FixedDecimal>> {
+  private static final int COLUMN_SCALE = -1;
+
+  private final int scale;
+
+  /** 列の値のスケールをそのまま使うコンストラクタ. */
+  public OptionalFixedDecimalTypeHandler() {
+    this.scale = COLUMN_SCALE;
+  }
+
+  /**
+   * コンストラクタ.
+   *
+   * @param scale 取得・設定する値のスケール. {@code NUMERIC(p, s)} の {@code s} に合わせる
+   */
+  public OptionalFixedDecimalTypeHandler(int scale) {
+    if (scale < 0) {
+      throw new IllegalArgumentException("scale must not be negative: " + scale);
+    }
+    this.scale = scale;
+  }
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, Optional<FixedDecimal> parameter, JdbcType jdbcType)
+      throws SQLException {
+    if (parameter.isPresent()) {
+      ps.setBigDecimal(i, rescale(parameter.get()).toBigDecimal());
+    } else {
+      ps.setNull(i, Types.NUMERIC);
+    }
+  }
+
+  @Override
+  public Optional<FixedDecimal> getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return decode(rs.getString(columnName));
+  }
+
+  @Override
+  public Optional<FixedDecimal> getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return decode(rs.getString(columnIndex));
+  }
+
+  @Override
+  public Optional<FixedDecimal> getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return decode(cs.getString(columnIndex));
+  }
+
+  private Optional<FixedDecimal> decode(String text) throws SQLException {
+    if (text == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(rescale(FixedDecimal.parse(text)));
+    } catch (NumberFormatException | ArithmeticException e) {
+      throw new SQLException("Cannot read as FixedDecimal: " + text, e);
+    }
+  }
+
+  private FixedDecimal rescale(FixedDecimal value) throws SQLException {
+    if (scale == COLUMN_SCALE) {
+      return value;
+    }
+    try {
+      return value.withScale(scale);
+    } catch (ArithmeticException e) {
+      throw new SQLException("Value " + value + " does not fit scale " + scale, e);
+    }
+  }
+}
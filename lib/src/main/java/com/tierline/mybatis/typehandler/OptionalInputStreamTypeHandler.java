@@ -0,0 +1,59 @@
+package com.tierline.mybatis.typehandler;
+
+import java.io.InputStream;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link Optional} of {@link InputStream}, for large binary columns.
+ *
+ * <p>The value is the driver's stream from {@link ResultSet#getBinaryStream(int)}, so the column
+ * is not copied into a {@code byte[]} by the mapping. The stream is only readable while the result
+ * set is open: consume it in a {@code ResultHandler} or while iterating a {@code Cursor}. Whether
+ * the driver itself streams depends on the column type; PostgreSQL, for example, streams large
+ * objects but transfers {@code bytea} values whole.
+ *
+ * <p>Parameters are bound with {@link PreparedStatement#setBinaryStream}; pass a {@link
+ * SizedInputStream} to bind with a known length.
+ */
+public class OptionalInputStreamTypeHandler extends BaseTypeHandler<Optional<InputStream>> {
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, Optional<InputStream> parameter, JdbcType jdbcType)
+      throws SQLException {
+    if (parameter.isEmpty()) {
+      ps.setNull(i, jdbcType == null ? Types.BINARY : jdbcType.TYPE_CODE);
+    } else if (parameter.get() instanceof SizedInputStream sized) {
+      ps.setBinaryStream(i, sized, sized.getLength());
+    } else {
+      ps.setBinaryStream(i, parameter.get());
+    }
+  }
+
+  @Override
+  public Optional<InputStream> getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return Optional.ofNullable(rs.getBinaryStream(columnName));
+  }
+
+  @Override
+  public Optional<InputStream> getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return Optional.ofNullable(rs.getBinaryStream(columnIndex));
+  }
+
+  /** {@link CallableStatement} にはストリームの取得がないため、{@link java.sql.Blob} から取得する. */
+  @Override
+  public Optional<InputStream> getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    var blob = cs.getBlob(columnIndex);
+    return blob == null ? Optional.empty() : Optional.of(blob.getBinaryStream());
+  }
+}
@@ -0,0 +1,38 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * MyBatis type handler for {@link Optional} of {@code int[]}, mapped to {@code int4[]} columns.
+ *
+ * <p>{@code NULL} elements cannot be represented and are rejected with {@link SQLException}.
+ */
+public class OptionalIntArrayTypeHandler extends OptionalArrayTypeHandler<int[]> {
+
+  /** コンストラクタ. */
+  public OptionalIntArrayTypeHandler() {
+    super("int4", int[].class);
+  }
+
+  @Override
+  Object[] toElements(int[] array) {
+    Integer[] elements = new Integer[array.length];
+    for (int i = 0; i < array.length; i++) {
+      elements[i] = array[i];
+    }
+    return elements;
+  }
+
+  @Override
+  int[] fromElements(Object[] elements) throws SQLException {
+    int[] array = new int[elements.length];
+    for (int i = 0; i < elements.length; i++) {
+      if (elements[i] == null) {
+        throw nullElement(i);
+      }
+      array[i] = ((Number) elements[i]).intValue();
+    }
+    return array;
+  }
+}
@@ -0,0 +1,111 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link Optional} of {@link String} that shares the decoded values.
+ *
+ * <p>Meant for low-cardinality columns such as status or currency codes: every distinct value is
+ * kept once in a concurrent table, and rows with the same value receive the same {@code Optional}
+ * instance, so only one {@code String} and one {@code Optional} per value are retained. The table
+ * stops growing at its maximum size; values that do not fit are returned as fresh instances.
+ *
+ * <p>A result mapping that names the handler in its {@code typeHandler} attribute gets its own
+ * instance, and so its own table, only while the class is not registered under {@code
+ * <typeHandlers>}. Once it is registered, MyBatis resolves every such mapping to the one registered
+ * instance, and all those columns share a single bounded table; {@code
+ * MappingRegistrations.typeHandler} reuses registered instances the same way, and a generated
+ * registration uses one instance for all columns of an entity that name the same class. To give
+ * columns separate tables and sizes, subclass the handler with a no-arg constructor per column,
+ * and leave the subclasses unregistered:
+ *
+ * <pre>
+ * public class CurrencyCodeTypeHandler extends OptionalInternedStringTypeHandler {
+ *   public CurrencyCodeTypeHandler() {
+ *     super(200);
+ *   }
+ * }
+ * </pre>
+ */
+public class OptionalInternedStringTypeHandler extends BaseTypeHandler<Optional<String>> {
+  /** テーブルに保持する値の数の既定値. */
+  public static final int DEFAULT_MAX_SIZE = 1024;
+
+  private final Map<String, Optional<String>> table = new ConcurrentHashMap<>();
+  private final int maxSize;
+
+  /** {@link #DEFAULT_MAX_SIZE} 件まで保持するコンストラクタ. */
+  public OptionalInternedStringTypeHandler() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * コンストラクタ.
+   *
+   * @param maxSize テーブルに保持する値の数の上限
+   */
+  public OptionalInternedStringTypeHandler(int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+    }
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, Optional<String> parameter, JdbcType jdbcType)
+      throws SQLException {
+    if (parameter.isPresent()) {
+      ps.setString(i, parameter.get());
+    } else {
+      ps.setNull(i, Types.VARCHAR);
+    }
+  }
+
+  @Override
+  public Optional<String> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return intern(rs.getString(columnName));
+  }
+
+  @Override
+  public Optional<String> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return intern(rs.getString(columnIndex));
+  }
+
+  @Override
+  public Optional<String> getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return intern(cs.getString(columnIndex));
+  }
+
+  /** テーブルに保持している値の数を返す. */
+  int size() {
+    return table.size();
+  }
+
+  private Optional<String> intern(String value) {
+    if (value == null) {
+      return Optional.empty();
+    }
+    Optional<String> shared = table.get(value);
+    if (shared != null) {
+      return shared;
+    }
+    Optional<String> created = Optional.of(value);
+    // 上限はおおよそで良いため、size() と putIfAbsent() の間の競合は許容する
+    if (table.size() >= maxSize) {
+      return created;
+    }
+    shared = table.putIfAbsent(value, created);
+    return shared == null ? created : shared;
+  }
+}
@@ -0,0 +1,108 @@
+package com.tierline.mybatis.typehandler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link Optional} of a type stored in a {@code json} or {@code jsonb}
+ * column.
+ *
+ * <p>Column values are read as raw bytes and parsed by Jackson straight into the target type, so
+ * no intermediate {@code String} is built; use {@code JsonNode} as the target type to get a tree.
+ * Parameters are serialized with Jackson's recycled buffers and bound as {@link Types#OTHER}, which
+ * PostgreSQL casts to the column type, unless the mapping specifies another {@code jdbcType}. The
+ * {@link ObjectReader} and {@link ObjectWriter} for the target type are created once per handler.
+ *
+ * <p>Requires {@code com.fasterxml.jackson.core:jackson-databind} on the classpath. MyBatis cannot
+ * tell the target type from {@code javaType="java.util.Optional"}, so declare one subclass per
+ * type:
+ *
+ * <pre>
+ * public class EventPayloadTypeHandler extends OptionalJsonTypeHandler&lt;EventPayload&gt; {
+ *   public EventPayloadTypeHandler() {
+ *     super(EventPayload.class);
+ *   }
+ * }
+ * </pre>
+ *
+ * @param <T> JSON を変換する型
+ */
+public class OptionalJsonTypeHandler<T> extends BaseTypeHandler<Optional<T>> {
+  private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+  private final ObjectReader reader;
+  private final ObjectWriter writer;
+
+  /**
+   * 既定の {@link ObjectMapper} を使うコンストラクタ.
+   *
+   * @param type JSON を変換する型
+   */
+  public OptionalJsonTypeHandler(Class<T> type) {
+    this(type, DEFAULT_MAPPER);
+  }
+
+  /**
+   * コンストラクタ.
+   *
+   * @param type JSON を変換する型
+   * @param mapper 変換に使う {@link ObjectMapper}
+   */
+  public OptionalJsonTypeHandler(Class<T> type, ObjectMapper mapper) {
+    this.reader = mapper.readerFor(type);
+    this.writer = mapper.writerFor(type);
+  }
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, Optional<T> parameter, JdbcType jdbcType) throws SQLException {
+    int sqlType = jdbcType == null ? Types.OTHER : jdbcType.TYPE_CODE;
+    if (parameter.isEmpty()) {
+      ps.setNull(i, sqlType);
+      return;
+    }
+    try {
+      ps.setObject(i, writer.writeValueAsString(parameter.get()), sqlType);
+    } catch (JsonProcessingException e) {
+      throw new SQLException("Cannot serialize parameter " + i + " as JSON", e);
+    }
+  }
+
+  @Override
+  public Optional<T> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return parse(rs.getBytes(columnName));
+  }
+
+  @Override
+  public Optional<T> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return parse(rs.getBytes(columnIndex));
+  }
+
+  @Override
+  public Optional<T> getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return parse(cs.getBytes(columnIndex));
+  }
+
+  private Optional<T> parse(byte[] json) throws SQLException {
+    if (json == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.ofNullable(reader.readValue(json));
+    } catch (IOException e) {
+      throw new SQLException("Cannot parse JSON column value", e);
+    }
+  }
+}
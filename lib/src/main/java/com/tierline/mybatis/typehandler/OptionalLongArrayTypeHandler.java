@@ -0,0 +1,38 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * MyBatis type handler for {@link Optional} of {@code long[]}, mapped to {@code int8[]} columns.
+ *
+ * <p>{@code NULL} elements cannot be represented and are rejected with {@link SQLException}.
+ */
+public class OptionalLongArrayTypeHandler extends OptionalArrayTypeHandler<long[]> {
+
+  /** コンストラクタ. */
+  public OptionalLongArrayTypeHandler() {
+    super("int8", long[].class);
+  }
+
+  @Override
+  Object[] toElements(long[] array) {
+    Long[] elements = new Long[array.length];
+    for (int i = 0; i < array.length; i++) {
+      elements[i] = array[i];
+    }
+    return elements;
+  }
+
+  @Override
+  long[] fromElements(Object[] elements) throws SQLException {
+    long[] array = new long[elements.length];
+    for (int i = 0; i < elements.length; i++) {
+      if (elements[i] == null) {
+        throw nullElement(i);
+      }
+      array[i] = ((Number) elements[i]).longValue();
+    }
+    return array;
+  }
+}
@@ -0,0 +1,48 @@
+package com.tierline.mybatis.typehandler;
+
+import java.io.Reader;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link Optional} of {@link Reader}, for large text columns.
+ *
+ * <p>The value is the driver's reader from {@link ResultSet#getCharacterStream(int)}, so the
+ * column is not copied into a {@code String} by the mapping. As with {@link
+ * OptionalInputStreamTypeHandler}, the reader is only readable while the result set is open.
+ */
+public class OptionalReaderTypeHandler extends BaseTypeHandler<Optional<Reader>> {
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, Optional<Reader> parameter, JdbcType jdbcType)
+      throws SQLException {
+    if (parameter.isPresent()) {
+      ps.setCharacterStream(i, parameter.get());
+    } else {
+      ps.setNull(i, jdbcType == null ? Types.VARCHAR : jdbcType.TYPE_CODE);
+    }
+  }
+
+  @Override
+  public Optional<Reader> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return Optional.ofNullable(rs.getCharacterStream(columnName));
+  }
+
+  @Override
+  public Optional<Reader> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return Optional.ofNullable(rs.getCharacterStream(columnIndex));
+  }
+
+  @Override
+  public Optional<Reader> getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return Optional.ofNullable(cs.getCharacterStream(columnIndex));
+  }
+}
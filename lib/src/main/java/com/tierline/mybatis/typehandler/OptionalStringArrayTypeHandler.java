@@ -0,0 +1,30 @@
+package com.tierline.mybatis.typehandler;
+
+import java.util.Optional;
+
+/**
+ * MyBatis type handler for {@link Optional} of {@code String[]}, mapped to {@code text[]} columns.
+ *
+ * <p>Unlike the primitive array handlers, {@code NULL} elements are kept as {@code null}.
+ */
+public class OptionalStringArrayTypeHandler extends OptionalArrayTypeHandler<String[]> {
+
+  /** コンストラクタ. */
+  public OptionalStringArrayTypeHandler() {
+    super("text", String[].class);
+  }
+
+  @Override
+  Object[] toElements(String[] array) {
+    return array;
+  }
+
+  @Override
+  String[] fromElements(Object[] elements) {
+    String[] array = new String[elements.length];
+    for (int i = 0; i < elements.length; i++) {
+      array[i] = elements[i] == null ? null : elements[i].toString();
+    }
+    return array;
+  }
+}
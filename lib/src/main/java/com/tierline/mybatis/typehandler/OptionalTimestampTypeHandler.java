@@ -14,6 +14,8 @@ import org.apache.ibatis.type.JdbcType;
 
 /** MyBatis type handler for {@link Optional} of {@link OffsetDateTime}. */
 public class OptionalTimestampTypeHandler extends BaseTypeHandler<Optional<OffsetDateTime>> {
+  /** 取得した日時に付与するオフセット. */
+  static final ZoneOffset OFFSET = ZoneOffset.ofHours(9);
 
   @Override
   public void setNonNullParameter(
@@ -51,7 +53,11 @@ public class OptionalTimestampTypeHandler extends BaseTypeHandler<Optional<Offse
     if (timestamp == null) {
       return Optional.empty();
     }
-    var offsetDateTime = timestamp.toInstant().atOffset(ZoneOffset.ofHours(9));
-    return Optional.of(offsetDateTime);
+    return Optional.of(toOffsetDateTime(timestamp));
+  }
+
+  /** {@link Timestamp} を {@link #OFFSET} の {@link OffsetDateTime} に変換する. */
+  static OffsetDateTime toOffsetDateTime(Timestamp timestamp) {
+    return timestamp.toInstant().atOffset(OFFSET);
   }
 }
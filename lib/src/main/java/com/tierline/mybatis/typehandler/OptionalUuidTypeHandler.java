@@ -0,0 +1,48 @@
+package com.tierline.mybatis.typehandler;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import java.util.UUID;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handler for {@link Optional} of {@link UUID}, for native {@code uuid} columns.
+ *
+ * <p>Values are exchanged as {@link UUID} objects through {@code getObject(int, Class)} and {@code
+ * setObject}, so drivers with a native {@code uuid} type, such as PostgreSQL, convert them without
+ * a textual round trip.
+ */
+public class OptionalUuidTypeHandler extends BaseTypeHandler<Optional<UUID>> {
+
+  @Override
+  public void setNonNullParameter(
+      PreparedStatement ps, int i, Optional<UUID> parameter, JdbcType jdbcType)
+      throws SQLException {
+    if (parameter.isPresent()) {
+      ps.setObject(i, parameter.get());
+    } else {
+      ps.setNull(i, jdbcType == null ? Types.OTHER : jdbcType.TYPE_CODE);
+    }
+  }
+
+  @Override
+  public Optional<UUID> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+    return Optional.ofNullable(rs.getObject(columnName, UUID.class));
+  }
+
+  @Override
+  public Optional<UUID> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+    return Optional.ofNullable(rs.getObject(columnIndex, UUID.class));
+  }
+
+  @Override
+  public Optional<UUID> getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return Optional.ofNullable(cs.getObject(columnIndex, UUID.class));
+  }
+}
@@ -0,0 +1,33 @@
+package com.tierline.mybatis.typehandler;
+
+import java.io.FilterInputStream;
+import java.io.InputStream;
+
+/**
+ * Input stream whose total length is known in advance.
+ *
+ * <p>{@link OptionalInputStreamTypeHandler} binds it with the length, which lets drivers stream
+ * the content to the database instead of buffering it to find out its size.
+ */
+public class SizedInputStream extends FilterInputStream {
+  private final long length;
+
+  /**
+   * コンストラクタ.
+   *
+   * @param in 元のストリーム
+   * @param length ストリームのバイト数
+   */
+  public SizedInputStream(InputStream in, long length) {
+    super(in);
+    if (length < 0) {
+      throw new IllegalArgumentException("length must not be negative: " + length);
+    }
+    this.length = length;
+  }
+
+  /** ストリームのバイト数を返す. */
+  public long getLength() {
+    return length;
+  }
+}
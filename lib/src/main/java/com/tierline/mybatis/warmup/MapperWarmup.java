@@ -0,0 +1,296 @@
+package com.tierline.mybatis.warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Warms up the mapped statements and type handlers of a {@link SqlSessionFactory} before traffic
+ * arrives.
+ *
+ * <p>{@link #warmUp()} builds every pending statement, builds its {@link BoundSql} with a {@code
+ * null} parameter or the one given with {@link #parameter(String, Object)}, and loads the
+ * reflection metadata and type handlers of its result maps and parameter mappings. Optionally it
+ * then holds several connections of the factory at once, by default as many as a {@link
+ * PooledDataSource} keeps idle, and on each of them prepares every statement, which fills any
+ * statement cache kept by the driver or the data source, and runs every select as a real round
+ * trip that reads at most one row, so that the type handlers are compiled by the JIT against the
+ * driver's own result sets. The round trips run against the live database in auto-commit mode;
+ * selects that return no row warm only the statement path. Statements whose dynamic SQL needs a
+ * parameter that was not given are reported as failures and skipped; warm-up never fails the
+ * caller.
+ *
+ * <pre>
+ * MapperWarmup.Result result =
+ *     new MapperWarmup(sqlSessionFactory)
+ *         .parameter("com.example.UserMapper.findById", 1)
+ *         .prepareStatements(true)
+ *         .roundTrips(100)
+ *         .warmUp();
+ * </pre>
+ */
+public class MapperWarmup {
+  private static final RowBounds FIRST_ROW = new RowBounds(0, 1);
+
+  private final SqlSessionFactory sqlSessionFactory;
+  private final Map<String, Object> parameters = new HashMap<>();
+  private boolean prepareStatements;
+  private int roundTrips;
+  private int connections;
+
+  /**
+   * Outcome of a warm-up.
+   *
+   * @param statements {@link BoundSql} を生成できた文の数
+   * @param typeHandlers 解決した TypeHandler の数
+   * @param prepared すべてのコネクションで準備できた文の数の合計
+   * @param executed すべてのコネクションで実行できた select の回数の合計
+   * @param failures 失敗した文の ID と、その例外
+   */
+  public record Result(
+      int statements,
+      int typeHandlers,
+      int prepared,
+      int executed,
+      Map<String, Exception> failures) {
+
+    /** コンストラクタ. */
+    public Result {
+      failures = Map.copyOf(failures);
+    }
+  }
+
+  /**
+   * コンストラクタ.
+   *
+   * @param sqlSessionFactory ウォームアップするファクトリ
+   */
+  public MapperWarmup(SqlSessionFactory sqlSessionFactory) {
+    this.sqlSessionFactory = sqlSessionFactory;
+  }
+
+  /**
+   * 文の {@link BoundSql} の生成と実行に使うパラメータを設定する. 設定しない文には {@code null} を渡す.
+   *
+   * @param statementId 名前空間を含む文の ID
+   * @param parameter パラメータ
+   * @return このインスタンス
+   */
+  public MapperWarmup parameter(String statementId, Object parameter) {
+    parameters.put(statementId, parameter);
+    return this;
+  }
+
+  /**
+   * 各文をコネクション上で準備するかどうかを設定する.
+   *
+   * @param prepareStatements 準備する場合は {@code true}
+   * @return このインスタンス
+   */
+  public MapperWarmup prepareStatements(boolean prepareStatements) {
+    this.prepareStatements = prepareStatements;
+    return this;
+  }
+
+  /**
+   * コネクションごとに各 select を実行する回数を設定する.
+   *
+   * @param roundTrips select ごとの実行回数. {@code 0} の場合は実行しない
+   * @return このインスタンス
+   */
+  public MapperWarmup roundTrips(int roundTrips) {
+    if (roundTrips < 0) {
+      throw new IllegalArgumentException("roundTrips must not be negative: " + roundTrips);
+    }
+    this.roundTrips = roundTrips;
+    return this;
+  }
+
+  /**
+   * 同時に取得してウォームアップするコネクションの数を設定する. プールの最大数を超えないようにする.
+   *
+   * <p>設定しない場合は、{@link PooledDataSource} ではアイドル状態で保持するコネクションの数、それ以外では 1.
+   *
+   * @param connections コネクションの数
+   * @return このインスタンス
+   */
+  public MapperWarmup connections(int connections) {
+    if (connections < 1) {
+      throw new IllegalArgumentException("connections must be positive: " + connections);
+    }
+    this.connections = connections;
+    return this;
+  }
+
+  /**
+   * ウォームアップを実行する.
+   *
+   * @return 実行結果
+   */
+  public Result warmUp() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    Map<String, Exception> failures = new LinkedHashMap<>();
+    Map<MappedStatement, BoundSql> bound = new LinkedHashMap<>();
+    Set<TypeHandler<?>> typeHandlers = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (MappedStatement ms : mappedStatements(configuration)) {
+      resolve(configuration, ms, typeHandlers);
+      try {
+        BoundSql boundSql = ms.getBoundSql(parameters.get(ms.getId()));
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+          addTypeHandler(typeHandlers, mapping.getTypeHandler());
+        }
+        bound.put(ms, boundSql);
+      } catch (RuntimeException e) {
+        failures.put(ms.getId(), e);
+      }
+    }
+    int prepared = 0;
+    int executed = 0;
+    if (prepareStatements || roundTrips > 0) {
+      // プールが別々のコネクションを渡すように、すべてのセッションを開いたままにする
+      List<SqlSession> sessions = new ArrayList<>();
+      int count = connectionCount();
+      try {
+        for (int i = 0; i < count; i++) {
+          SqlSession session = sqlSessionFactory.openSession(true);
+          sessions.add(session);
+          if (prepareStatements) {
+            prepared += prepare(session.getConnection(), bound, failures);
+          }
+          executed += execute(session, bound, failures);
+        }
+      } finally {
+        for (SqlSession session : sessions) {
+          session.close();
+        }
+      }
+    }
+    return new Result(bound.size(), typeHandlers.size(), prepared, executed, failures);
+  }
+
+  /** 未完成の文を生成させ、名前空間付きの ID で登録された文を重複なく返す. */
+  private static Set<MappedStatement> mappedStatements(Configuration configuration) {
+    Set<MappedStatement> statements = Collections.newSetFromMap(new IdentityHashMap<>());
+    // 短い名前は曖昧な場合に MappedStatement 以外が登録されるので除く
+    for (String id : List.copyOf(configuration.getMappedStatementNames())) {
+      if (id.indexOf('.') > 0) {
+        statements.add(configuration.getMappedStatement(id));
+      }
+    }
+    return statements;
+  }
+
+  private static void resolve(
+      Configuration configuration, MappedStatement ms, Set<TypeHandler<?>> typeHandlers) {
+    if (ms.getParameterMap().getType() != null) {
+      configuration.getReflectorFactory().findForClass(ms.getParameterMap().getType());
+    }
+    for (ParameterMapping mapping : ms.getParameterMap().getParameterMappings()) {
+      addTypeHandler(typeHandlers, mapping.getTypeHandler());
+    }
+    for (ResultMap resultMap : ms.getResultMaps()) {
+      resolve(configuration, resultMap, typeHandlers);
+    }
+  }
+
+  private static void resolve(
+      Configuration configuration, ResultMap resultMap, Set<TypeHandler<?>> typeHandlers) {
+    configuration.getReflectorFactory().findForClass(resultMap.getType());
+    for (ResultMapping mapping : resultMap.getResultMappings()) {
+      addTypeHandler(typeHandlers, mapping.getTypeHandler());
+      if (mapping.getNestedResultMapId() != null
+          && configuration.hasResultMap(mapping.getNestedResultMapId())) {
+        ResultMap nested = configuration.getResultMap(mapping.getNestedResultMapId());
+        if (nested != resultMap) {
+          resolve(configuration, nested, typeHandlers);
+        }
+      }
+    }
+  }
+
+  private static void addTypeHandler(Set<TypeHandler<?>> typeHandlers, TypeHandler<?> handler) {
+    if (handler != null) {
+      typeHandlers.add(handler);
+    }
+  }
+
+  private int connectionCount() {
+    if (connections > 0) {
+      return connections;
+    }
+    Environment environment = sqlSessionFactory.getConfiguration().getEnvironment();
+    if (environment != null && environment.getDataSource() instanceof PooledDataSource pooled) {
+      return Math.max(
+          1,
+          Math.min(
+              pooled.getPoolMaximumIdleConnections(), pooled.getPoolMaximumActiveConnections()));
+    }
+    return 1;
+  }
+
+  private static int prepare(
+      Connection connection,
+      Map<MappedStatement, BoundSql> bound,
+      Map<String, Exception> failures) {
+    int prepared = 0;
+    for (Map.Entry<MappedStatement, BoundSql> entry : bound.entrySet()) {
+      StatementType type = entry.getKey().getStatementType();
+      String sql = entry.getValue().getSql();
+      if (type == StatementType.STATEMENT) {
+        continue;
+      }
+      try (Statement statement =
+          type == StatementType.CALLABLE
+              ? connection.prepareCall(sql)
+              : connection.prepareStatement(sql)) {
+        prepared++;
+      } catch (SQLException e) {
+        failures.put(entry.getKey().getId(), e);
+      }
+    }
+    return prepared;
+  }
+
+  /** 各 select を先頭の 1 行だけ読み込んで実行する. セッションのキャッシュは毎回消去する. */
+  private int execute(
+      SqlSession session, Map<MappedStatement, BoundSql> bound, Map<String, Exception> failures) {
+    int executed = 0;
+    for (MappedStatement ms : bound.keySet()) {
+      if (ms.getSqlCommandType() != SqlCommandType.SELECT) {
+        continue;
+      }
+      try {
+        for (int i = 0; i < roundTrips; i++) {
+          session.clearCache();
+          session.selectList(ms.getId(), parameters.get(ms.getId()), FIRST_ROW);
+          executed++;
+        }
+      } catch (RuntimeException e) {
+        failures.put(ms.getId(), e);
+      }
+    }
+    return executed;
+  }
+}
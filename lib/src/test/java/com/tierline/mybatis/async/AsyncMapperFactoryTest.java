@@ -0,0 +1,134 @@
+package com.tierline.mybatis.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link AsyncMapperFactory}. */
+@DisplayName("AsyncMapperFactory のテスト")
+class AsyncMapperFactoryTest {
+
+  /** Async counterpart of {@link TestEntityMapper}. */
+  interface AsyncTestEntityMapper {
+    CompletableFuture<TestEntity> findById(Integer id);
+  }
+
+  /** Async interface whose method has no counterpart in {@link TestEntityMapper}. */
+  interface UnknownAsyncMapper {
+    CompletableFuture<TestEntity> findByName(String name);
+  }
+
+  private SqlSessionFactory sqlSessionFactory;
+  private SqlSession session;
+  private TestEntityMapper mapper;
+
+  @BeforeEach
+  void setUp() {
+    sqlSessionFactory = mock(SqlSessionFactory.class);
+    session = mock(SqlSession.class);
+    mapper = mock(TestEntityMapper.class);
+    when(sqlSessionFactory.openSession()).thenReturn(session);
+    when(session.getMapper(TestEntityMapper.class)).thenReturn(mapper);
+  }
+
+  @Test
+  @DisplayName("非同期版メソッドを呼ぶと、Mapper の結果が CompletableFuture で返され、セッションが閉じられる")
+  void testCreateDelegatesToMapper() throws Exception {
+    TestEntity entity = new TestEntity();
+    entity.setId(1);
+    when(mapper.findById(1)).thenReturn(entity);
+
+    try (AsyncMapperFactory factory = new AsyncMapperFactory(sqlSessionFactory, 4)) {
+      AsyncTestEntityMapper asyncMapper =
+          factory.create(TestEntityMapper.class, AsyncTestEntityMapper.class);
+
+      TestEntity result = asyncMapper.findById(1).get(5, TimeUnit.SECONDS);
+
+      assertEquals(entity, result);
+      verify(session).commit();
+      verify(session).close();
+    }
+  }
+
+  @Test
+  @DisplayName("Mapper が例外を投げた場合、CompletableFuture が例外で完了する")
+  void testCreatePropagatesMapperException() {
+    when(mapper.findById(1)).thenThrow(new IllegalStateException("boom"));
+
+    try (AsyncMapperFactory factory = new AsyncMapperFactory(sqlSessionFactory, 4)) {
+      AsyncTestEntityMapper asyncMapper =
+          factory.create(TestEntityMapper.class, AsyncTestEntityMapper.class);
+
+      ExecutionException exception =
+          assertThrows(
+              ExecutionException.class, () -> asyncMapper.findById(1).get(5, TimeUnit.SECONDS));
+
+      assertInstanceOf(IllegalStateException.class, exception.getCause());
+      verify(session).close();
+    }
+  }
+
+  @Test
+  @DisplayName("Mapper に対応するメソッドがない場合、プロキシ生成時に例外が発生する")
+  void testCreateRejectsUnknownMethod() {
+    try (AsyncMapperFactory factory = new AsyncMapperFactory(sqlSessionFactory, 4)) {
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> factory.create(TestEntityMapper.class, UnknownAsyncMapper.class));
+    }
+  }
+
+  @Test
+  @DisplayName("同時実行数は Mapper ごとの上限を超えない")
+  void testSubmitLimitsConcurrency() throws Exception {
+    int maxConcurrency = 2;
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    try (AsyncMapperFactory factory = new AsyncMapperFactory(sqlSessionFactory, maxConcurrency)) {
+      List<CompletableFuture<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        futures.add(
+            factory.submit(
+                TestEntityMapper.class,
+                m -> {
+                  peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                  try {
+                    release.await(5, TimeUnit.SECONDS);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                  running.decrementAndGet();
+                  return 1;
+                }));
+      }
+      Thread.sleep(100);
+      release.countDown();
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+      assertTrue(peak.get() <= maxConcurrency);
+      verify(sqlSessionFactory, times(10)).openSession();
+    }
+  }
+}
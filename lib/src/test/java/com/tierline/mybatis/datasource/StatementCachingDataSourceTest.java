@@ -0,0 +1,178 @@
+package com.tierline.mybatis.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntities;
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.Properties;
+import javax.sql.DataSource;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbc.JdbcPreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link StatementCachingDataSource}. */
+@DisplayName("StatementCachingDataSource のテスト")
+class StatementCachingDataSourceTest {
+
+  private static final String SELECT_NAME = "SELECT name FROM test_entity WHERE id = ?";
+  private static final String SELECT_AGE = "SELECT age FROM test_entity WHERE id = ?";
+  private static final String SELECT_RATE = "SELECT rate FROM test_entity WHERE id = ?";
+
+  private String url;
+  private StatementCachingDataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    url = ((UnpooledDataSource) H2TestDatabase.create("statement-cache")).getUrl();
+    dataSource = new StatementCachingDataSource("org.h2.Driver", url, "sa", "");
+  }
+
+  @Test
+  @DisplayName("プールから取得し直したコネクションでも、同じ SQL には同じ物理的な文が使われる")
+  void testReuseAcrossPooledConnections() throws SQLException {
+    PooledDataSource pooled = dataSource.pooled();
+    pooled.setPoolMaximumActiveConnections(1);
+    pooled.setPoolMaximumIdleConnections(1);
+
+    JdbcPreparedStatement first;
+    try (Connection conn = pooled.getConnection();
+        PreparedStatement ps = conn.prepareStatement(SELECT_NAME)) {
+      first = ps.unwrap(JdbcPreparedStatement.class);
+    }
+    try (Connection conn = pooled.getConnection();
+        PreparedStatement ps = conn.prepareStatement(SELECT_NAME)) {
+      assertSame(first, ps.unwrap(JdbcPreparedStatement.class));
+      assertFalse(ps.isClosed());
+    }
+    pooled.forceCloseAll();
+
+    assertTrue(first.isClosed());
+  }
+
+  @Test
+  @DisplayName("キャッシュに戻す際にパラメータと設定が元に戻される")
+  void testResetOnClose() throws SQLException {
+    try (Connection conn = dataSource.getConnection()) {
+      int defaultFetchSize;
+      try (PreparedStatement ps = conn.prepareStatement(SELECT_NAME)) {
+        defaultFetchSize = ps.getFetchSize();
+        ps.setFetchSize(defaultFetchSize + 7);
+        ps.setQueryTimeout(3);
+        ps.setInt(1, 1);
+        try (ResultSet rs = ps.executeQuery()) {
+          assertFalse(rs.next());
+        }
+      }
+      try (PreparedStatement ps = conn.prepareStatement(SELECT_NAME)) {
+        assertEquals(defaultFetchSize, ps.getFetchSize());
+        assertEquals(0, ps.getQueryTimeout());
+        assertThrows(SQLException.class, ps::executeQuery);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("閉じた文は使えず、キャッシュの上限を超えると最も古い文が閉じられる")
+  void testEviction() throws SQLException {
+    dataSource.setStatementCacheSize(2);
+    try (Connection conn = dataSource.getConnection()) {
+      PreparedStatement name = conn.prepareStatement(SELECT_NAME);
+      JdbcPreparedStatement physicalName = name.unwrap(JdbcPreparedStatement.class);
+      name.close();
+      assertTrue(name.isClosed());
+      assertThrows(SQLException.class, () -> name.setInt(1, 1));
+
+      conn.prepareStatement(SELECT_AGE).close();
+      assertFalse(physicalName.isClosed());
+      conn.prepareStatement(SELECT_RATE).close();
+
+      assertTrue(physicalName.isClosed());
+    }
+  }
+
+  @Test
+  @DisplayName("同じ SQL の文を同時に使った場合、余った文はキャッシュせずに閉じる")
+  void testSameSqlInUse() throws SQLException {
+    try (Connection conn = dataSource.getConnection()) {
+      PreparedStatement first = conn.prepareStatement(SELECT_NAME);
+      PreparedStatement second = conn.prepareStatement(SELECT_NAME);
+      JdbcPreparedStatement physicalFirst = first.unwrap(JdbcPreparedStatement.class);
+      JdbcPreparedStatement physicalSecond = second.unwrap(JdbcPreparedStatement.class);
+      assertNotSame(physicalFirst, physicalSecond);
+
+      first.close();
+      second.close();
+
+      assertFalse(physicalFirst.isClosed());
+      assertTrue(physicalSecond.isClosed());
+    }
+  }
+
+  @Test
+  @DisplayName("物理コネクションを閉じるとキャッシュの文も閉じられる")
+  void testCloseConnection() throws SQLException {
+    JdbcPreparedStatement physical;
+    try (Connection conn = dataSource.getConnection();
+        PreparedStatement ps = conn.prepareStatement(SELECT_NAME)) {
+      physical = ps.unwrap(JdbcPreparedStatement.class);
+    }
+
+    assertTrue(physical.isClosed());
+  }
+
+  @Test
+  @DisplayName("ファクトリで生成したデータソースで、空の Optional を含む登録と取得を繰り返せる")
+  void testDataSourceFactory() {
+    StatementCachingPooledDataSourceFactory factory =
+        new StatementCachingPooledDataSourceFactory();
+    Properties properties = new Properties();
+    properties.setProperty("driver", "org.h2.Driver");
+    properties.setProperty("url", url);
+    properties.setProperty("username", "sa");
+    properties.setProperty("password", "");
+    properties.setProperty("poolMaximumActiveConnections", "1");
+    properties.setProperty("statementCacheSize", "10");
+    factory.setProperties(properties);
+    DataSource pooled = factory.getDataSource();
+    assertInstanceOf(PooledDataSource.class, pooled);
+    SqlSessionFactory sqlSessionFactory = H2TestDatabase.sqlSessionFactory(pooled);
+
+    for (int i = 1; i <= 4; i++) {
+      try (SqlSession session = sqlSessionFactory.openSession()) {
+        session.getMapper(TestEntityMapper.class).insert(TestEntities.entity(i, i % 2 == 1));
+        session.commit();
+      }
+    }
+    for (int i = 1; i <= 4; i++) {
+      try (SqlSession session = sqlSessionFactory.openSession()) {
+        TestEntity found = session.getMapper(TestEntityMapper.class).findById(i);
+        assertEquals(i % 2 == 0 ? Optional.empty() : Optional.of("Name " + i), found.getName());
+        assertEquals(i % 2 == 0 ? Optional.empty() : Optional.of(30 + i), found.getAge());
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("キャッシュする文の数が負の場合は例外となる")
+  void testNegativeCacheSize() {
+    assertThrows(IllegalArgumentException.class, () -> dataSource.setStatementCacheSize(-1));
+  }
+}
@@ -0,0 +1,45 @@
+package com.tierline.mybatis.integration;
+
+import java.util.List;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * Representative mapping workload run by the {@code aotCache} Gradle task to train a JDK AOT cache.
+ *
+ * <p>It parses {@code mybatis-config-integration.xml} and repeats the insert and find round trip of
+ * {@link PostgreSqlIntegrationTest} against an in-memory H2 database standing in for PostgreSQL,
+ * with both present and empty {@code Optional} values, so that the classes loaded and linked for
+ * configuration parsing and for the type handlers end up in the cache.
+ */
+public final class AotTrainingWorkload {
+  private static final int DEFAULT_ROUNDS = 200;
+
+  private AotTrainingWorkload() {}
+
+  /**
+   * ワークロードを実行する.
+   *
+   * @param args 1 つ目の引数は往復する回数（省略時は 200）
+   */
+  public static void main(String[] args) {
+    int rounds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+    SqlSessionFactory sqlSessionFactory =
+        H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("aot"));
+    int found = 0;
+    for (int i = 1; i <= rounds; i++) {
+      try (SqlSession session = sqlSessionFactory.openSession()) {
+        TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+        // 奇数の ID には値のある、偶数の ID には空の Optional を設定する
+        mapper.insert(TestEntities.entity(i, i % 2 == 1));
+        session.commit();
+        found += mapper.findById(i) == null ? 0 : 1;
+        found += mapper.findRecordById(i) == null ? 0 : 1;
+      }
+    }
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      List<TestEntity> all = session.getMapper(TestEntityMapper.class).findAll();
+      System.out.println("Trained with " + found + " finds and " + all.size() + " rows");
+    }
+  }
+}
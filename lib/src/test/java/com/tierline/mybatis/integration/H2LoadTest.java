@@ -0,0 +1,276 @@
+package com.tierline.mybatis.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.tierline.mybatis.mapping.DirectResultHandlerInterceptor;
+import com.tierline.mybatis.mapping.PipelinedResultHandler;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Throughput and allocation regression test that runs the mapper round trip of {@link
+ * PostgreSqlIntegrationTest} against an in-process H2 database in PostgreSQL mode.
+ *
+ * <p>Absolute throughput and latency are only reported through the {@link TestReporter}, since they
+ * depend on the machine. Most of what a round trip allocates is H2's own work, so each mapper
+ * operation is measured next to the same SQL run directly through JDBC on the same pool, and only
+ * the difference, which is what MyBatis and the type handlers add, is asserted against a budget
+ * with a few times the headroom of a typical run. A change that adds allocation to the mapping path
+ * thus fails the build. The budgets can be overridden with the {@code tierline.load.roundTripBytes}
+ * and {@code tierline.load.readRowBytes} system properties.
+ *
+ * <p>The one timing assertion compares {@link PipelinedResultHandler} with the standard mapping of
+ * the same large result set, and only runs with at least four processors, where decoding on the
+ * workers has room to overlap with reading.
+ */
+@DisplayName("H2 負荷テスト - スループットとアロケーションの回帰確認")
+@Timeout(value = 5, unit = TimeUnit.MINUTES)
+class H2LoadTest {
+  private static final int THREADS = 4;
+  private static final int ROWS = 500;
+  private static final int PIPELINE_ROWS = 5000;
+  private static final int PIPELINE_CPUS = 4;
+  private static final String NAMESPACE = "com.tierline.mybatis.integration.TestEntityMapper";
+
+  /** 登録と取得の 1 往復で、JDBC で直接実行する場合より多く割り当ててよいバイト数の既定値. */
+  private static final long ROUND_TRIP_BYTES = 48L * 1024;
+  /** 一覧の取得で、JDBC で直接読み込む場合より 1 行あたりに多く割り当ててよいバイト数の既定値. */
+  private static final long READ_ROW_BYTES = 2L * 1024;
+
+  private static final String INSERT_SQL =
+      "INSERT INTO test_entity"
+          + " (id, name, age, salary, rate, amount, active, birth_date, created_at)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String FIND_BY_ID_SQL = "SELECT * FROM test_entity WHERE id = ?";
+  private static final String FIND_ALL_SQL = "SELECT * FROM test_entity ORDER BY id";
+
+  private PooledDataSource dataSource;
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() {
+    assumeTrue(
+        LoadHarness.isAllocationSupported(), "Thread allocation is not measured by this JVM");
+    UnpooledDataSource database = (UnpooledDataSource) H2TestDatabase.create("load");
+    dataSource = new PooledDataSource(database.getDriver(), database.getUrl(), "sa", "");
+    dataSource.setPoolMaximumActiveConnections(THREADS);
+    dataSource.setPoolMaximumIdleConnections(THREADS);
+    sqlSessionFactory = H2TestDatabase.sqlSessionFactory(dataSource);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (dataSource != null) {
+      dataSource.forceCloseAll();
+    }
+  }
+
+  @Test
+  @DisplayName("登録と取得の往復で、1 行あたりの割り当てが予算内に収まる")
+  void testInsertAndFindRoundTrip(TestReporter reporter) throws Exception {
+    AtomicInteger ids = new AtomicInteger();
+    LoadHarness harness = new LoadHarness(THREADS, 500, 2000);
+
+    LoadHarness.Report baseline =
+        harness.run("JDBC insert + find", () -> jdbcInsertAndFind(ids.incrementAndGet()));
+    LoadHarness.Report report =
+        harness.run(
+            "insert + findById",
+            () -> {
+              int id = ids.incrementAndGet();
+              try (SqlSession session = sqlSessionFactory.openSession()) {
+                TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+                mapper.insert(TestEntities.entity(id, id % 2 == 1));
+                session.commit();
+                TestEntity found = mapper.findById(id);
+                assertNotNull(found);
+                assertEquals(id % 2 == 1, found.getName().isPresent());
+              }
+              return 1;
+            });
+    publish(reporter, baseline, report);
+
+    assertEquals(THREADS * 2000L, report.rows());
+    long budget = Long.getLong("tierline.load.roundTripBytes", ROUND_TRIP_BYTES);
+    assertOverhead(report, baseline, budget);
+  }
+
+  @Test
+  @DisplayName("一覧の取得で、1 行あたりの割り当てが予算内に収まる")
+  void testFindAll(TestReporter reporter) throws Exception {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      for (int id = 1; id <= ROWS; id++) {
+        mapper.insert(TestEntities.entity(id, id % 2 == 1));
+      }
+      session.commit();
+    }
+    LoadHarness harness = new LoadHarness(THREADS, 50, 200);
+
+    LoadHarness.Report baseline = harness.run("JDBC findAll", this::jdbcFindAll);
+    LoadHarness.Report report =
+        harness.run(
+            "findAll",
+            () -> {
+              try (SqlSession session = sqlSessionFactory.openSession()) {
+                return session.getMapper(TestEntityMapper.class).findAll().size();
+              }
+            });
+    publish(reporter, baseline, report);
+
+    assertEquals(THREADS * 200L * ROWS, baseline.rows());
+    assertEquals(THREADS * 200L * ROWS, report.rows());
+    long budget = Long.getLong("tierline.load.readRowBytes", READ_ROW_BYTES);
+    assertOverhead(report, baseline, budget);
+  }
+
+  @Test
+  @DisplayName("大きな結果セットでは、パイプライン化したマッピングが標準のマッピングより速い")
+  void testPipelinedFindAll(TestReporter reporter) throws Exception {
+    assumeTrue(
+        Runtime.getRuntime().availableProcessors() >= PIPELINE_CPUS,
+        "Too few processors to overlap reading with mapping");
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      for (int id = 1; id <= PIPELINE_ROWS; id++) {
+        mapper.insert(TestEntities.entity(id, id % 2 == 1));
+      }
+      session.commit();
+    }
+    sqlSessionFactory.getConfiguration().addInterceptor(new DirectResultHandlerInterceptor());
+    LoadHarness harness = new LoadHarness(1, 20, 100);
+
+    LoadHarness.Report plain =
+        harness.run(
+            "findAll",
+            () -> {
+              try (SqlSession session = sqlSessionFactory.openSession()) {
+                return session.getMapper(TestEntityMapper.class).findAll().size();
+              }
+            });
+    LoadHarness.Report pipelined =
+        harness.run(
+            "findAll (pipelined)",
+            () -> {
+              List<TestEntity> results = new ArrayList<>(PIPELINE_ROWS);
+              PipelinedResultHandler<TestEntity> handler =
+                  new PipelinedResultHandler<>(
+                      sqlSessionFactory.getConfiguration(),
+                      NAMESPACE + ".testEntityResultMap",
+                      TestEntity.class,
+                      results::add);
+              try (SqlSession session = sqlSessionFactory.openSession()) {
+                session.select(NAMESPACE + ".findAll", handler);
+              }
+              return results.size();
+            });
+    publish(reporter, plain, pipelined);
+
+    assertEquals(100L * PIPELINE_ROWS, pipelined.rows());
+    assertTrue(
+        pipelined.p50Nanos() < plain.p50Nanos(), () -> pipelined + " is not faster than " + plain);
+  }
+
+  /** MyBatis を通さずに、マッパーと同じ SQL で登録と取得を行う. */
+  private int jdbcInsertAndFind(int id) throws SQLException {
+    TestEntity entity = TestEntities.entity(id, id % 2 == 1);
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+        insert.setInt(1, id);
+        insert.setObject(2, entity.getName().orElse(null));
+        insert.setObject(3, entity.getAge().orElse(null));
+        insert.setObject(4, entity.getSalary().orElse(null));
+        insert.setObject(5, entity.getRate().orElse(null));
+        insert.setObject(6, entity.getAmount().orElse(null));
+        insert.setObject(7, entity.getActive().orElse(null));
+        insert.setObject(8, entity.getBirthDate().orElse(null));
+        insert.setObject(9, entity.getCreatedAt().orElse(null));
+        insert.executeUpdate();
+      }
+      connection.commit();
+      try (PreparedStatement find = connection.prepareStatement(FIND_BY_ID_SQL)) {
+        find.setInt(1, id);
+        return readAll(find);
+      }
+    }
+  }
+
+  /** MyBatis を通さずに、マッパーと同じ SQL ですべての行を読み込む. */
+  private int jdbcFindAll() throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement find = connection.prepareStatement(FIND_ALL_SQL)) {
+      return readAll(find);
+    }
+  }
+
+  /** すべての行のすべての列を読み込み、行数を返す. */
+  private static int readAll(PreparedStatement statement) throws SQLException {
+    int rows = 0;
+    try (ResultSet rs = statement.executeQuery()) {
+      int columns = rs.getMetaData().getColumnCount();
+      while (rs.next()) {
+        for (int i = 1; i <= columns; i++) {
+          rs.getObject(i);
+        }
+        rows++;
+      }
+    }
+    return rows;
+  }
+
+  private static void publish(TestReporter reporter, LoadHarness.Report... reports) {
+    for (LoadHarness.Report report : reports) {
+      reporter.publishEntry(report.name(), report.toString());
+    }
+  }
+
+  /** JDBC で直接実行した場合より多く割り当てた 1 行あたりのバイト数が予算内であることを確認する. */
+  private static void assertOverhead(
+      LoadHarness.Report report, LoadHarness.Report baseline, long budget) {
+    double overhead = report.bytesPerRow() - baseline.bytesPerRow();
+    assertTrue(
+        overhead <= budget,
+        () ->
+            String.format(
+                Locale.ROOT,
+                "%s allocates %.0f bytes/row over %s, more than %d",
+                report.name(),
+                overhead,
+                baseline.name(),
+                budget));
+  }
+
+  @Test
+  @DisplayName("パーセンタイルは昇順の値から切り上げた順位で求める")
+  void testPercentile() {
+    long[] sorted = new long[100];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = i + 1;
+    }
+
+    assertEquals(50, LoadHarness.percentile(sorted, 0.50));
+    assertEquals(99, LoadHarness.percentile(sorted, 0.99));
+    assertEquals(1, LoadHarness.percentile(new long[] {1}, 0.99));
+  }
+}
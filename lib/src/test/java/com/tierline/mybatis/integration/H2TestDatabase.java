@@ -0,0 +1,81 @@
+package com.tierline.mybatis.integration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+/**
+ * In-memory H2 databases in PostgreSQL mode for tests that must run without Docker.
+ *
+ * <p>Every call to {@link #create(String)} returns a fresh database initialized with {@code
+ * schema.sql}.
+ */
+public final class H2TestDatabase {
+  private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+  private H2TestDatabase() {}
+
+  /**
+   * Creates a new in-memory database with the {@code test_entity} table.
+   *
+   * @param name prefix of the database name, used in error messages
+   * @return data source of the new database
+   */
+  public static DataSource create(String name) {
+    String url =
+        "jdbc:h2:mem:"
+            + name
+            + "-"
+            + SEQUENCE.incrementAndGet()
+            + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+            + ";DB_CLOSE_DELAY=-1";
+    UnpooledDataSource dataSource = new UnpooledDataSource("org.h2.Driver", url, "sa", "");
+    try (Connection conn = dataSource.getConnection();
+        Reader schema = Resources.getResourceAsReader("schema.sql")) {
+      ScriptRunner runner = new ScriptRunner(conn);
+      runner.setLogWriter(null);
+      runner.setStopOnError(true);
+      runner.runScript(schema);
+    } catch (SQLException | IOException e) {
+      throw new IllegalStateException("Failed to initialize H2 database " + name, e);
+    }
+    return dataSource;
+  }
+
+  /**
+   * Builds a {@link SqlSessionFactory} from {@code mybatis-config-integration.xml} that uses the
+   * given data source.
+   *
+   * @param dataSource data source to use
+   * @return session factory
+   */
+  public static SqlSessionFactory sqlSessionFactory(DataSource dataSource) {
+    Properties properties = new Properties();
+    properties.setProperty("jdbc.driver", "org.h2.Driver");
+    properties.setProperty("jdbc.url", "jdbc:h2:mem:unused");
+    properties.setProperty("jdbc.username", "sa");
+    properties.setProperty("jdbc.password", "");
+    try (InputStream inputStream =
+        Resources.getResourceAsStream("mybatis-config-integration.xml")) {
+      SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(inputStream, properties);
+      factory
+          .getConfiguration()
+          .setEnvironment(new Environment("h2", new JdbcTransactionFactory(), dataSource));
+      return factory;
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
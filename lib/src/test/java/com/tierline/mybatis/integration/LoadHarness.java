@@ -0,0 +1,232 @@
+package com.tierline.mybatis.integration;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Multi-threaded load harness that measures the throughput, latency and allocation of a mapper
+ * operation.
+ *
+ * <p>Each thread first runs the warm-up iterations, so that the JIT compiles the mapping path, and
+ * then all threads start the measured iterations together. Latency is recorded per operation and
+ * allocation is read from {@link com.sun.management.ThreadMXBean} before and after the measured
+ * iterations of each thread, which counts what the mapper, MyBatis and the in-process database
+ * allocate on the calling thread.
+ *
+ * <p>When an operation fails on any thread, the barrier is broken so that no thread waits for it,
+ * the other threads are interrupted, and the first failure is thrown from {@link #run}.
+ */
+final class LoadHarness {
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+  /** 他のスレッドのウォームアップの完了を待つ時間の上限（秒）. */
+  private static final long BARRIER_TIMEOUT_SECONDS = 60;
+
+  private final int threads;
+  private final int warmupIterations;
+  private final int iterations;
+
+  /** One measured operation. */
+  @FunctionalInterface
+  interface Operation {
+    /**
+     * 操作を 1 回実行する.
+     *
+     * @return 処理した行数
+     * @throws Exception 操作に失敗した場合
+     */
+    int run() throws Exception;
+  }
+
+  /**
+   * Result of a load run.
+   *
+   * @param name 計測した操作の名前
+   * @param threads スレッド数
+   * @param operations 計測した操作の数
+   * @param rows 計測した操作が処理した行数
+   * @param elapsedNanos 全スレッドが計測を始めてから終えるまでの時間
+   * @param p50Nanos 操作の所要時間の中央値
+   * @param p99Nanos 操作の所要時間の 99 パーセンタイル
+   * @param allocatedBytes 計測した操作が全スレッドで割り当てたバイト数
+   */
+  record Report(
+      String name,
+      int threads,
+      long operations,
+      long rows,
+      long elapsedNanos,
+      long p50Nanos,
+      long p99Nanos,
+      long allocatedBytes) {
+
+    /** 1 秒あたりの操作の数を返す. */
+    double opsPerSecond() {
+      return operations * 1_000_000_000.0 / Math.max(1, elapsedNanos);
+    }
+
+    /** 操作あたりの割り当てバイト数を返す. */
+    double bytesPerOperation() {
+      return (double) allocatedBytes / Math.max(1, operations);
+    }
+
+    /** 行あたりの割り当てバイト数を返す. */
+    double bytesPerRow() {
+      return (double) allocatedBytes / Math.max(1, rows);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          Locale.ROOT,
+          "%s: %d threads, %d ops, %.0f ops/s, p50 %.1f us, p99 %.1f us,"
+              + " %.0f bytes/op, %.0f bytes/row",
+          name,
+          threads,
+          operations,
+          opsPerSecond(),
+          p50Nanos / 1000.0,
+          p99Nanos / 1000.0,
+          bytesPerOperation(),
+          bytesPerRow());
+    }
+  }
+
+  /** One thread's measurements. */
+  private record Sample(long[] latencies, long rows, long allocatedBytes) {}
+
+  /**
+   * コンストラクタ.
+   *
+   * @param threads スレッド数
+   * @param warmupIterations スレッドごとの計測しない操作の数
+   * @param iterations スレッドごとの計測する操作の数
+   */
+  LoadHarness(int threads, int warmupIterations, int iterations) {
+    if (threads < 1 || warmupIterations < 0 || iterations < 1) {
+      throw new IllegalArgumentException(
+          "Invalid load: " + threads + ", " + warmupIterations + ", " + iterations);
+    }
+    this.threads = threads;
+    this.warmupIterations = warmupIterations;
+    this.iterations = iterations;
+  }
+
+  /** スレッドごとの割り当てバイト数を計測できるかどうかを返す. */
+  static boolean isAllocationSupported() {
+    return THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+  }
+
+  /**
+   * 操作を全スレッドで実行して計測する.
+   *
+   * @param name 計測した操作の名前
+   * @param operation 操作
+   * @return 計測結果
+   * @throws Exception いずれかのスレッドで操作に失敗した場合
+   */
+  Report run(String name, Operation operation) throws Exception {
+    AtomicLong start = new AtomicLong();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    CyclicBarrier barrier = new CyclicBarrier(threads, () -> start.set(System.nanoTime()));
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CompletionService<Sample> completion = new ExecutorCompletionService<>(executor);
+    try {
+      for (int t = 0; t < threads; t++) {
+        completion.submit(() -> measure(operation, barrier, failure));
+      }
+      List<Sample> samples = new ArrayList<>(threads);
+      for (int t = 0; t < threads; t++) {
+        samples.add(get(completion.take(), failure));
+      }
+      long elapsed = System.nanoTime() - start.get();
+      return report(name, samples, elapsed);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Sample measure(
+      Operation operation, CyclicBarrier barrier, AtomicReference<Throwable> failure)
+      throws Exception {
+    try {
+      for (int i = 0; i < warmupIterations; i++) {
+        operation.run();
+      }
+      barrier.await(BARRIER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      long[] latencies = new long[iterations];
+      long rows = 0;
+      long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+      for (int i = 0; i < iterations; i++) {
+        long begin = System.nanoTime();
+        rows += operation.run();
+        latencies[i] = System.nanoTime() - begin;
+      }
+      long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+      return new Sample(latencies, rows, allocated);
+    } catch (Exception | Error e) {
+      // 最初の失敗を記録してから、バリアで待っている他のスレッドを解放する
+      failure.compareAndSet(null, e);
+      barrier.reset();
+      throw e;
+    }
+  }
+
+  private Report report(String name, List<Sample> samples, long elapsedNanos) {
+    long[] latencies = new long[threads * iterations];
+    long rows = 0;
+    long allocated = 0;
+    int offset = 0;
+    for (Sample sample : samples) {
+      System.arraycopy(sample.latencies(), 0, latencies, offset, iterations);
+      offset += iterations;
+      rows += sample.rows();
+      allocated += sample.allocatedBytes();
+    }
+    Arrays.sort(latencies);
+    return new Report(
+        name,
+        threads,
+        latencies.length,
+        rows,
+        elapsedNanos,
+        percentile(latencies, 0.50),
+        percentile(latencies, 0.99),
+        allocated);
+  }
+
+  /** 昇順に並べた値のパーセンタイルを返す. */
+  static long percentile(long[] sorted, double fraction) {
+    int index = (int) Math.ceil(sorted.length * fraction) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+  }
+
+  /** スレッドの結果を返す. 失敗した場合は最初に発生した例外をそのまま投げ直す. */
+  private static Sample get(Future<Sample> future, AtomicReference<Throwable> failure)
+      throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = failure.get() == null ? e.getCause() : failure.get();
+      if (cause instanceof Exception exception) {
+        throw exception;
+      } else if (cause instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.tierline.mybatis.integration;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/** Factory of {@link TestEntity} rows shared by the tests that run against H2. */
+public final class TestEntities {
+  /** Value of {@code created_at}, with microseconds so that timestamp precision is exercised. */
+  public static final OffsetDateTime CREATED_AT =
+      OffsetDateTime.of(2024, 1, 1, 10, 30, 0, 123_456_000, ZoneOffset.ofHours(9));
+
+  /** Value of {@code birth_date}. */
+  public static final LocalDate BIRTH_DATE = LocalDate.of(1990, 1, 15);
+
+  /** Value of {@code amount}. */
+  public static final BigDecimal AMOUNT = new BigDecimal("12.50");
+
+  private TestEntities() {}
+
+  /**
+   * Creates an entity whose columns all have values.
+   *
+   * @param id value of {@code id}
+   * @return entity
+   */
+  public static TestEntity entity(int id) {
+    return entity(id, true);
+  }
+
+  /**
+   * Creates an entity whose columns other than {@code id} have values derived from the id, or are
+   * all empty.
+   *
+   * <p>With values, {@code name} is {@code "Name " + id}, {@code age} is {@code 30 + id}, {@code
+   * salary} is {@code 1000 * id}, {@code rate} is {@code 0.5} and {@code active} is whether the id
+   * is odd; the other columns take the constants of this class.
+   *
+   * @param id value of {@code id}
+   * @param present {@code true} to set values, {@code false} for empty {@code Optional}s
+   * @return entity
+   */
+  public static TestEntity entity(int id, boolean present) {
+    TestEntity entity = new TestEntity();
+    entity.setId(id);
+    entity.setName(present ? Optional.of("Name " + id) : Optional.empty());
+    entity.setAge(present ? Optional.of(30 + id) : Optional.empty());
+    entity.setSalary(present ? Optional.of(1000L * id) : Optional.empty());
+    entity.setRate(present ? Optional.of(0.5) : Optional.empty());
+    entity.setAmount(present ? Optional.of(AMOUNT) : Optional.empty());
+    entity.setActive(present ? Optional.of(id % 2 == 1) : Optional.empty());
+    entity.setBirthDate(present ? Optional.of(BIRTH_DATE) : Optional.empty());
+    entity.setCreatedAt(present ? Optional.of(CREATED_AT) : Optional.empty());
+    return entity;
+  }
+}
@@ -1,12 +1,16 @@
 package com.tierline.mybatis.integration;
 
+import com.tierline.mybatis.registration.Column;
+import com.tierline.mybatis.registration.OptionalEntity;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.Optional;
 
 /** DTO for testing TypeHandlers with PostgreSQL. */
+@OptionalEntity(namespace = "com.tierline.mybatis.registration.GeneratedTestEntityMapper")
 public class TestEntity {
+  @Column(id = true)
   private Integer id;
   private Optional<String> name;
   private Optional<Integer> age;
@@ -1,5 +1,6 @@
 package com.tierline.mybatis.integration;
 
+import java.util.List;
 import org.apache.ibatis.annotations.Param;
 
 /** MyBatis Mapper for TestEntity. */
@@ -8,4 +9,8 @@ public interface TestEntityMapper {
   void insert(TestEntity entity);
 
   TestEntity findById(@Param("id") Integer id);
+
+  TestRecord findRecordById(@Param("id") Integer id);
+
+  List<TestEntity> findAll();
 }
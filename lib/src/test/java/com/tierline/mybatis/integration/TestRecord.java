@@ -0,0 +1,21 @@
+package com.tierline.mybatis.integration;
+
+import com.tierline.mybatis.registration.Column;
+import com.tierline.mybatis.registration.OptionalEntity;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+/** Immutable counterpart of {@link TestEntity} for testing record mapping. */
+@OptionalEntity(namespace = "com.tierline.mybatis.registration.GeneratedTestEntityMapper")
+public record TestRecord(
+    @Column(id = true) Integer id,
+    Optional<String> name,
+    Optional<Integer> age,
+    Optional<Long> salary,
+    Optional<Double> rate,
+    Optional<BigDecimal> amount,
+    Optional<Boolean> active,
+    Optional<LocalDate> birthDate,
+    Optional<OffsetDateTime> createdAt) {}
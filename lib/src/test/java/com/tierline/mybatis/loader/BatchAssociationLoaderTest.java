@@ -0,0 +1,142 @@
+package com.tierline.mybatis.loader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/** Test class for {@link BatchAssociationLoader}. */
+@DisplayName("BatchAssociationLoader のテスト")
+class BatchAssociationLoaderTest {
+
+  /** Parent row with an Optional foreign key. */
+  static class Order {
+    final Integer id;
+    final Optional<Integer> customerId;
+    Customer customer;
+    List<LineItem> lineItems;
+
+    Order(Integer id, Optional<Integer> customerId) {
+      this.id = id;
+      this.customerId = customerId;
+    }
+  }
+
+  record Customer(Integer id, String name) {}
+
+  record LineItem(Integer orderId, String product) {}
+
+  private SqlSession session;
+
+  @BeforeEach
+  void setUp() {
+    session = mock(SqlSession.class);
+  }
+
+  @Test
+  @DisplayName("1 対 1 の関連は、重複を除いたキーで 1 回だけ取得され、各親に設定される")
+  void testLoadAssociation() {
+    List<Order> orders =
+        List.of(
+            new Order(1, Optional.of(10)),
+            new Order(2, Optional.of(20)),
+            new Order(3, Optional.of(10)),
+            new Order(4, Optional.empty()),
+            new Order(5, Optional.of(30)));
+    when(session.selectList(eq("findCustomers"), any()))
+        .thenReturn(List.of(new Customer(10, "A"), new Customer(20, "B")));
+
+    new BatchAssociationLoader(session)
+        .<Order, Customer>loadAssociation(
+            orders,
+            order -> order.customerId,
+            "findCustomers",
+            Customer::id,
+            (order, customer) -> order.customer = customer);
+
+    ArgumentCaptor<Map<String, Object>> params = paramsCaptor();
+    verify(session, times(1)).selectList(eq("findCustomers"), params.capture());
+    assertEquals(List.of(10, 20, 30), params.getValue().get(BatchAssociationLoader.KEYS_KEY));
+    assertArrayEquals(
+        new Integer[] {10, 20, 30},
+        (Integer[]) params.getValue().get(BatchAssociationLoader.KEY_ARRAY_KEY));
+    assertEquals("A", orders.get(0).customer.name());
+    assertEquals("B", orders.get(1).customer.name());
+    assertEquals("A", orders.get(2).customer.name());
+    assertNull(orders.get(3).customer);
+    assertNull(orders.get(4).customer);
+  }
+
+  @Test
+  @DisplayName("1 対多の関連は親ごとにまとめられ、子がない親には空の一覧が設定される")
+  void testLoadCollection() {
+    List<Order> orders = List.of(new Order(1, Optional.empty()), new Order(2, Optional.empty()));
+    when(session.selectList(eq("findLineItems"), any()))
+        .thenReturn(
+            List.of(new LineItem(1, "apple"), new LineItem(1, "banana"), new LineItem(3, "x")));
+
+    new BatchAssociationLoader(session)
+        .<Order, LineItem>loadCollection(
+            orders,
+            order -> order.id,
+            "findLineItems",
+            LineItem::orderId,
+            (order, items) -> order.lineItems = items);
+
+    assertEquals(
+        List.of("apple", "banana"),
+        orders.get(0).lineItems.stream().map(LineItem::product).toList());
+    assertTrue(orders.get(1).lineItems.isEmpty());
+  }
+
+  @Test
+  @DisplayName("キー数がバッチサイズを超える場合、複数回に分けて取得される")
+  void testBatchSize() {
+    List<Order> orders = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      orders.add(new Order(i, Optional.of(i)));
+    }
+    when(session.selectList(anyString(), any())).thenReturn(List.of());
+
+    new BatchAssociationLoader(session, 2)
+        .<Order, Customer>loadAssociation(
+            orders, order -> order.customerId, "findCustomers", Customer::id, (o, c) -> {});
+
+    verify(session, times(3)).selectList(eq("findCustomers"), any());
+  }
+
+  @Test
+  @DisplayName("キーを持つ親がない場合、クエリは実行されない")
+  void testNoKeys() {
+    List<Order> orders = List.of(new Order(1, Optional.empty()));
+
+    new BatchAssociationLoader(session)
+        .<Order, Customer>loadAssociation(
+            orders, order -> order.customerId, "findCustomers", Customer::id, (o, c) -> {});
+
+    verify(session, never()).selectList(anyString(), any());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ArgumentCaptor<Map<String, Object>> paramsCaptor() {
+    return ArgumentCaptor.forClass(Map.class);
+  }
+}
@@ -0,0 +1,165 @@
+package com.tierline.mybatis.mapping;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntities;
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link ColumnarResultHandler}. */
+@DisplayName("ColumnarResultHandler のテスト")
+class ColumnarResultHandlerTest {
+
+  private static final String FIND_ALL =
+      "com.tierline.mybatis.integration.TestEntityMapper.findAll";
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() {
+    sqlSessionFactory = H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("columnar"));
+  }
+
+  @Test
+  @DisplayName("各列がプリミティブ配列に格納され、NULL の行はビットセットで取得できる")
+  void testColumnsAndNulls() {
+    sqlSessionFactory.getConfiguration().addInterceptor(new DirectResultHandlerInterceptor());
+    insert(TestEntities.entity(1, true));
+    insert(TestEntities.entity(2, false));
+    insert(TestEntities.entity(3, true));
+
+    ColumnarResultHandler columns =
+        new ColumnarResultHandler()
+            .intColumn("id")
+            .intColumn("AGE")
+            .longColumn("salary")
+            .doubleColumn("rate")
+            .booleanColumn("active")
+            .dateColumn("birth_date")
+            .timestampColumn("created_at")
+            .stringColumn("name");
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.select(FIND_ALL, columns);
+    }
+
+    assertEquals(3, columns.getRowCount());
+    assertArrayEquals(new int[] {1, 2, 3}, columns.getInts("id"));
+    assertArrayEquals(new int[] {31, 0, 33}, columns.getInts("age"));
+    assertArrayEquals(new long[] {1000L, 0L, 3000L}, columns.getLongs("salary"));
+    assertArrayEquals(new double[] {0.5, 0.0, 0.5}, columns.getDoubles("rate"), 0.001);
+    assertArrayEquals(new String[] {"Name 1", null, "Name 3"}, columns.getStrings("name"));
+    assertEquals(bits(0, 2), columns.getBooleans("active"));
+
+    long birthDate = TestEntities.BIRTH_DATE.toEpochDay();
+    assertArrayEquals(
+        new int[] {(int) birthDate, 0, (int) birthDate}, columns.getEpochDays("birth_date"));
+    long createdAt = ChronoUnit.MICROS.between(Instant.EPOCH, TestEntities.CREATED_AT.toInstant());
+    assertArrayEquals(new long[] {createdAt, 0L, createdAt}, columns.getEpochMicros("created_at"));
+
+    assertTrue(columns.getNulls("id").isEmpty());
+    for (String name :
+        new String[] {"age", "salary", "rate", "active", "birth_date", "created_at", "name"}) {
+      assertEquals(bits(1), columns.getNulls(name), name);
+    }
+  }
+
+  @Test
+  @DisplayName("初期容量を超える行数でも、すべての行が格納される")
+  void testGrowsBeyondInitialCapacity() {
+    sqlSessionFactory.getConfiguration().addInterceptor(new DirectResultHandlerInterceptor());
+    int count = 2500;
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      for (int i = 1; i <= count; i++) {
+        mapper.insert(TestEntities.entity(i, i % 3 != 0));
+      }
+      session.commit();
+    }
+
+    ColumnarResultHandler columns = new ColumnarResultHandler().intColumn("id").intColumn("age");
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.select(FIND_ALL, columns);
+    }
+
+    assertEquals(count, columns.getRowCount());
+    int[] ids = columns.getInts("id");
+    assertEquals(count, ids.length);
+    assertEquals(count, ids[count - 1]);
+    assertEquals(count / 3, columns.getNulls("age").cardinality());
+  }
+
+  @Test
+  @DisplayName("行を読み込んだ後に列を追加しようとした場合は例外となる")
+  void testAddAfterRead() {
+    sqlSessionFactory.getConfiguration().addInterceptor(new DirectResultHandlerInterceptor());
+    insert(TestEntities.entity(1, true));
+
+    ColumnarResultHandler columns = new ColumnarResultHandler().intColumn("id");
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.select(FIND_ALL, columns);
+    }
+
+    assertThrows(IllegalStateException.class, () -> columns.intColumn("age"));
+    assertArrayEquals(new int[] {1}, columns.getInts("id"));
+  }
+
+  @Test
+  @DisplayName("結果セットにない列を指定した場合は例外となる")
+  void testMissingColumn() {
+    sqlSessionFactory.getConfiguration().addInterceptor(new DirectResultHandlerInterceptor());
+    insert(TestEntities.entity(1, true));
+
+    ColumnarResultHandler columns = new ColumnarResultHandler().intColumn("unknown");
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      assertThrows(PersistenceException.class, () -> session.select(FIND_ALL, columns));
+    }
+  }
+
+  @Test
+  @DisplayName("登録していない列や型の異なる列を取得しようとした場合は例外となる")
+  void testUnknownAccessor() {
+    ColumnarResultHandler columns = new ColumnarResultHandler().intColumn("id");
+
+    assertThrows(IllegalArgumentException.class, () -> columns.getInts("age"));
+    assertThrows(IllegalArgumentException.class, () -> columns.getLongs("id"));
+  }
+
+  @Test
+  @DisplayName("インターセプタが登録されていない場合は例外となる")
+  void testWithoutInterceptor() {
+    insert(TestEntities.entity(1, true));
+
+    ColumnarResultHandler columns = new ColumnarResultHandler().intColumn("id");
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      assertThrows(PersistenceException.class, () -> session.select(FIND_ALL, columns));
+    }
+  }
+
+  private void insert(TestEntity entity) {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(TestEntityMapper.class).insert(entity);
+      session.commit();
+    }
+  }
+
+  private static BitSet bits(int... indexes) {
+    BitSet bits = new BitSet();
+    for (int index : indexes) {
+      bits.set(index);
+    }
+    return bits;
+  }
+}
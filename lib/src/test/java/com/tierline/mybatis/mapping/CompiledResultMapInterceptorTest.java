@@ -0,0 +1,250 @@
+package com.tierline.mybatis.mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import com.tierline.mybatis.integration.TestRecord;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link CompiledResultMapInterceptor}. */
+@DisplayName("CompiledResultMapInterceptor のテスト")
+class CompiledResultMapInterceptorTest {
+
+  private static final String RESULT_MAP_ID =
+      "com.tierline.mybatis.integration.TestEntityMapper.testEntityResultMap";
+  private static final String RECORD_RESULT_MAP_ID =
+      "com.tierline.mybatis.integration.TestEntityMapper.testRecordResultMap";
+
+  private SqlSessionFactory sqlSessionFactory;
+  private CompiledResultMapInterceptor interceptor;
+
+  @BeforeEach
+  void setUp() {
+    sqlSessionFactory = H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("compiled"));
+    interceptor = new CompiledResultMapInterceptor();
+    sqlSessionFactory.getConfiguration().addInterceptor(interceptor);
+  }
+
+  @Test
+  @DisplayName("登録した結果マップは、コンパイルされたマッパーで Optional の値が正しく取得できる")
+  void testCompiledMappingWithAllValues() {
+    interceptor.register(RESULT_MAP_ID);
+    TestEntity entity = new TestEntity();
+    entity.setId(1);
+    entity.setName(Optional.of("John Doe"));
+    entity.setAge(Optional.of(30));
+    entity.setSalary(Optional.of(50000L));
+    entity.setRate(Optional.of(0.15));
+    entity.setAmount(Optional.of(new BigDecimal("1234.56")));
+    entity.setActive(Optional.of(true));
+    entity.setBirthDate(Optional.of(LocalDate.of(1990, 1, 15)));
+    entity.setCreatedAt(
+        Optional.of(OffsetDateTime.of(2024, 1, 1, 10, 30, 0, 0, ZoneOffset.ofHours(9))));
+
+    TestEntity result = insertAndFind(entity);
+
+    assertTrue(interceptor.isCompiled(RESULT_MAP_ID, sqlSessionFactory.getConfiguration()));
+    assertEquals(1, result.getId());
+    assertEquals(Optional.of("John Doe"), result.getName());
+    assertEquals(Optional.of(30), result.getAge());
+    assertEquals(Optional.of(50000L), result.getSalary());
+    assertEquals(0.15, result.getRate().orElseThrow(), 0.001);
+    assertEquals(Optional.of(new BigDecimal("1234.56")), result.getAmount());
+    assertEquals(Optional.of(true), result.getActive());
+    assertEquals(Optional.of(LocalDate.of(1990, 1, 15)), result.getBirthDate());
+    assertEquals(
+        entity.getCreatedAt().orElseThrow().toInstant(),
+        result.getCreatedAt().orElseThrow().toInstant());
+  }
+
+  @Test
+  @DisplayName("NULL の列は、コンパイルされたマッパーでも Optional.empty() として取得できる")
+  void testCompiledMappingWithEmptyOptionals() {
+    interceptor.register(RESULT_MAP_ID);
+    TestEntity entity = new TestEntity();
+    entity.setId(2);
+    entity.setName(Optional.empty());
+    entity.setAge(Optional.empty());
+    entity.setSalary(Optional.empty());
+    entity.setRate(Optional.empty());
+    entity.setAmount(Optional.empty());
+    entity.setActive(Optional.empty());
+    entity.setBirthDate(Optional.empty());
+    entity.setCreatedAt(Optional.empty());
+
+    TestEntity result = insertAndFind(entity);
+
+    assertTrue(interceptor.isCompiled(RESULT_MAP_ID, sqlSessionFactory.getConfiguration()));
+    assertEquals(2, result.getId());
+    assertFalse(result.getName().isPresent());
+    assertFalse(result.getAge().isPresent());
+    assertFalse(result.getAmount().isPresent());
+    assertFalse(result.getBirthDate().isPresent());
+    assertFalse(result.getCreatedAt().isPresent());
+  }
+
+  @Test
+  @DisplayName("登録していない結果マップは、標準の処理でマッピングされる")
+  void testUnregisteredResultMapUsesStandardPath() {
+    TestEntity entity = new TestEntity();
+    entity.setId(3);
+    entity.setName(Optional.of("Standard"));
+    entity.setAge(Optional.empty());
+    entity.setSalary(Optional.empty());
+    entity.setRate(Optional.empty());
+    entity.setAmount(Optional.empty());
+    entity.setActive(Optional.empty());
+    entity.setBirthDate(Optional.empty());
+    entity.setCreatedAt(Optional.empty());
+
+    TestEntity result = insertAndFind(entity);
+
+    assertFalse(interceptor.isCompiled(RESULT_MAP_ID, sqlSessionFactory.getConfiguration()));
+    assertEquals(Optional.of("Standard"), result.getName());
+  }
+
+  @Test
+  @DisplayName("登録したレコードの結果マップは、正規コンストラクタで生成され、標準の処理と同じ値になる")
+  void testCompiledRecordMapping() {
+    TestEntity entity = new TestEntity();
+    entity.setId(4);
+    entity.setName(Optional.of("Record"));
+    entity.setAge(Optional.of(40));
+    entity.setSalary(Optional.empty());
+    entity.setRate(Optional.of(0.5));
+    entity.setAmount(Optional.of(new BigDecimal("10.00")));
+    entity.setActive(Optional.of(false));
+    entity.setBirthDate(Optional.of(LocalDate.of(1985, 5, 5)));
+    entity.setCreatedAt(
+        Optional.of(OffsetDateTime.of(2024, 2, 1, 9, 0, 0, 0, ZoneOffset.ofHours(9))));
+    insert(entity);
+
+    TestRecord standard = findRecord(4);
+    interceptor.register(RECORD_RESULT_MAP_ID);
+    TestRecord compiled = findRecord(4);
+
+    assertTrue(
+        interceptor.isCompiled(RECORD_RESULT_MAP_ID, sqlSessionFactory.getConfiguration()));
+    assertEquals(standard, compiled);
+    assertEquals(4, compiled.id());
+    assertEquals(Optional.of("Record"), compiled.name());
+    assertFalse(compiled.salary().isPresent());
+    assertEquals(Optional.of(LocalDate.of(1985, 5, 5)), compiled.birthDate());
+  }
+
+  @Test
+  @DisplayName("列の対応付けは結果セットの列名の並びごとにキャッシュされる")
+  void testResolvedColumnsAreCached() throws SQLException {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    CompiledResultMap compiled =
+        CompiledResultMap.compile(configuration.getResultMap(RESULT_MAP_ID), configuration);
+    assertNotNull(compiled);
+
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Connection connection = session.getConnection();
+      int[] first = resolve(compiled, connection, "SELECT * FROM test_entity");
+      int[] second = resolve(compiled, connection, "SELECT * FROM test_entity");
+      int[] narrow = resolve(compiled, connection, "SELECT id, name FROM test_entity");
+
+      assertSame(first, second);
+      assertNotSame(first, narrow);
+      assertEquals(1, narrow[0]);
+      assertEquals(CompiledResultMap.MISSING, narrow[2]);
+    }
+  }
+
+  @Test
+  @DisplayName("すべての列が NULL の行は、returnInstanceForEmptyRow が有効な場合だけ空のレコードになる")
+  void testEmptyRecordRow() throws SQLException {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    ResultMapping id =
+        new ResultMapping.Builder(configuration, "id", "id", Integer.class)
+            .flags(List.of(ResultFlag.CONSTRUCTOR, ResultFlag.ID))
+            .typeHandler(new IntegerTypeHandler())
+            .build();
+    ResultMap resultMap =
+        new ResultMap.Builder(configuration, "emptyRecord", TestRecord.class, List.of(id))
+            .build();
+    CompiledResultMap compiled = CompiledResultMap.compile(resultMap, configuration);
+    assertNotNull(compiled);
+
+    configuration.setReturnInstanceForEmptyRow(true);
+    List<Object> instances = mapEmptyRow(compiled);
+    configuration.setReturnInstanceForEmptyRow(false);
+    List<Object> nulls = mapEmptyRow(compiled);
+
+    TestRecord empty = (TestRecord) instances.get(0);
+    assertNull(empty.id());
+    assertEquals(Optional.empty(), empty.name());
+    assertEquals(Optional.empty(), empty.createdAt());
+    assertEquals(1, nulls.size());
+    assertNull(nulls.get(0));
+  }
+
+  private List<Object> mapEmptyRow(CompiledResultMap compiled) throws SQLException {
+    try (SqlSession session = sqlSessionFactory.openSession();
+        Statement statement = session.getConnection().createStatement();
+        ResultSet rs = statement.executeQuery("SELECT CAST(NULL AS INTEGER) AS id")) {
+      return compiled.mapAll(rs, compiled.resolveColumns(rs));
+    }
+  }
+
+  private static int[] resolve(CompiledResultMap compiled, Connection connection, String sql)
+      throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery(sql)) {
+      return compiled.resolveColumns(rs);
+    }
+  }
+
+  private void insert(TestEntity entity) {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(TestEntityMapper.class).insert(entity);
+      session.commit();
+    }
+  }
+
+  private TestRecord findRecord(Integer id) {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestRecord result = session.getMapper(TestEntityMapper.class).findRecordById(id);
+      assertNotNull(result);
+      return result;
+    }
+  }
+
+  private TestEntity insertAndFind(TestEntity entity) {
+    insert(entity);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntity result = session.getMapper(TestEntityMapper.class).findById(entity.getId());
+      assertNotNull(result);
+      return result;
+    }
+  }
+}
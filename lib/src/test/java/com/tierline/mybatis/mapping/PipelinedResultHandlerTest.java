@@ -0,0 +1,162 @@
+package com.tierline.mybatis.mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntities;
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import com.tierline.mybatis.integration.TestRecord;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link PipelinedResultHandler}. */
+@DisplayName("PipelinedResultHandler のテスト")
+class PipelinedResultHandlerTest {
+
+  private static final String NAMESPACE = "com.tierline.mybatis.integration.TestEntityMapper";
+  private static final String FIND_ALL = NAMESPACE + ".findAll";
+  private static final String ENTITY_MAP = NAMESPACE + ".testEntityResultMap";
+  private static final String RECORD_MAP = NAMESPACE + ".testRecordResultMap";
+  private static final int COUNT = 1000;
+
+  private SqlSessionFactory sqlSessionFactory;
+  private Configuration configuration;
+
+  @BeforeEach
+  void setUp() {
+    sqlSessionFactory = H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("pipelined"));
+    configuration = sqlSessionFactory.getConfiguration();
+    // 先頭行が空の Optional の行になるように、偶数の ID から登録する
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      for (int id = 2; id < COUNT + 2; id++) {
+        mapper.insert(TestEntities.entity(id, id % 3 != 2));
+      }
+      session.commit();
+    }
+  }
+
+  @Test
+  @DisplayName("行の順に、標準のマッピングと同じ値のオブジェクトが渡される")
+  void testOrdered() {
+    configuration.addInterceptor(new DirectResultHandlerInterceptor());
+    List<TestEntity> expected;
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      expected = session.selectList(FIND_ALL);
+    }
+
+    List<TestEntity> results = new ArrayList<>();
+    PipelinedResultHandler<TestEntity> handler =
+        new PipelinedResultHandler<>(configuration, ENTITY_MAP, TestEntity.class, results::add)
+            .chunkSize(64)
+            .maxPendingChunks(3);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.select(FIND_ALL, handler);
+    }
+
+    assertEquals(COUNT, handler.getRowCount());
+    assertEquals(COUNT, results.size());
+    for (int i = 0; i < COUNT; i++) {
+      TestEntity actual = results.get(i);
+      assertEquals(expected.get(i).getId(), actual.getId());
+      assertEquals(expected.get(i).getName(), actual.getName());
+      assertEquals(expected.get(i).getAge(), actual.getAge());
+      assertEquals(expected.get(i).getSalary(), actual.getSalary());
+      assertEquals(expected.get(i).getRate(), actual.getRate());
+      assertEquals(expected.get(i).getAmount(), actual.getAmount());
+      assertEquals(expected.get(i).getActive(), actual.getActive());
+      assertEquals(expected.get(i).getBirthDate(), actual.getBirthDate());
+      assertEquals(
+          expected.get(i).getCreatedAt().map(OffsetDateTime::toInstant),
+          actual.getCreatedAt().map(OffsetDateTime::toInstant));
+    }
+  }
+
+  @Test
+  @DisplayName("順序を指定しない場合も、すべての行が実行したスレッドで渡される")
+  void testUnorderedOnVirtualThreads() {
+    configuration.addInterceptor(new DirectResultHandlerInterceptor());
+    Thread caller = Thread.currentThread();
+    Set<Integer> ids = new HashSet<>();
+    Set<Thread> threads = new HashSet<>();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        SqlSession session = sqlSessionFactory.openSession()) {
+      PipelinedResultHandler<TestRecord> handler =
+          new PipelinedResultHandler<>(
+                  configuration,
+                  RECORD_MAP,
+                  TestRecord.class,
+                  row -> {
+                    ids.add(row.id());
+                    threads.add(Thread.currentThread());
+                  })
+              .executor(executor)
+              .chunkSize(50)
+              .ordered(false);
+      session.select(FIND_ALL, handler);
+    }
+
+    assertEquals(COUNT, ids.size());
+    assertEquals(Set.of(caller), threads);
+  }
+
+  @Test
+  @DisplayName("受け取る処理で発生した例外はそのまま呼び出し元に伝わる")
+  void testConsumerFailure() {
+    configuration.addInterceptor(new DirectResultHandlerInterceptor());
+    PipelinedResultHandler<TestEntity> handler =
+        new PipelinedResultHandler<>(
+                configuration,
+                ENTITY_MAP,
+                TestEntity.class,
+                entity -> {
+                  throw new IllegalStateException("consumer failed");
+                })
+            .chunkSize(10);
+
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      PersistenceException e =
+          assertThrows(PersistenceException.class, () -> session.select(FIND_ALL, handler));
+      assertEquals(IllegalStateException.class, e.getCause().getClass());
+    }
+  }
+
+  @Test
+  @DisplayName("型の異なる結果マップや不正な設定は例外となる")
+  void testInvalidSettings() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new PipelinedResultHandler<>(configuration, ENTITY_MAP, TestRecord.class, r -> {}));
+    PipelinedResultHandler<TestEntity> handler =
+        new PipelinedResultHandler<>(configuration, ENTITY_MAP, TestEntity.class, e -> {});
+
+    assertThrows(IllegalArgumentException.class, () -> handler.chunkSize(0));
+    assertThrows(IllegalArgumentException.class, () -> handler.maxPendingChunks(0));
+  }
+
+  @Test
+  @DisplayName("インターセプタが登録されていない場合は例外となる")
+  void testWithoutInterceptor() {
+    PipelinedResultHandler<TestEntity> handler =
+        new PipelinedResultHandler<>(configuration, ENTITY_MAP, TestEntity.class, e -> {});
+
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      assertThrows(PersistenceException.class, () -> session.select(FIND_ALL, handler));
+    }
+  }
+}
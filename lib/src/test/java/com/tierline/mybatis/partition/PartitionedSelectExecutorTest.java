@@ -0,0 +1,116 @@
+package com.tierline.mybatis.partition;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntities;
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link PartitionedSelectExecutor}. */
+@DisplayName("PartitionedSelectExecutor のテスト")
+class PartitionedSelectExecutorTest {
+
+  private static final String STATEMENT = "findAllPartitioned";
+  private static final String RANGE_STATEMENT =
+      "com.tierline.mybatis.integration.TestEntityMapper.findRangePartition";
+
+  private SqlSessionFactory sqlSessionFactory;
+  private SqlSession session;
+
+  @BeforeEach
+  void setUp() {
+    sqlSessionFactory = mock(SqlSessionFactory.class);
+    session = mock(SqlSession.class);
+    when(sqlSessionFactory.openSession()).thenReturn(session);
+    // パーティション番号を 10 倍した値と、その次の値を返す
+    when(session.selectList(eq(STATEMENT), any()))
+        .thenAnswer(
+            invocation -> {
+              Map<?, ?> params = invocation.getArgument(1);
+              Partition partition =
+                  (Partition) params.get(PartitionedSelectExecutor.PARTITION_KEY);
+              return List.of(partition.index() * 10, partition.index() * 10 + 1);
+            });
+  }
+
+  @Test
+  @DisplayName("ordered が true の場合、パーティション順に結果が結合される")
+  void testSelectOrdered() {
+    try (PartitionedSelectExecutor executor = new PartitionedSelectExecutor(sqlSessionFactory);
+        Stream<Integer> stream = executor.select(STATEMENT, "p", Partition.hash(4), true)) {
+      List<Integer> result = stream.toList();
+
+      assertEquals(List.of(0, 1, 10, 11, 20, 21, 30, 31), result);
+      verify(sqlSessionFactory, times(4)).openSession();
+      verify(session, times(4)).close();
+    }
+  }
+
+  @Test
+  @DisplayName("ordered が false の場合、すべてのパーティションの結果が返される")
+  void testSelectUnordered() {
+    try (PartitionedSelectExecutor executor = new PartitionedSelectExecutor(sqlSessionFactory);
+        Stream<Integer> stream = executor.select(STATEMENT, "p", Partition.hash(4), false)) {
+      Set<Integer> result = stream.collect(Collectors.toSet());
+
+      assertEquals(Set.of(0, 1, 10, 11, 20, 21, 30, 31), result);
+    }
+  }
+
+  @Test
+  @DisplayName("範囲分割では境界値から両端が開いたパーティションが生成される")
+  void testRangePartitions() {
+    Partition[] partitions = Partition.range(100, 200);
+
+    assertEquals(3, partitions.length);
+    assertNull(partitions[0].lowerBound());
+    assertEquals(100, partitions[0].upperBound());
+    assertEquals(100, partitions[1].lowerBound());
+    assertEquals(200, partitions[1].upperBound());
+    assertEquals(200, partitions[2].lowerBound());
+    assertNull(partitions[2].upperBound());
+    assertArrayEquals(
+        new int[] {0, 1, 2}, Stream.of(partitions).mapToInt(Partition::index).toArray());
+  }
+
+  @Test
+  @DisplayName("範囲分割の select では両端のパーティションを含むすべての行が返される")
+  void testSelectRangeOnH2() {
+    SqlSessionFactory h2 = H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("partition"));
+    try (SqlSession h2Session = h2.openSession()) {
+      TestEntityMapper mapper = h2Session.getMapper(TestEntityMapper.class);
+      for (int id = 1; id <= 10; id++) {
+        mapper.insert(TestEntities.entity(id));
+      }
+      h2Session.commit();
+    }
+
+    try (PartitionedSelectExecutor executor = new PartitionedSelectExecutor(h2);
+        Stream<TestEntity> stream =
+            executor.select(RANGE_STATEMENT, null, Partition.range(4, 8), true)) {
+      List<Integer> ids = stream.map(TestEntity::getId).toList();
+
+      assertEquals(IntStream.rangeClosed(1, 10).boxed().toList(), ids);
+    }
+  }
+}
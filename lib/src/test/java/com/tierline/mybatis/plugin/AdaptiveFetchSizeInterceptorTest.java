@@ -0,0 +1,161 @@
+package com.tierline.mybatis.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntities;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link AdaptiveFetchSizeInterceptor}. */
+@DisplayName("AdaptiveFetchSizeInterceptor のテスト")
+class AdaptiveFetchSizeInterceptorTest {
+
+  private static final String FIND_ALL =
+      "com.tierline.mybatis.integration.TestEntityMapper.findAll";
+
+  /** 実行時の文のフェッチサイズを記録するプラグイン. */
+  @Intercepts({
+    @Signature(
+        type = StatementHandler.class,
+        method = "query",
+        args = {Statement.class, ResultHandler.class})
+  })
+  static class FetchSizeRecorder implements Interceptor {
+    final List<Integer> fetchSizes = new ArrayList<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      fetchSizes.add(((Statement) invocation.getArgs()[0]).getFetchSize());
+      return invocation.proceed();
+    }
+  }
+
+  private SqlSessionFactory sqlSessionFactory;
+  private AdaptiveFetchSizeInterceptor interceptor;
+  private FetchSizeRecorder recorder;
+
+  @BeforeEach
+  void setUp() {
+    sqlSessionFactory = H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("fetch"));
+    interceptor = new AdaptiveFetchSizeInterceptor();
+    recorder = new FetchSizeRecorder();
+    sqlSessionFactory.getConfiguration().addInterceptor(interceptor);
+    sqlSessionFactory.getConfiguration().addInterceptor(recorder);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      for (int i = 1; i <= 50; i++) {
+        mapper.insert(TestEntities.entity(i));
+      }
+      session.commit();
+    }
+  }
+
+  @Test
+  @DisplayName("初回は初期値が、2 回目以降は学習した行数に余裕を持たせたフェッチサイズが設定される")
+  void testLearnsFromPreviousExecution() {
+    findAll();
+    findAll();
+
+    assertEquals(
+        List.of(AdaptiveFetchSizeInterceptor.DEFAULT_INITIAL_FETCH_SIZE, 101),
+        recorder.fetchSizes);
+  }
+
+  @Test
+  @DisplayName("メモリの上限を超える場合は、上限に収まる行数に制限される")
+  void testMemoryBudget() {
+    interceptor.setMemoryBudget(1000);
+    findAll();
+
+    int fetchSize = interceptor.fetchSize(FIND_ALL, sqlSessionFactory.getConfiguration());
+
+    assertTrue(fetchSize >= 1 && fetchSize < 10, "fetchSize: " + fetchSize);
+  }
+
+  @Test
+  @DisplayName("統計は移動平均で更新され、下限と上限の範囲に収まる")
+  void testBounds() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    interceptor.setFetchSizes(100, 20, 500);
+
+    interceptor.learn("small", 0, 0);
+    interceptor.learn("large", 10_000, 1_000_000);
+    interceptor.learn("large", 0, 0);
+
+    assertEquals(20, interceptor.fetchSize("small", configuration));
+    assertEquals(500, interceptor.fetchSize("large", configuration));
+    assertEquals(100, interceptor.fetchSize("unknown", configuration));
+  }
+
+  @Test
+  @DisplayName("最初の実行は毎回、その後は一定の間隔で計測される")
+  void testSampling() {
+    List<Integer> metered = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      if (interceptor.shouldMeter(FIND_ALL)) {
+        metered.add(i);
+      }
+    }
+
+    assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 16, 32), metered);
+    assertTrue(interceptor.shouldMeter("other"));
+  }
+
+  @Test
+  @DisplayName("固定した文は、学習の結果にかかわらず固定値が設定される")
+  void testPinnedStatement() {
+    Properties properties = new Properties();
+    properties.setProperty("pinned", FIND_ALL + ":7");
+    interceptor.setProperties(properties);
+
+    findAll();
+    findAll();
+
+    assertEquals(List.of(7, 7), recorder.fetchSizes);
+  }
+
+  @Test
+  @DisplayName("MyBatis の既定のフェッチサイズがある場合、初回はその値のままになる")
+  void testDefaultFetchSize() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setDefaultFetchSize(250);
+
+    assertNull(interceptor.fetchSize(FIND_ALL, configuration));
+    findAll();
+
+    assertEquals(List.of(250), recorder.fetchSizes);
+  }
+
+  @Test
+  @DisplayName("不正な設定値は例外となる")
+  void testInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> interceptor.setMemoryBudget(0));
+    assertThrows(IllegalArgumentException.class, () -> interceptor.setFetchSizes(10, 50, 20));
+    assertThrows(IllegalArgumentException.class, () -> interceptor.pin(FIND_ALL, -1));
+  }
+
+  private void findAll() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      assertEquals(50, session.getMapper(TestEntityMapper.class).findAll().size());
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.tierline.mybatis.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntities;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link PluginTargets}. */
+@DisplayName("PluginTargets のテスト")
+class PluginTargetsTest {
+
+  private static final String FIND_ALL =
+      "com.tierline.mybatis.integration.TestEntityMapper.findAll";
+
+  @Test
+  @DisplayName("複数のプラグインのプロキシを取り除き、元のオブジェクトを返す")
+  void testUnwrapNestedPlugins() {
+    ResultSetHandler target = mock(ResultSetHandler.class);
+    Object wrapped =
+        Plugin.wrap(
+            Plugin.wrap(target, new ResultSizeGuardInterceptor()),
+            new AdaptiveFetchSizeInterceptor());
+
+    assertSame(target, PluginTargets.unwrap(wrapped));
+    assertSame(target, PluginTargets.unwrap(target));
+  }
+
+  @Test
+  @DisplayName("ResultSetHandler に重ねたプラグインが、それぞれ文を読み取れる")
+  void testStackedPlugins() {
+    SqlSessionFactory sqlSessionFactory =
+        H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("stacked"));
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    AdaptiveFetchSizeInterceptor adaptive = new AdaptiveFetchSizeInterceptor();
+    adaptive.setFetchSizes(1000, 1, 1000);
+    ResultSizeGuardInterceptor guard = new ResultSizeGuardInterceptor();
+    guard.setDefaultLimit(new ResultSizeGuardInterceptor.Limit(100, 0));
+    configuration.addInterceptor(adaptive);
+    configuration.addInterceptor(guard);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insert(TestEntities.entity(i));
+      }
+      session.commit();
+
+      assertEquals(3, mapper.findAll().size());
+    }
+
+    // 内側のプラグインも文の ID を読み取り、3 行の結果を記録している
+    assertEquals(7, adaptive.fetchSize(FIND_ALL, configuration));
+  }
+}
@@ -0,0 +1,193 @@
+package com.tierline.mybatis.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntities;
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link ResultSizeGuardInterceptor}. */
+@DisplayName("ResultSizeGuardInterceptor のテスト")
+class ResultSizeGuardInterceptorTest {
+
+  private static final String FIND_ALL =
+      "com.tierline.mybatis.integration.TestEntityMapper.findAll";
+
+  /** handleResultSets に渡された文が何重に計測のプロキシで包まれているかを記録するプラグイン. */
+  @Intercepts({
+    @Signature(
+        type = ResultSetHandler.class,
+        method = "handleResultSets",
+        args = {Statement.class})
+  })
+  static class ProxyDepthRecorder implements Interceptor {
+    final List<Integer> depths = new ArrayList<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      Object target = invocation.getArgs()[0];
+      int depth = 0;
+      while (Proxy.isProxyClass(target.getClass())
+          && Proxy.getInvocationHandler(target)
+              instanceof ResultSetMeter.MeteringHandler handler) {
+        depth++;
+        target = handler.target();
+      }
+      depths.add(depth);
+      return invocation.proceed();
+    }
+  }
+
+  private SqlSessionFactory sqlSessionFactory;
+  private ResultSizeGuardInterceptor interceptor;
+
+  @BeforeEach
+  void setUp() {
+    sqlSessionFactory = H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("guard"));
+    interceptor = new ResultSizeGuardInterceptor();
+    sqlSessionFactory.getConfiguration().addInterceptor(interceptor);
+    insertEntities(sqlSessionFactory);
+  }
+
+  @Test
+  @DisplayName("行数の上限を超えると、文の ID とパラメータを持つ例外となる")
+  void testMaxRows() {
+    interceptor.setDefaultLimit(new ResultSizeGuardInterceptor.Limit(10, 0));
+
+    PersistenceException e;
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      e = assertThrows(PersistenceException.class, () -> session.selectList(FIND_ALL, 42));
+    }
+
+    ResultSizeExceededException cause =
+        assertInstanceOf(ResultSizeExceededException.class, e.getCause());
+    assertEquals(FIND_ALL, cause.getStatementId());
+    assertEquals(42, cause.getParameterObject());
+    assertEquals(11, cause.getRows());
+    assertTrue(cause.getMessage().contains(FIND_ALL));
+  }
+
+  @Test
+  @DisplayName("推定バイト数の上限を超えると例外となる")
+  void testMaxBytes() {
+    interceptor.setDefaultLimit(new ResultSizeGuardInterceptor.Limit(0, 2000));
+
+    PersistenceException e = assertThrows(PersistenceException.class, this::findAll);
+
+    ResultSizeExceededException cause =
+        assertInstanceOf(ResultSizeExceededException.class, e.getCause());
+    assertTrue(cause.getBytes() > 2000);
+    assertTrue(cause.getRows() < 50);
+  }
+
+  @Test
+  @DisplayName("通知先がある場合は一度だけ通知され、問い合わせは続行される")
+  void testNotifier() {
+    List<ResultSizeExceededException> exceeded = new ArrayList<>();
+    interceptor.setDefaultLimit(new ResultSizeGuardInterceptor.Limit(10, 0));
+    interceptor.setNotifier(exceeded::add);
+
+    assertEquals(50, findAll().size());
+
+    assertEquals(1, exceeded.size());
+    assertEquals(FIND_ALL, exceeded.get(0).getStatementId());
+  }
+
+  @Test
+  @DisplayName("文ごとの上限が既定の上限より優先される")
+  void testStatementLimit() {
+    Properties properties = new Properties();
+    properties.setProperty("maxRows", "10");
+    properties.setProperty("limits", FIND_ALL + ":100:0");
+    interceptor.setProperties(properties);
+
+    assertEquals(50, findAll().size());
+    interceptor.limit(FIND_ALL, new ResultSizeGuardInterceptor.Limit(5, 0));
+    assertThrows(PersistenceException.class, this::findAll);
+  }
+
+  @Test
+  @DisplayName("AdaptiveFetchSizeInterceptor と併用すると計測が共有され、値は一度だけプロキシを通る")
+  void testSharedMeter() {
+    SqlSessionFactory shared =
+        H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("guard-shared"));
+    insertEntities(shared);
+    Configuration configuration = shared.getConfiguration();
+    ProxyDepthRecorder recorder = new ProxyDepthRecorder();
+    AdaptiveFetchSizeInterceptor adaptive = new AdaptiveFetchSizeInterceptor();
+    configuration.addInterceptor(recorder);
+    configuration.addInterceptor(interceptor);
+    configuration.addInterceptor(adaptive);
+    List<ResultSizeExceededException> exceeded = new ArrayList<>();
+    interceptor.setDefaultLimit(new ResultSizeGuardInterceptor.Limit(10, 0));
+    interceptor.setNotifier(exceeded::add);
+
+    try (SqlSession session = shared.openSession()) {
+      assertEquals(50, session.getMapper(TestEntityMapper.class).findAll().size());
+    }
+
+    assertEquals(List.of(1), recorder.depths);
+    assertEquals(1, exceeded.size());
+    assertEquals(101, adaptive.fetchSize(FIND_ALL, configuration));
+  }
+
+  @Test
+  @DisplayName("ResultHandler で読み込む問い合わせは制限されない")
+  void testResultHandlerIsNotGuarded() {
+    interceptor.setDefaultLimit(new ResultSizeGuardInterceptor.Limit(10, 0));
+    List<Object> rows = new ArrayList<>();
+
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.select(FIND_ALL, context -> rows.add(context.getResultObject()));
+    }
+
+    assertEquals(50, rows.size());
+  }
+
+  @Test
+  @DisplayName("不正な設定値は例外となる")
+  void testInvalidSettings() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new ResultSizeGuardInterceptor.Limit(-1, 0));
+    Properties properties = new Properties();
+    properties.setProperty("limits", FIND_ALL + ":100");
+    assertThrows(IllegalArgumentException.class, () -> interceptor.setProperties(properties));
+  }
+
+  private List<TestEntity> findAll() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      return session.getMapper(TestEntityMapper.class).findAll();
+    }
+  }
+
+  private static void insertEntities(SqlSessionFactory factory) {
+    try (SqlSession session = factory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      for (int i = 1; i <= 50; i++) {
+        mapper.insert(TestEntities.entity(i));
+      }
+      session.commit();
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.tierline.mybatis.registration;
+
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestRecord;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.ResultMap;
+import org.apache.ibatis.annotations.Select;
+
+/** Mapper that uses the result maps generated from {@link TestEntity} and {@link TestRecord}. */
+public interface GeneratedTestEntityMapper {
+
+  @Insert(
+      "INSERT INTO test_entity"
+          + " (id, name, age, salary, rate, amount, active, birth_date, created_at)"
+          + " VALUES (#{id}, #{name, jdbcType=VARCHAR}, #{age, jdbcType=INTEGER},"
+          + " #{salary, jdbcType=BIGINT}, #{rate, jdbcType=DOUBLE}, #{amount, jdbcType=NUMERIC},"
+          + " #{active, jdbcType=BIT}, #{birthDate, jdbcType=DATE},"
+          + " #{createdAt, jdbcType=TIMESTAMP})")
+  void insert(TestEntity entity);
+
+  @Select("SELECT * FROM test_entity WHERE id = #{id}")
+  @ResultMap("testEntityResultMap")
+  TestEntity findById(Integer id);
+
+  @Select("SELECT * FROM test_entity WHERE id = #{id}")
+  @ResultMap("testRecordResultMap")
+  TestRecord findRecordById(Integer id);
+}
@@ -0,0 +1,122 @@
+package com.tierline.mybatis.registration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestRecord;
+import com.tierline.mybatis.typehandler.OptionalTimestampTypeHandler;
+import com.tierline.mybatis.typehandler.OptionalTypeHandler;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link MappingRegistrations} and the generated registrations. */
+@DisplayName("MappingRegistrations のテスト")
+class MappingRegistrationsTest {
+
+  private static final String NAMESPACE = GeneratedTestEntityMapper.class.getName();
+  private static final OffsetDateTime CREATED_AT =
+      OffsetDateTime.of(2024, 1, 1, 10, 30, 0, 0, ZoneOffset.ofHours(9));
+
+  private Configuration configuration;
+
+  @BeforeEach
+  void setUp() {
+    configuration =
+        new Configuration(
+            new Environment(
+                "h2", new JdbcTransactionFactory(), H2TestDatabase.create("registration")));
+  }
+
+  @Test
+  @DisplayName("生成された登録処理で、XML なしに結果マップと TypeHandler が登録される")
+  void testRegisterAll() {
+    assertEquals(2, MappingRegistrations.registerAll(configuration));
+
+    ResultMap entityMap = configuration.getResultMap(NAMESPACE + ".testEntityResultMap");
+    assertEquals(TestEntity.class, entityMap.getType());
+    assertEquals(9, entityMap.getResultMappings().size());
+    assertEquals("birth_date", entityMap.getResultMappings().get(7).getColumn());
+    assertEquals(1, entityMap.getIdResultMappings().size());
+    ResultMap recordMap = configuration.getResultMap(NAMESPACE + ".testRecordResultMap");
+    assertEquals(9, recordMap.getConstructorResultMappings().size());
+    assertTrue(
+        recordMap.getConstructorResultMappings().get(0).getFlags().contains(ResultFlag.ID));
+    assertTrue(
+        configuration
+                .getTypeHandlerRegistry()
+                .getTypeHandler(Optional.class, JdbcType.TIMESTAMP)
+            instanceof OptionalTimestampTypeHandler);
+  }
+
+  @Test
+  @DisplayName("生成された結果マップで、値のある列と NULL の列を登録・取得できる")
+  void testRoundTrip() {
+    MappingRegistrations.registerAll(configuration);
+    configuration.addMapper(GeneratedTestEntityMapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+    TestEntity entity = new TestEntity();
+    entity.setId(1);
+    entity.setName(Optional.of("John Doe"));
+    entity.setAge(Optional.empty());
+    entity.setSalary(Optional.of(50000L));
+    entity.setRate(Optional.empty());
+    entity.setAmount(Optional.of(new BigDecimal("1234.56")));
+    entity.setActive(Optional.of(true));
+    entity.setBirthDate(Optional.of(LocalDate.of(1990, 1, 15)));
+    entity.setCreatedAt(Optional.of(CREATED_AT));
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      GeneratedTestEntityMapper mapper = session.getMapper(GeneratedTestEntityMapper.class);
+      mapper.insert(entity);
+      session.commit();
+
+      TestEntity found = mapper.findById(1);
+      assertEquals(Optional.of("John Doe"), found.getName());
+      assertEquals(Optional.empty(), found.getAge());
+      assertEquals(Optional.of(LocalDate.of(1990, 1, 15)), found.getBirthDate());
+      assertEquals(CREATED_AT.toInstant(), found.getCreatedAt().orElseThrow().toInstant());
+
+      TestRecord record = mapper.findRecordById(1);
+      assertEquals(1, record.id());
+      assertEquals(Optional.of(50000L), record.salary());
+      assertEquals(Optional.empty(), record.rate());
+    }
+  }
+
+  @Test
+  @DisplayName("登録済みの TypeHandler は再利用され、既存の登録は上書きされない")
+  void testExistingTypeHandler() {
+    OptionalTypeHandler<Object> registered = new OptionalTypeHandler<>();
+    configuration.getTypeHandlerRegistry().register(Optional.class, JdbcType.VARCHAR, registered);
+
+    TypeHandler<?> handler =
+        MappingRegistrations.typeHandler(
+            configuration, OptionalTypeHandler.class, OptionalTypeHandler::new);
+    MappingRegistrations.registerOptional(
+        configuration, JdbcType.VARCHAR, new OptionalTypeHandler<>());
+
+    assertSame(registered, handler);
+    assertSame(
+        registered,
+        configuration.getTypeHandlerRegistry().getTypeHandler(Optional.class, JdbcType.VARCHAR));
+  }
+}
@@ -0,0 +1,178 @@
+package com.tierline.mybatis.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntities;
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link ReplicaRoutingDataSource} with two in-memory databases. */
+@DisplayName("ReplicaRoutingDataSource のテスト")
+class ReplicaRoutingDataSourceTest {
+
+  private static final String NAMESPACE = "com.tierline.mybatis.integration.TestEntityMapper.";
+
+  private DataSource primary;
+  private DataSource replica;
+
+  @BeforeEach
+  void setUp() {
+    primary = H2TestDatabase.create("primary");
+    replica = H2TestDatabase.create("replica");
+    // 同じ ID で異なる名前を登録し、どちらから読み取ったかを判別できるようにする
+    insert(primary, entity(1, "primary"));
+    insert(replica, entity(1, "replica"));
+  }
+
+  @Test
+  @DisplayName("自動コミットの select はレプリカから読み取られる")
+  void testSelectRoutesToReplica() {
+    SqlSessionFactory factory = routingFactory(List.of(replica), Duration.ZERO);
+
+    try (SqlSession session = factory.openSession(true)) {
+      TestEntity result = session.getMapper(TestEntityMapper.class).findById(1);
+
+      assertEquals(Optional.of("replica"), result.getName());
+    }
+  }
+
+  @Test
+  @DisplayName("トランザクションの最初の select も、後の書き込みに備えてプライマリから読み取られる")
+  void testTransactionReadsFromPrimary() {
+    SqlSessionFactory factory = routingFactory(List.of(replica), Duration.ZERO);
+
+    try (SqlSession session = factory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      TestEntity existing = mapper.findById(1);
+      mapper.insert(entity(5, "written"));
+      session.commit();
+
+      assertEquals(Optional.of("primary"), existing.getName());
+    }
+  }
+
+  @Test
+  @DisplayName("行をロックする select と flushCache の select はプライマリから読み取られる")
+  void testLockingSelectRoutesToPrimary() {
+    SqlSessionFactory factory = routingFactory(List.of(replica), Duration.ZERO);
+
+    try (SqlSession session = factory.openSession(true)) {
+      TestEntity locked = session.selectOne(NAMESPACE + "findByIdForUpdate", 1);
+
+      assertEquals(Optional.of("primary"), locked.getName());
+    }
+    try (SqlSession session = factory.openSession(true)) {
+      TestEntity flushed = session.selectOne(NAMESPACE + "findByIdFlushCache", 1);
+
+      assertEquals(Optional.of("primary"), flushed.getName());
+    }
+  }
+
+  @Test
+  @DisplayName("書き込みはプライマリに送られ、同じトランザクション内の読み取りもプライマリから行われる")
+  void testWriteTransactionStaysOnPrimary() {
+    SqlSessionFactory factory = routingFactory(List.of(replica), Duration.ZERO);
+
+    try (SqlSession session = factory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      mapper.insert(entity(2, "written"));
+
+      TestEntity written = mapper.findById(2);
+      TestEntity existing = mapper.findById(1);
+      session.commit();
+
+      assertNotNull(written);
+      assertEquals(Optional.of("primary"), existing.getName());
+    }
+    try (SqlSession session = H2TestDatabase.sqlSessionFactory(primary).openSession()) {
+      assertNotNull(session.getMapper(TestEntityMapper.class).findById(2));
+    }
+  }
+
+  @Test
+  @DisplayName("レプリカで読み取った後に書き込むと、プライマリに切り替わる")
+  void testReadThenWriteSwitchesToPrimary() {
+    SqlSessionFactory factory = routingFactory(List.of(replica), Duration.ZERO);
+
+    try (SqlSession session = factory.openSession(true)) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      assertEquals(Optional.of("replica"), mapper.findById(1).getName());
+
+      mapper.insert(entity(3, "written"));
+
+      assertEquals(Optional.of("primary"), mapper.findById(1).getName());
+    }
+  }
+
+  @Test
+  @DisplayName("read-your-writes の期間内は、別セッションでもプライマリから読み取られる")
+  void testReadYourWritesWindow() {
+    SqlSessionFactory factory = routingFactory(List.of(replica), Duration.ofMinutes(1));
+
+    try (SqlSession session = factory.openSession()) {
+      session.getMapper(TestEntityMapper.class).insert(entity(4, "written"));
+      session.commit();
+    }
+    try (SqlSession session = factory.openSession(true)) {
+      TestEntity result = session.getMapper(TestEntityMapper.class).findById(1);
+
+      assertEquals(Optional.of("primary"), result.getName());
+    }
+  }
+
+  @Test
+  @DisplayName("ROUND_ROBIN ではレプリカが順番に使用される")
+  void testRoundRobin() {
+    DataSource secondReplica = H2TestDatabase.create("replica2");
+    insert(secondReplica, entity(1, "replica2"));
+    SqlSessionFactory factory = routingFactory(List.of(replica, secondReplica), Duration.ZERO);
+
+    String first = findName(factory);
+    String second = findName(factory);
+    String third = findName(factory);
+
+    assertEquals(first, third);
+    assertEquals(
+        List.of("replica", "replica2"),
+        List.of(first, second).stream().sorted().toList());
+  }
+
+  private SqlSessionFactory routingFactory(List<DataSource> replicas, Duration window) {
+    ReplicaRoutingDataSource dataSource =
+        new ReplicaRoutingDataSource(primary, replicas, LoadBalancePolicy.ROUND_ROBIN);
+    dataSource.setReadYourWritesWindow(window);
+    SqlSessionFactory factory = H2TestDatabase.sqlSessionFactory(dataSource);
+    factory.getConfiguration().addInterceptor(new ReadWriteRoutingInterceptor());
+    return factory;
+  }
+
+  private static String findName(SqlSessionFactory factory) {
+    try (SqlSession session = factory.openSession(true)) {
+      return session.getMapper(TestEntityMapper.class).findById(1).getName().orElseThrow();
+    }
+  }
+
+  private static void insert(DataSource dataSource, TestEntity entity) {
+    try (SqlSession session = H2TestDatabase.sqlSessionFactory(dataSource).openSession()) {
+      session.getMapper(TestEntityMapper.class).insert(entity);
+      session.commit();
+    }
+  }
+
+  private static TestEntity entity(int id, String name) {
+    TestEntity entity = TestEntities.entity(id, false);
+    entity.setName(Optional.of(name));
+    return entity;
+  }
+}
@@ -0,0 +1,209 @@
+package com.tierline.mybatis.tracking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntities;
+import com.tierline.mybatis.integration.TestEntity;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link ChangeTrackingInterceptor}. */
+@DisplayName("ChangeTrackingInterceptor のテスト")
+class ChangeTrackingInterceptorTest {
+
+  private static final String NAMESPACE = "com.tierline.mybatis.integration.TestEntityMapper";
+  private static final String ENTITY_MAP = NAMESPACE + ".testEntityResultMap";
+  private static final String ALIASED_MAP = NAMESPACE + ".aliasedNameResultMap";
+
+  private SqlSessionFactory sqlSessionFactory;
+  private ChangeTrackingInterceptor interceptor;
+  private SqlRecorder recorder;
+
+  @BeforeEach
+  void setUp() {
+    sqlSessionFactory = H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("tracking"));
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      mapper.insert(TestEntities.entity(1));
+      mapper.insert(TestEntities.entity(2));
+      session.commit();
+    }
+    interceptor = new ChangeTrackingInterceptor();
+    Properties properties = new Properties();
+    properties.setProperty("entities", ENTITY_MAP + ":test_entity");
+    interceptor.setProperties(properties);
+    recorder = new SqlRecorder();
+    sqlSessionFactory.getConfiguration().addInterceptor(interceptor);
+    sqlSessionFactory.getConfiguration().addInterceptor(recorder);
+  }
+
+  @Test
+  @DisplayName("変更した列だけが更新され、空の Optional は NULL になる")
+  void testUpdateChangedColumns() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntity entity = session.getMapper(TestEntityMapper.class).findById(1);
+      assertTrue(interceptor.isTracked(entity));
+      entity.setName(Optional.empty());
+      entity.setAge(Optional.of(99));
+      assertEquals(List.of("name", "age"), interceptor.changedProperties(entity));
+
+      assertEquals(1, interceptor.update(session, entity));
+      session.commit();
+    }
+
+    assertEquals(
+        List.of("UPDATE test_entity SET name = ?, age = ? WHERE id = ?"), recorder.updates);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntity found = session.getMapper(TestEntityMapper.class).findById(1);
+      assertEquals(Optional.empty(), found.getName());
+      assertEquals(Optional.of(99), found.getAge());
+      assertEquals(Optional.of(1000L), found.getSalary());
+      assertEquals(Optional.of(TestEntities.AMOUNT), found.getAmount());
+    }
+  }
+
+  @Test
+  @DisplayName("変更がない場合や更新後に変更がない場合は文を実行しない")
+  void testNoChanges() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntity entity = session.getMapper(TestEntityMapper.class).findById(1);
+      assertEquals(0, interceptor.update(session, entity));
+
+      entity.setRate(Optional.of(0.75));
+      assertEquals(1, interceptor.update(session, entity));
+      assertEquals(List.of(), interceptor.changedProperties(entity));
+      assertEquals(0, interceptor.update(session, entity));
+      session.commit();
+    }
+
+    assertEquals(1, recorder.updates.size());
+  }
+
+  @Test
+  @DisplayName("同じ列の組み合わせの変更には同じ文が使われる")
+  void testStatementPerChangeMask() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      for (TestEntity entity : session.getMapper(TestEntityMapper.class).findAll()) {
+        entity.setActive(entity.getActive().map(active -> !active));
+        assertEquals(1, interceptor.update(session, entity));
+      }
+      session.commit();
+    }
+
+    long generated =
+        sqlSessionFactory.getConfiguration().getMappedStatementNames().stream()
+            .filter(id -> id.startsWith(ENTITY_MAP + "-trackedUpdate-"))
+            .count();
+    assertEquals(1, generated);
+    assertEquals(2, recorder.updates.size());
+  }
+
+  @Test
+  @DisplayName("追跡していないエンティティはすべての列を更新する")
+  void testUntrackedEntity() {
+    TestEntity entity = TestEntities.entity(2);
+    entity.setName(Optional.of("Replaced"));
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      assertFalse(interceptor.isTracked(entity));
+      assertEquals(1, interceptor.update(session, entity));
+      session.commit();
+    }
+
+    assertEquals(
+        List.of(
+            "UPDATE test_entity SET name = ?, age = ?, salary = ?, rate = ?, amount = ?,"
+                + " active = ?, birth_date = ?, created_at = ? WHERE id = ?"),
+        recorder.updates);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntity found = session.getMapper(TestEntityMapper.class).findById(2);
+      assertEquals(Optional.of("Replaced"), found.getName());
+      assertTrue(interceptor.isTracked(found));
+    }
+  }
+
+  @Test
+  @DisplayName("追跡できない結果マップを登録した場合は例外となる")
+  void testUntrackableResultMap() {
+    interceptor.track(NAMESPACE + ".testRecordResultMap", "test_entity");
+
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntityMapper mapper = session.getMapper(TestEntityMapper.class);
+      assertThrows(PersistenceException.class, () -> mapper.findRecordById(1));
+    }
+  }
+
+  @Test
+  @DisplayName("別名で読み込む列は、テーブルの列名を指定すると更新できる")
+  void testExplicitTableColumn() {
+    interceptor.track(ALIASED_MAP, "test_entity", Map.of("name", "name"));
+
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntity entity = session.selectOne(NAMESPACE + ".findAliasedNameById", 1);
+      entity.setName(Optional.of("Renamed"));
+
+      assertEquals(1, interceptor.update(session, entity));
+      session.commit();
+    }
+
+    assertEquals(List.of("UPDATE test_entity SET name = ? WHERE id = ?"), recorder.updates);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntity found = session.getMapper(TestEntityMapper.class).findById(1);
+      assertEquals(Optional.of("Renamed"), found.getName());
+    }
+  }
+
+  @Test
+  @DisplayName("テーブルにない列を更新しようとした場合は、文を実行せずに例外となる")
+  void testColumnMissingFromTable() {
+    interceptor.track(ALIASED_MAP, "test_entity");
+
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      TestEntity entity = session.selectOne(NAMESPACE + ".findAliasedNameById", 1);
+      entity.setName(Optional.of("Renamed"));
+
+      assertThrows(IllegalArgumentException.class, () -> interceptor.update(session, entity));
+    }
+
+    assertEquals(List.of(), recorder.updates);
+  }
+
+  /** Records the SQL of the update statements that are prepared. */
+  @Intercepts({
+    @Signature(
+        type = StatementHandler.class,
+        method = "prepare",
+        args = {Connection.class, Integer.class})
+  })
+  static class SqlRecorder implements Interceptor {
+    final List<String> updates = new ArrayList<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      String sql = ((StatementHandler) invocation.getTarget()).getBoundSql().getSql();
+      if (sql.startsWith("UPDATE")) {
+        updates.add(sql);
+      }
+      return invocation.proceed();
+    }
+  }
+}
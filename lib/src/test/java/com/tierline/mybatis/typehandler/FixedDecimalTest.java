@@ -0,0 +1,79 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link FixedDecimal}. */
+@DisplayName("FixedDecimal のテスト")
+class FixedDecimalTest {
+
+  @Test
+  @DisplayName("文字列を解析すると、小数点以下の桁数がスケールになる")
+  void testParse() {
+    assertEquals(new FixedDecimal(123456, 2), FixedDecimal.parse("1234.56"));
+    assertEquals(new FixedDecimal(-1, 2), FixedDecimal.parse("-0.01"));
+    assertEquals(new FixedDecimal(1000, 2), FixedDecimal.parse("+10.00"));
+    assertEquals(new FixedDecimal(42, 0), FixedDecimal.parse("42"));
+    assertEquals(new FixedDecimal(Long.MIN_VALUE, 0), FixedDecimal.parse("-9223372036854775808"));
+    assertEquals(new FixedDecimal(1000, 0), FixedDecimal.parse("1E+3"));
+  }
+
+  @Test
+  @DisplayName("数値でない文字列や long に収まらない値は例外となる")
+  void testParseInvalid() {
+    assertThrows(NumberFormatException.class, () -> FixedDecimal.parse(""));
+    assertThrows(NumberFormatException.class, () -> FixedDecimal.parse("-."));
+    assertThrows(NumberFormatException.class, () -> FixedDecimal.parse("12a"));
+    assertThrows(ArithmeticException.class, () -> FixedDecimal.parse("9223372036854775808"));
+  }
+
+  @Test
+  @DisplayName("BigDecimal との相互変換で値とスケールが保たれる")
+  void testBigDecimalConversion() {
+    BigDecimal value = new BigDecimal("1234.50");
+
+    FixedDecimal fixed = FixedDecimal.valueOf(value);
+
+    assertEquals(new FixedDecimal(123450, 2), fixed);
+    assertEquals(value, fixed.toBigDecimal());
+    assertEquals("1234.50", fixed.toString());
+    assertEquals(new FixedDecimal(1000, 0), FixedDecimal.valueOf(new BigDecimal("1E+3")));
+  }
+
+  @Test
+  @DisplayName("スケールの変更は、丸めが必要な場合に例外となる")
+  void testWithScale() {
+    FixedDecimal value = new FixedDecimal(1230, 3);
+
+    assertEquals(new FixedDecimal(123, 2), value.withScale(2));
+    assertEquals(new FixedDecimal(123000, 5), value.withScale(5));
+    assertEquals(new FixedDecimal(0, 0), new FixedDecimal(0, 4).withScale(0));
+    assertThrows(ArithmeticException.class, () -> value.withScale(1));
+  }
+
+  @Test
+  @DisplayName("演算は正確に行われ、オーバーフローは例外となる")
+  void testArithmetic() {
+    FixedDecimal a = FixedDecimal.parse("10.25");
+    FixedDecimal b = FixedDecimal.parse("0.5");
+
+    assertEquals(FixedDecimal.parse("10.75"), a.add(b));
+    assertEquals(FixedDecimal.parse("9.75"), a.subtract(b));
+    assertEquals(FixedDecimal.parse("30.75"), a.multiply(3));
+    assertEquals(FixedDecimal.parse("-10.25"), a.negate());
+    FixedDecimal max = new FixedDecimal(Long.MAX_VALUE, 0);
+    assertThrows(ArithmeticException.class, () -> max.add(FixedDecimal.parse("1")));
+  }
+
+  @Test
+  @DisplayName("スケールの異なる値は等価にならず、負のスケールは指定できない")
+  void testEqualityAndScale() {
+    assertNotEquals(FixedDecimal.parse("1.0"), FixedDecimal.parse("1.00"));
+    assertThrows(IllegalArgumentException.class, () -> new FixedDecimal(1, -1));
+  }
+}
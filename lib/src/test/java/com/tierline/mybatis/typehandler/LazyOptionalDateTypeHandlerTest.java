@@ -0,0 +1,77 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link LazyOptionalDateTypeHandler}. */
+@DisplayName("LazyOptionalDateTypeHandler のテスト")
+class LazyOptionalDateTypeHandlerTest {
+
+  private LazyOptionalDateTypeHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new LazyOptionalDateTypeHandler();
+  }
+
+  @Test
+  @DisplayName("値がある場合、PreparedStatement に java.sql.Date として設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+    LocalDate date = LocalDate.of(2024, 1, 15);
+
+    handler.setNonNullParameter(ps, 1, LazyOptional.from(Optional.of(date)), JdbcType.DATE);
+
+    verify(ps).setDate(1, Date.valueOf(date));
+  }
+
+  @Test
+  @DisplayName("値がない場合、PreparedStatement に NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, LazyOptional.empty(), JdbcType.DATE);
+
+    verify(ps).setNull(1, Types.DATE);
+  }
+
+  @Test
+  @DisplayName("ResultSet から取得した値は、アクセス時に LocalDate に変換される")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    LocalDate date = LocalDate.of(2024, 1, 15);
+    when(rs.getDate("test_date")).thenReturn(Date.valueOf(date));
+    when(rs.getDate(2)).thenReturn(Date.valueOf(date));
+
+    assertEquals(Optional.of(date), handler.getNullableResult(rs, "test_date").toOptional());
+    assertEquals(Optional.of(date), handler.getNullableResult(rs, 2).toOptional());
+  }
+
+  @Test
+  @DisplayName("NULL の値は、値のない LazyOptional になる")
+  void testGetNullableResultWithNullValue() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    CallableStatement cs = mock(CallableStatement.class);
+    when(rs.getDate(1)).thenReturn(null);
+    when(cs.getDate(1)).thenReturn(null);
+
+    assertTrue(handler.getNullableResult(rs, 1).isEmpty());
+    assertTrue(handler.getNullableResult(cs, 1).isEmpty());
+  }
+}
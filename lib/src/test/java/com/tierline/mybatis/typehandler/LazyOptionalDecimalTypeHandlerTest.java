@@ -0,0 +1,78 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link LazyOptionalDecimalTypeHandler}. */
+@DisplayName("LazyOptionalDecimalTypeHandler のテスト")
+class LazyOptionalDecimalTypeHandlerTest {
+
+  private LazyOptionalDecimalTypeHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new LazyOptionalDecimalTypeHandler();
+  }
+
+  @Test
+  @DisplayName("値がある場合、PreparedStatement に BigDecimal として設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+    BigDecimal amount = new BigDecimal("1234.56");
+
+    handler.setNonNullParameter(ps, 1, LazyOptional.from(Optional.of(amount)), JdbcType.NUMERIC);
+
+    verify(ps).setBigDecimal(1, amount);
+  }
+
+  @Test
+  @DisplayName("値がない場合、PreparedStatement に NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, LazyOptional.empty(), JdbcType.NUMERIC);
+
+    verify(ps).setNull(1, Types.NUMERIC);
+  }
+
+  @Test
+  @DisplayName("文字列として取得した値は、アクセス時に BigDecimal に変換され、スケールが保たれる")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getString("amount")).thenReturn("1234.50");
+    when(rs.getString(2)).thenReturn("-0.01");
+
+    assertEquals(
+        Optional.of(new BigDecimal("1234.50")),
+        handler.getNullableResult(rs, "amount").toOptional());
+    assertEquals(
+        Optional.of(new BigDecimal("-0.01")), handler.getNullableResult(rs, 2).toOptional());
+  }
+
+  @Test
+  @DisplayName("NULL の値は、値のない LazyOptional になる")
+  void testGetNullableResultWithNullValue() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    CallableStatement cs = mock(CallableStatement.class);
+    when(rs.getString(1)).thenReturn(null);
+    when(cs.getString(1)).thenReturn(null);
+
+    assertTrue(handler.getNullableResult(rs, 1).isEmpty());
+    assertTrue(handler.getNullableResult(cs, 1).isEmpty());
+  }
+}
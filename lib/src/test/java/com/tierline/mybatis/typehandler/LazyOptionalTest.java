@@ -0,0 +1,77 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link LazyOptional}. */
+@DisplayName("LazyOptional のテスト")
+class LazyOptionalTest {
+
+  @Test
+  @DisplayName("値の有無の判定では変換されず、最初のアクセス時に一度だけ変換される")
+  void testConvertsOnceOnFirstAccess() {
+    AtomicInteger conversions = new AtomicInteger();
+    LazyOptional<Integer> lazy =
+        LazyOptional.of(
+            "42",
+            raw -> {
+              conversions.incrementAndGet();
+              return Integer.valueOf(raw);
+            });
+
+    assertTrue(lazy.isPresent());
+    assertFalse(lazy.isEmpty());
+    assertEquals(0, conversions.get());
+
+    assertEquals(Optional.of(42), lazy.toOptional());
+    assertEquals(42, lazy.orElseThrow());
+    assertEquals(42, lazy.orElse(0));
+    assertSame(lazy.toOptional(), lazy.toOptional());
+    assertEquals(1, conversions.get());
+  }
+
+  @Test
+  @DisplayName("変換前の値が null の場合は、変換処理を呼ばずに値のないインスタンスになる")
+  void testNullRawValue() {
+    LazyOptional<Integer> lazy =
+        LazyOptional.of(
+            null,
+            raw -> {
+              throw new AssertionError("must not be called");
+            });
+
+    assertSame(LazyOptional.empty(), lazy);
+    assertTrue(lazy.isEmpty());
+    assertEquals(Optional.empty(), lazy.toOptional());
+    assertEquals(0, lazy.orElse(0));
+    assertThrows(NoSuchElementException.class, lazy::orElseThrow);
+  }
+
+  @Test
+  @DisplayName("Optional から生成したインスタンスは、同じ値を返す")
+  void testFromOptional() {
+    assertEquals(Optional.of("value"), LazyOptional.from(Optional.of("value")).toOptional());
+    assertSame(LazyOptional.empty(), LazyOptional.from(Optional.empty()));
+  }
+
+  @Test
+  @DisplayName("変換後の値が等しいインスタンスは等価になる")
+  void testEquality() {
+    LazyOptional<Integer> lazy = LazyOptional.of("7", Integer::valueOf);
+    LazyOptional<Integer> eager = LazyOptional.from(Optional.of(7));
+
+    assertEquals(eager, lazy);
+    assertEquals(eager.hashCode(), lazy.hashCode());
+    assertEquals("LazyOptional[7]", lazy.toString());
+    assertEquals("LazyOptional.empty", LazyOptional.empty().toString());
+  }
+}
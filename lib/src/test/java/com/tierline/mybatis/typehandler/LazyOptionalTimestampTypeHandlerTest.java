@@ -0,0 +1,82 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link LazyOptionalTimestampTypeHandler}. */
+@DisplayName("LazyOptionalTimestampTypeHandler のテスト")
+class LazyOptionalTimestampTypeHandlerTest {
+
+  private static final OffsetDateTime DATE_TIME =
+      OffsetDateTime.of(2024, 1, 15, 10, 30, 45, 0, ZoneOffset.ofHours(9));
+
+  private LazyOptionalTimestampTypeHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new LazyOptionalTimestampTypeHandler();
+  }
+
+  @Test
+  @DisplayName("値がある場合、PreparedStatement に java.sql.Timestamp として設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(
+        ps, 1, LazyOptional.from(Optional.of(DATE_TIME)), JdbcType.TIMESTAMP);
+
+    verify(ps).setTimestamp(1, Timestamp.from(DATE_TIME.toInstant()));
+  }
+
+  @Test
+  @DisplayName("値がない場合、PreparedStatement に NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, LazyOptional.empty(), JdbcType.TIMESTAMP);
+
+    verify(ps).setNull(1, Types.TIMESTAMP);
+  }
+
+  @Test
+  @DisplayName("ResultSet から取得した値は、アクセス時に +09:00 の OffsetDateTime に変換される")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    Timestamp timestamp = Timestamp.from(DATE_TIME.toInstant());
+    when(rs.getTimestamp("test_timestamp")).thenReturn(timestamp);
+    when(rs.getTimestamp(2)).thenReturn(timestamp);
+
+    assertEquals(
+        Optional.of(DATE_TIME), handler.getNullableResult(rs, "test_timestamp").toOptional());
+    assertEquals(Optional.of(DATE_TIME), handler.getNullableResult(rs, 2).toOptional());
+  }
+
+  @Test
+  @DisplayName("NULL の値は、値のない LazyOptional になる")
+  void testGetNullableResultWithNullValue() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    CallableStatement cs = mock(CallableStatement.class);
+    when(rs.getTimestamp(1)).thenReturn(null);
+    when(cs.getTimestamp(1)).thenReturn(null);
+
+    assertTrue(handler.getNullableResult(rs, 1).isEmpty());
+    assertTrue(handler.getNullableResult(cs, 1).isEmpty());
+  }
+}
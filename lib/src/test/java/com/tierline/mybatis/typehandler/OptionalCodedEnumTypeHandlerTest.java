@@ -0,0 +1,137 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link OptionalCodedEnumTypeHandler}. */
+@DisplayName("OptionalCodedEnumTypeHandler のテスト")
+class OptionalCodedEnumTypeHandlerTest {
+
+  /** コードが連続しているテスト用の列挙型. */
+  enum Priority implements CodedEnum {
+    LOW(10),
+    MIDDLE(20),
+    HIGH(30);
+
+    private final int code;
+
+    Priority(int code) {
+      this.code = code;
+    }
+
+    @Override
+    public int getCode() {
+      return code;
+    }
+  }
+
+  /** コードがまばらなテスト用の列挙型. */
+  enum Region implements CodedEnum {
+    NORTH(Integer.MIN_VALUE),
+    CENTER(0),
+    SOUTH(Integer.MAX_VALUE);
+
+    private final int code;
+
+    Region(int code) {
+      this.code = code;
+    }
+
+    @Override
+    public int getCode() {
+      return code;
+    }
+  }
+
+  /** コードが重複しているテスト用の列挙型. */
+  enum Duplicated implements CodedEnum {
+    FIRST,
+    SECOND;
+
+    @Override
+    public int getCode() {
+      return 1;
+    }
+  }
+
+  @Test
+  @DisplayName("Optional に値がある場合はコードが、空の場合は NULL が設定される")
+  void testSetNonNullParameter() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+    OptionalCodedEnumTypeHandler<Priority> handler =
+        new OptionalCodedEnumTypeHandler<>(Priority.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.of(Priority.HIGH), JdbcType.INTEGER);
+    handler.setNonNullParameter(ps, 2, Optional.empty(), null);
+
+    verify(ps).setInt(1, 30);
+    verify(ps).setNull(2, Types.INTEGER);
+  }
+
+  @Test
+  @DisplayName("連続したコードは、配列の表で解決される")
+  void testGetNullableResultWithDenseCodes() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getInt("priority")).thenReturn(20);
+    when(rs.getInt(2)).thenReturn(10);
+    when(rs.getInt(3)).thenReturn(15);
+    when(rs.getInt(4)).thenReturn(40);
+    OptionalCodedEnumTypeHandler<Priority> handler =
+        new OptionalCodedEnumTypeHandler<>(Priority.class);
+
+    Optional<Priority> middle = handler.getNullableResult(rs, "priority");
+
+    assertEquals(Optional.of(Priority.MIDDLE), middle);
+    assertSame(middle, handler.getNullableResult(rs, "priority"));
+    assertEquals(Optional.of(Priority.LOW), handler.getNullableResult(rs, 2));
+    assertThrows(SQLException.class, () -> handler.getNullableResult(rs, 3));
+    assertThrows(SQLException.class, () -> handler.getNullableResult(rs, 4));
+  }
+
+  @Test
+  @DisplayName("まばらなコードは、二分探索で解決される")
+  void testGetNullableResultWithSparseCodes() throws SQLException {
+    CallableStatement cs = mock(CallableStatement.class);
+    when(cs.getInt(1)).thenReturn(Integer.MIN_VALUE);
+    when(cs.getInt(2)).thenReturn(Integer.MAX_VALUE);
+    when(cs.getInt(3)).thenReturn(1);
+    OptionalCodedEnumTypeHandler<Region> handler = new OptionalCodedEnumTypeHandler<>(Region.class);
+
+    assertEquals(Optional.of(Region.NORTH), handler.getNullableResult(cs, 1));
+    assertEquals(Optional.of(Region.SOUTH), handler.getNullableResult(cs, 2));
+    assertThrows(SQLException.class, () -> handler.getNullableResult(cs, 3));
+  }
+
+  @Test
+  @DisplayName("NULL の値は Optional.empty() になる")
+  void testGetNullableResultWithNullValue() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getInt(1)).thenReturn(0);
+    when(rs.wasNull()).thenReturn(true);
+
+    assertFalse(
+        new OptionalCodedEnumTypeHandler<>(Priority.class).getNullableResult(rs, 1).isPresent());
+  }
+
+  @Test
+  @DisplayName("コードが重複している列挙型は例外となる")
+  void testDuplicatedCodes() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new OptionalCodedEnumTypeHandler<>(Duplicated.class));
+  }
+}
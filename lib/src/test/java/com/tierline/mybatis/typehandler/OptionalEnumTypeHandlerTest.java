@@ -0,0 +1,86 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link OptionalEnumTypeHandler}. */
+@DisplayName("OptionalEnumTypeHandler のテスト")
+class OptionalEnumTypeHandlerTest {
+
+  /** テスト用の列挙型. */
+  enum Status {
+    ACTIVE,
+    SUSPENDED
+  }
+
+  private OptionalEnumTypeHandler<Status> handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new OptionalEnumTypeHandler<>(Status.class);
+  }
+
+  @Test
+  @DisplayName("Optional に値がある場合、PreparedStatement に定数名が設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.of(Status.SUSPENDED), JdbcType.VARCHAR);
+
+    verify(ps).setString(1, "SUSPENDED");
+  }
+
+  @Test
+  @DisplayName("Optional が空の場合、PreparedStatement に NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.empty(), null);
+
+    verify(ps).setNull(1, Types.VARCHAR);
+  }
+
+  @Test
+  @DisplayName("定数名は事前に作成した表で解決され、同じ定数には同じ Optional が返される")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    CallableStatement cs = mock(CallableStatement.class);
+    when(rs.getString("status")).thenReturn("ACTIVE");
+    when(rs.getString(2)).thenReturn("SUSPENDED");
+    when(cs.getString(1)).thenReturn("ACTIVE");
+
+    Optional<Status> active = handler.getNullableResult(rs, "status");
+
+    assertEquals(Optional.of(Status.ACTIVE), active);
+    assertEquals(Optional.of(Status.SUSPENDED), handler.getNullableResult(rs, 2));
+    assertSame(active, handler.getNullableResult(cs, 1));
+    assertSame(active, new OptionalEnumTypeHandler<>(Status.class).getNullableResult(cs, 1));
+  }
+
+  @Test
+  @DisplayName("NULL の値は Optional.empty() となり、存在しない定数名は例外となる")
+  void testGetNullableResultWithNullAndUnknownValue() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getString(1)).thenReturn(null);
+    when(rs.getString(2)).thenReturn("active");
+
+    assertFalse(handler.getNullableResult(rs, 1).isPresent());
+    assertThrows(SQLException.class, () -> handler.getNullableResult(rs, 2));
+  }
+}
@@ -0,0 +1,98 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link OptionalFixedDecimalTypeHandler}. */
+@DisplayName("OptionalFixedDecimalTypeHandler のテスト")
+class OptionalFixedDecimalTypeHandlerTest {
+
+  @Test
+  @DisplayName("Optional に値がある場合、PreparedStatement に同じスケールの BigDecimal として設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    new OptionalFixedDecimalTypeHandler(2)
+        .setNonNullParameter(ps, 1, Optional.of(FixedDecimal.parse("12.5")), JdbcType.NUMERIC);
+
+    verify(ps).setBigDecimal(1, new BigDecimal("12.50"));
+  }
+
+  @Test
+  @DisplayName("Optional が空の場合、PreparedStatement に NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    new OptionalFixedDecimalTypeHandler().setNonNullParameter(ps, 1, Optional.empty(), null);
+
+    verify(ps).setNull(1, Types.NUMERIC);
+  }
+
+  @Test
+  @DisplayName("スケールに収まらない値を設定しようとした場合は例外となる")
+  void testSetNonNullParameterWithInexactScale() {
+    PreparedStatement ps = mock(PreparedStatement.class);
+    OptionalFixedDecimalTypeHandler handler = new OptionalFixedDecimalTypeHandler(2);
+
+    assertThrows(
+        SQLException.class,
+        () ->
+            handler.setNonNullParameter(
+                ps, 1, Optional.of(FixedDecimal.parse("0.125")), JdbcType.NUMERIC));
+  }
+
+  @Test
+  @DisplayName("ResultSet から取得した文字列は、スケールを除いた long として読み込まれる")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getString("amount")).thenReturn("1234.56");
+    when(rs.getString(2)).thenReturn("-7");
+    CallableStatement cs = mock(CallableStatement.class);
+    when(cs.getString(1)).thenReturn("0.10");
+
+    OptionalFixedDecimalTypeHandler handler = new OptionalFixedDecimalTypeHandler();
+    OptionalFixedDecimalTypeHandler scaled = new OptionalFixedDecimalTypeHandler(2);
+
+    assertEquals(
+        Optional.of(new FixedDecimal(123456, 2)), handler.getNullableResult(rs, "amount"));
+    assertEquals(Optional.of(new FixedDecimal(-7, 0)), handler.getNullableResult(rs, 2));
+    assertEquals(Optional.of(new FixedDecimal(-700, 2)), scaled.getNullableResult(rs, 2));
+    assertEquals(Optional.of(new FixedDecimal(10, 2)), scaled.getNullableResult(cs, 1));
+  }
+
+  @Test
+  @DisplayName("NULL の値は Optional.empty() になる")
+  void testGetNullableResultWithNullValue() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getString(1)).thenReturn(null);
+
+    assertFalse(new OptionalFixedDecimalTypeHandler().getNullableResult(rs, 1).isPresent());
+  }
+
+  @Test
+  @DisplayName("数値でない値やスケールに収まらない値を取得した場合は例外となる")
+  void testGetNullableResultWithInvalidValue() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getString(1)).thenReturn("NaN");
+    when(rs.getString(2)).thenReturn("0.125");
+    OptionalFixedDecimalTypeHandler handler = new OptionalFixedDecimalTypeHandler(2);
+
+    assertThrows(SQLException.class, () -> handler.getNullableResult(rs, 1));
+    assertThrows(SQLException.class, () -> handler.getNullableResult(rs, 2));
+  }
+}
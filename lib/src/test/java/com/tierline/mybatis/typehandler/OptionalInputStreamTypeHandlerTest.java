@@ -0,0 +1,101 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link OptionalInputStreamTypeHandler}. */
+@DisplayName("OptionalInputStreamTypeHandler のテスト")
+class OptionalInputStreamTypeHandlerTest {
+
+  private OptionalInputStreamTypeHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new OptionalInputStreamTypeHandler();
+  }
+
+  @Test
+  @DisplayName("SizedInputStream は、長さを指定して PreparedStatement に設定される")
+  void testSetNonNullParameterWithSizedStream() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+    SizedInputStream stream = new SizedInputStream(new ByteArrayInputStream(new byte[3]), 3);
+
+    handler.setNonNullParameter(ps, 1, Optional.of(stream), JdbcType.BINARY);
+
+    verify(ps).setBinaryStream(1, stream, 3L);
+  }
+
+  @Test
+  @DisplayName("長さのわからないストリームは、長さを指定せずに PreparedStatement に設定される")
+  void testSetNonNullParameterWithStream() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+    InputStream stream = new ByteArrayInputStream(new byte[3]);
+
+    handler.setNonNullParameter(ps, 1, Optional.of(stream), JdbcType.BINARY);
+
+    verify(ps).setBinaryStream(1, stream);
+  }
+
+  @Test
+  @DisplayName("Optional が空の場合、指定された JDBC 型、または BINARY の NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.empty(), JdbcType.BLOB);
+    handler.setNonNullParameter(ps, 2, Optional.empty(), null);
+
+    verify(ps).setNull(1, Types.BLOB);
+    verify(ps).setNull(2, Types.BINARY);
+  }
+
+  @Test
+  @DisplayName("ResultSet のストリームが、コピーされずにそのまま返される")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    InputStream stream = new ByteArrayInputStream(new byte[3]);
+    when(rs.getBinaryStream("payload")).thenReturn(stream);
+    when(rs.getBinaryStream(2)).thenReturn(null);
+
+    assertSame(stream, handler.getNullableResult(rs, "payload").orElseThrow());
+    assertFalse(handler.getNullableResult(rs, 2).isPresent());
+  }
+
+  @Test
+  @DisplayName("CallableStatement からは Blob のストリームが返される")
+  void testGetNullableResultFromCallableStatement() throws SQLException {
+    CallableStatement cs = mock(CallableStatement.class);
+    Blob blob = mock(Blob.class);
+    InputStream stream = new ByteArrayInputStream(new byte[3]);
+    when(cs.getBlob(1)).thenReturn(blob);
+    when(blob.getBinaryStream()).thenReturn(stream);
+
+    assertSame(stream, handler.getNullableResult(cs, 1).orElseThrow());
+    assertFalse(handler.getNullableResult(cs, 2).isPresent());
+  }
+
+  @Test
+  @DisplayName("SizedInputStream に負の長さを指定した場合は例外となる")
+  void testSizedInputStreamWithNegativeLength() {
+    InputStream stream = new ByteArrayInputStream(new byte[0]);
+
+    assertThrows(IllegalArgumentException.class, () -> new SizedInputStream(stream, -1));
+  }
+}
@@ -0,0 +1,101 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link OptionalIntArrayTypeHandler}. */
+@DisplayName("OptionalIntArrayTypeHandler のテスト")
+class OptionalIntArrayTypeHandlerTest {
+
+  private OptionalIntArrayTypeHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new OptionalIntArrayTypeHandler();
+  }
+
+  @Test
+  @DisplayName("Optional に値がある場合、int4 の配列として PreparedStatement に設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+    Connection connection = mock(Connection.class);
+    Array array = mock(Array.class);
+    when(ps.getConnection()).thenReturn(connection);
+    when(connection.createArrayOf("int4", new Integer[] {1, -2, 3})).thenReturn(array);
+
+    handler.setNonNullParameter(ps, 1, Optional.of(new int[] {1, -2, 3}), JdbcType.ARRAY);
+
+    verify(ps).setArray(1, array);
+    verify(array).free();
+  }
+
+  @Test
+  @DisplayName("Optional が空の場合、PreparedStatement に NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.empty(), JdbcType.ARRAY);
+
+    verify(ps).setNull(1, Types.ARRAY);
+  }
+
+  @Test
+  @DisplayName("ドライバが返した要素の配列は、int[] に変換される")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    Array array = mock(Array.class);
+    when(rs.getArray("values")).thenReturn(array);
+    when(array.getArray()).thenReturn(new Integer[] {1, -2, 3});
+
+    Optional<int[]> result = handler.getNullableResult(rs, "values");
+
+    assertTrue(result.isPresent());
+    assertArrayEquals(new int[] {1, -2, 3}, result.get());
+    verify(array).free();
+  }
+
+  @Test
+  @DisplayName("ドライバが int[] を返した場合は、そのまま返される")
+  void testGetNullableResultWithPrimitiveArray() throws SQLException {
+    CallableStatement cs = mock(CallableStatement.class);
+    Array array = mock(Array.class);
+    int[] values = new int[] {1, -2, 3};
+    when(cs.getArray(1)).thenReturn(array);
+    when(array.getArray()).thenReturn(values);
+
+    assertSame(values, handler.getNullableResult(cs, 1).orElseThrow());
+  }
+
+  @Test
+  @DisplayName("NULL の列は Optional.empty() となり、NULL の要素を含む配列は例外となる")
+  void testGetNullableResultWithNulls() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    Array array = mock(Array.class);
+    when(rs.getArray(1)).thenReturn(null);
+    when(rs.getArray(2)).thenReturn(array);
+    when(array.getArray()).thenReturn(new Object[] {1L, 2, null});
+
+    assertFalse(handler.getNullableResult(rs, 1).isPresent());
+    assertThrows(SQLException.class, () -> handler.getNullableResult(rs, 2));
+    verify(array).free();
+  }
+}
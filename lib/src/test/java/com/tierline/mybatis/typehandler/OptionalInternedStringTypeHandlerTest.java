@@ -0,0 +1,101 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link OptionalInternedStringTypeHandler}. */
+@DisplayName("OptionalInternedStringTypeHandler のテスト")
+class OptionalInternedStringTypeHandlerTest {
+
+  @Test
+  @DisplayName("Optional に値がある場合、PreparedStatement に文字列として設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    new OptionalInternedStringTypeHandler()
+        .setNonNullParameter(ps, 1, Optional.of("JPY"), JdbcType.VARCHAR);
+
+    verify(ps).setString(1, "JPY");
+  }
+
+  @Test
+  @DisplayName("Optional が空の場合、PreparedStatement に NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    new OptionalInternedStringTypeHandler()
+        .setNonNullParameter(ps, 1, Optional.empty(), JdbcType.VARCHAR);
+
+    verify(ps).setNull(1, Types.VARCHAR);
+  }
+
+  @Test
+  @DisplayName("同じ値の行には、同じ Optional と String のインスタンスが返される")
+  void testSameValueReturnsSameInstance() throws SQLException {
+    OptionalInternedStringTypeHandler handler = new OptionalInternedStringTypeHandler();
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getString(1)).thenReturn(new String("JPY"), new String("JPY"), new String("USD"));
+    CallableStatement cs = mock(CallableStatement.class);
+    when(cs.getString(1)).thenReturn(new String("JPY"));
+
+    Optional<String> first = handler.getNullableResult(rs, 1);
+    Optional<String> second = handler.getNullableResult(rs, 1);
+    Optional<String> other = handler.getNullableResult(rs, 1);
+
+    assertSame(first, second);
+    assertSame(first.get(), second.get());
+    assertSame(first, handler.getNullableResult(cs, 1));
+    assertEquals(Optional.of("USD"), other);
+    assertEquals(2, handler.size());
+  }
+
+  @Test
+  @DisplayName("NULL の値は Optional.empty() となり、テーブルには保持されない")
+  void testNullValue() throws SQLException {
+    OptionalInternedStringTypeHandler handler = new OptionalInternedStringTypeHandler();
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getString("status")).thenReturn(null);
+
+    assertFalse(handler.getNullableResult(rs, "status").isPresent());
+    assertEquals(0, handler.size());
+  }
+
+  @Test
+  @DisplayName("上限を超えた値は、テーブルに追加されずに新しいインスタンスとして返される")
+  void testMaxSize() throws SQLException {
+    OptionalInternedStringTypeHandler handler = new OptionalInternedStringTypeHandler(1);
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getString(1)).thenReturn("A", "B", "B", "A");
+
+    Optional<String> a = handler.getNullableResult(rs, 1);
+    Optional<String> b1 = handler.getNullableResult(rs, 1);
+    Optional<String> b2 = handler.getNullableResult(rs, 1);
+
+    assertEquals(Optional.of("B"), b1);
+    assertNotSame(b1, b2);
+    assertSame(a, handler.getNullableResult(rs, 1));
+    assertEquals(1, handler.size());
+  }
+
+  @Test
+  @DisplayName("上限に負の値を指定した場合は例外となる")
+  void testNegativeMaxSize() {
+    assertThrows(IllegalArgumentException.class, () -> new OptionalInternedStringTypeHandler(-1));
+  }
+}
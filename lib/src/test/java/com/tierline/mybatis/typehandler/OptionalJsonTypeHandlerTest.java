@@ -0,0 +1,108 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.nio.charset.StandardCharsets;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link OptionalJsonTypeHandler}. */
+@DisplayName("OptionalJsonTypeHandler のテスト")
+class OptionalJsonTypeHandlerTest {
+
+  /** JSON を変換するテスト用の型. */
+  record Payload(String type, List<Integer> values) {}
+
+  private static final Payload PAYLOAD = new Payload("click", List.of(1, 2));
+  private static final String JSON = "{\"type\":\"click\",\"values\":[1,2]}";
+
+  private OptionalJsonTypeHandler<Payload> handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new OptionalJsonTypeHandler<>(Payload.class);
+  }
+
+  @Test
+  @DisplayName("Optional に値がある場合、JSON にシリアライズされ OTHER として設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.of(PAYLOAD), null);
+    handler.setNonNullParameter(ps, 2, Optional.of(PAYLOAD), JdbcType.VARCHAR);
+
+    verify(ps).setObject(1, JSON, Types.OTHER);
+    verify(ps).setObject(2, JSON, Types.VARCHAR);
+  }
+
+  @Test
+  @DisplayName("Optional が空の場合、PreparedStatement に NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.empty(), JdbcType.OTHER);
+
+    verify(ps).setNull(1, Types.OTHER);
+  }
+
+  @Test
+  @DisplayName("列のバイト列が、指定した型に直接変換される")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    CallableStatement cs = mock(CallableStatement.class);
+    when(rs.getBytes("payload")).thenReturn(JSON.getBytes(StandardCharsets.UTF_8));
+    when(rs.getBytes(2)).thenReturn(JSON.getBytes(StandardCharsets.UTF_8));
+    when(cs.getBytes(1)).thenReturn(JSON.getBytes(StandardCharsets.UTF_8));
+
+    assertEquals(Optional.of(PAYLOAD), handler.getNullableResult(rs, "payload"));
+    assertEquals(Optional.of(PAYLOAD), handler.getNullableResult(rs, 2));
+    assertEquals(Optional.of(PAYLOAD), handler.getNullableResult(cs, 1));
+  }
+
+  @Test
+  @DisplayName("NULL の列と JSON の null は Optional.empty() になる")
+  void testGetNullableResultWithNullValue() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getBytes(1)).thenReturn(null);
+    when(rs.getBytes(2)).thenReturn("null".getBytes(StandardCharsets.UTF_8));
+
+    assertFalse(handler.getNullableResult(rs, 1).isPresent());
+    assertFalse(handler.getNullableResult(rs, 2).isPresent());
+  }
+
+  @Test
+  @DisplayName("JsonNode を指定すると、JSON のツリーとして取得できる")
+  void testGetNullableResultAsTree() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getBytes(1)).thenReturn(JSON.getBytes(StandardCharsets.UTF_8));
+
+    JsonNode node =
+        new OptionalJsonTypeHandler<>(JsonNode.class).getNullableResult(rs, 1).orElseThrow();
+
+    assertEquals("click", node.get("type").asText());
+  }
+
+  @Test
+  @DisplayName("不正な JSON の場合は例外となる")
+  void testGetNullableResultWithInvalidJson() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getBytes(1)).thenReturn("{".getBytes(StandardCharsets.UTF_8));
+
+    assertThrows(SQLException.class, () -> handler.getNullableResult(rs, 1));
+  }
+}
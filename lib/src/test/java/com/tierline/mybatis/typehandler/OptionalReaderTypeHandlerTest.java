@@ -0,0 +1,70 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link OptionalReaderTypeHandler}. */
+@DisplayName("OptionalReaderTypeHandler のテスト")
+class OptionalReaderTypeHandlerTest {
+
+  private OptionalReaderTypeHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new OptionalReaderTypeHandler();
+  }
+
+  @Test
+  @DisplayName("Optional に値がある場合、PreparedStatement に文字ストリームとして設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+    Reader reader = new StringReader("document");
+
+    handler.setNonNullParameter(ps, 1, Optional.of(reader), JdbcType.VARCHAR);
+
+    verify(ps).setCharacterStream(1, reader);
+  }
+
+  @Test
+  @DisplayName("Optional が空の場合、指定された JDBC 型、または VARCHAR の NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.empty(), JdbcType.CLOB);
+    handler.setNonNullParameter(ps, 2, Optional.empty(), null);
+
+    verify(ps).setNull(1, Types.CLOB);
+    verify(ps).setNull(2, Types.VARCHAR);
+  }
+
+  @Test
+  @DisplayName("ResultSet の文字ストリームが、コピーされずにそのまま返される")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    CallableStatement cs = mock(CallableStatement.class);
+    Reader reader = new StringReader("document");
+    when(rs.getCharacterStream("body")).thenReturn(reader);
+    when(rs.getCharacterStream(2)).thenReturn(null);
+    when(cs.getCharacterStream(1)).thenReturn(reader);
+
+    assertSame(reader, handler.getNullableResult(rs, "body").orElseThrow());
+    assertFalse(handler.getNullableResult(rs, 2).isPresent());
+    assertSame(reader, handler.getNullableResult(cs, 1).orElseThrow());
+  }
+}
@@ -0,0 +1,77 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link OptionalStringArrayTypeHandler}. */
+@DisplayName("OptionalStringArrayTypeHandler のテスト")
+class OptionalStringArrayTypeHandlerTest {
+
+  private OptionalStringArrayTypeHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new OptionalStringArrayTypeHandler();
+  }
+
+  @Test
+  @DisplayName("Optional に値がある場合、text の配列として PreparedStatement に設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+    Connection connection = mock(Connection.class);
+    Array array = mock(Array.class);
+    String[] tags = {"a", "b"};
+    when(ps.getConnection()).thenReturn(connection);
+    when(connection.createArrayOf("text", tags)).thenReturn(array);
+
+    handler.setNonNullParameter(ps, 1, Optional.of(tags), JdbcType.ARRAY);
+
+    verify(ps).setArray(1, array);
+  }
+
+  @Test
+  @DisplayName("Optional が空の場合、PreparedStatement に NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.empty(), JdbcType.ARRAY);
+
+    verify(ps).setNull(1, Types.ARRAY);
+  }
+
+  @Test
+  @DisplayName("要素の配列は String[] に変換され、NULL の要素は null のまま残る")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    Array array = mock(Array.class);
+    when(rs.getArray(1)).thenReturn(array);
+    when(array.getArray()).thenReturn(new Object[] {"a", null, "c"});
+
+    assertArrayEquals(
+        new String[] {"a", null, "c"}, handler.getNullableResult(rs, 1).orElseThrow());
+  }
+
+  @Test
+  @DisplayName("NULL の列は Optional.empty() になる")
+  void testGetNullableResultWithNullValue() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getArray("tags")).thenReturn(null);
+
+    assertFalse(handler.getNullableResult(rs, "tags").isPresent());
+  }
+}
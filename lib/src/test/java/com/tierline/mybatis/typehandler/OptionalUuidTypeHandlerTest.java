@@ -0,0 +1,67 @@
+package com.tierline.mybatis.typehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import java.util.UUID;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link OptionalUuidTypeHandler}. */
+@DisplayName("OptionalUuidTypeHandler のテスト")
+class OptionalUuidTypeHandlerTest {
+
+  private static final UUID ID = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+
+  private OptionalUuidTypeHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new OptionalUuidTypeHandler();
+  }
+
+  @Test
+  @DisplayName("Optional に値がある場合、PreparedStatement に UUID のまま設定される")
+  void testSetNonNullParameterWithPresentValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.of(ID), JdbcType.OTHER);
+
+    verify(ps).setObject(1, ID);
+  }
+
+  @Test
+  @DisplayName("Optional が空の場合、PreparedStatement に NULL が設定される")
+  void testSetNonNullParameterWithEmptyValue() throws SQLException {
+    PreparedStatement ps = mock(PreparedStatement.class);
+
+    handler.setNonNullParameter(ps, 1, Optional.empty(), null);
+
+    verify(ps).setNull(1, Types.OTHER);
+  }
+
+  @Test
+  @DisplayName("ResultSet から UUID として取得される")
+  void testGetNullableResult() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    CallableStatement cs = mock(CallableStatement.class);
+    when(rs.getObject("id", UUID.class)).thenReturn(ID);
+    when(rs.getObject(2, UUID.class)).thenReturn(null);
+    when(cs.getObject(1, UUID.class)).thenReturn(ID);
+
+    assertEquals(Optional.of(ID), handler.getNullableResult(rs, "id"));
+    assertFalse(handler.getNullableResult(rs, 2).isPresent());
+    assertEquals(Optional.of(ID), handler.getNullableResult(cs, 1));
+  }
+}
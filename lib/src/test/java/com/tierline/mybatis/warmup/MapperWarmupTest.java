@@ -0,0 +1,105 @@
+package com.tierline.mybatis.warmup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tierline.mybatis.integration.H2TestDatabase;
+import com.tierline.mybatis.integration.TestEntities;
+import com.tierline.mybatis.integration.TestEntityMapper;
+import com.tierline.mybatis.partition.Partition;
+import com.tierline.mybatis.partition.PartitionedSelectExecutor;
+import java.util.Map;
+import java.util.Set;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Test class for {@link MapperWarmup}. */
+@DisplayName("MapperWarmup のテスト")
+class MapperWarmupTest {
+
+  private static final String NAMESPACE = "com.tierline.mybatis.integration.TestEntityMapper";
+  private static final String FIND_RANGE = NAMESPACE + ".findRangePartition";
+  private static final Map<String, Object> RANGE =
+      Map.of(PartitionedSelectExecutor.PARTITION_KEY, Partition.range(10)[0]);
+  private static final int STATEMENTS = 8;
+  private static final int SELECTS = 7;
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() {
+    sqlSessionFactory = H2TestDatabase.sqlSessionFactory(H2TestDatabase.create("warmup"));
+  }
+
+  @Test
+  @DisplayName("すべての文の BoundSql を生成し、結果マップの TypeHandler を解決する")
+  void testWarmUp() {
+    MapperWarmup.Result result =
+        new MapperWarmup(sqlSessionFactory).parameter(FIND_RANGE, RANGE).warmUp();
+
+    assertEquals(STATEMENTS, result.statements());
+    assertTrue(result.typeHandlers() >= 4, "typeHandlers: " + result.typeHandlers());
+    assertEquals(0, result.prepared());
+    assertEquals(0, result.executed());
+    assertTrue(result.failures().isEmpty(), result.failures().toString());
+  }
+
+  @Test
+  @DisplayName("パラメータが必要な動的 SQL は、パラメータを指定しない場合に失敗として報告される")
+  void testMissingParameter() {
+    MapperWarmup.Result result = new MapperWarmup(sqlSessionFactory).warmUp();
+
+    assertEquals(STATEMENTS - 1, result.statements());
+    assertEquals(Set.of(FIND_RANGE), result.failures().keySet());
+  }
+
+  @Test
+  @DisplayName("プールの各コネクションで文を準備して select を実行し、その後の問い合わせに影響しない")
+  void testPrepareAndRoundTrips() {
+    UnpooledDataSource database = (UnpooledDataSource) H2TestDatabase.create("warmup-pooled");
+    PooledDataSource dataSource =
+        new PooledDataSource(database.getDriver(), database.getUrl(), "sa", "");
+    dataSource.setPoolMaximumActiveConnections(2);
+    dataSource.setPoolMaximumIdleConnections(2);
+    SqlSessionFactory pooled = H2TestDatabase.sqlSessionFactory(dataSource);
+    try (SqlSession session = pooled.openSession()) {
+      session.getMapper(TestEntityMapper.class).insert(TestEntities.entity(1));
+      session.commit();
+    }
+
+    try {
+      MapperWarmup.Result result =
+          new MapperWarmup(pooled)
+              .parameter(FIND_RANGE, RANGE)
+              .parameter(NAMESPACE + ".findById", 1)
+              .prepareStatements(true)
+              .roundTrips(3)
+              .warmUp();
+
+      assertTrue(result.failures().isEmpty(), result.failures().toString());
+      assertEquals(STATEMENTS * 2, result.prepared());
+      assertEquals(SELECTS * 3 * 2, result.executed());
+      assertEquals(2, dataSource.getPoolState().getIdleConnectionCount());
+      try (SqlSession session = pooled.openSession()) {
+        assertEquals(1, session.getMapper(TestEntityMapper.class).findAll().size());
+      }
+    } finally {
+      dataSource.forceCloseAll();
+    }
+  }
+
+  @Test
+  @DisplayName("実行回数が負の場合や、コネクションの数が正でない場合は例外となる")
+  void testInvalidSettings() {
+    MapperWarmup warmup = new MapperWarmup(sqlSessionFactory);
+
+    assertThrows(IllegalArgumentException.class, () -> warmup.roundTrips(-1));
+    assertThrows(IllegalArgumentException.class, () -> warmup.connections(0));
+  }
+}
@@ -0,0 +1,419 @@
+package com.tierline.mybatis.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that generates a {@code MappingRegistration} for every class or record
+ * annotated with {@code com.tierline.mybatis.registration.OptionalEntity}.
+ *
+ * <p>The generated code builds the result map with {@code MappingRegistrations} and instantiates
+ * the type handlers with constructor references, so registering it needs neither XML parsing nor
+ * reflection. The generated classes are listed in {@code
+ * META-INF/services/com.tierline.mybatis.registration.MappingRegistration}. Mapping errors, such
+ * as an {@code Optional} element type without a known type handler, are reported as compile errors
+ * on the offending field.
+ */
+@SupportedAnnotationTypes(OptionalMappingProcessor.ENTITY)
+public class OptionalMappingProcessor extends AbstractProcessor {
+  static final String ENTITY = "com.tierline.mybatis.registration.OptionalEntity";
+  static final String COLUMN = "com.tierline.mybatis.registration.Column";
+  static final String REGISTRATION = "com.tierline.mybatis.registration.MappingRegistration";
+
+  private static final String REGISTRATIONS =
+      "com.tierline.mybatis.registration.MappingRegistrations";
+  private static final String TYPE_HANDLER_PACKAGE = "com.tierline.mybatis.typehandler.";
+  private static final String UNKNOWN_TYPE_HANDLER = "org.apache.ibatis.type.UnknownTypeHandler";
+  private static final String OPTIONAL = "java.util.Optional";
+
+  /** {@code Optional} の要素の型ごとの既定の JDBC の型と TypeHandler. */
+  private static final Map<String, Handler> HANDLERS =
+      Map.ofEntries(
+          Map.entry("java.lang.String", Handler.standard("VARCHAR", "OptionalTypeHandler")),
+          Map.entry("java.lang.Integer", Handler.standard("INTEGER", "OptionalTypeHandler")),
+          Map.entry("java.lang.Long", Handler.standard("BIGINT", "OptionalTypeHandler")),
+          Map.entry("java.lang.Double", Handler.standard("DOUBLE", "OptionalTypeHandler")),
+          Map.entry("java.math.BigDecimal", Handler.standard("NUMERIC", "OptionalTypeHandler")),
+          Map.entry("java.lang.Boolean", Handler.standard("BIT", "OptionalTypeHandler")),
+          Map.entry("java.time.LocalDate", Handler.standard("DATE", "OptionalDateTypeHandler")),
+          Map.entry(
+              "java.time.OffsetDateTime",
+              Handler.standard("TIMESTAMP", "OptionalTimestampTypeHandler")),
+          // OTHER は json などほかの Optional のパラメータにも使われるので、UUID は結果マップでのみ使う
+          Map.entry("java.util.UUID", Handler.resultOnly("OTHER", "OptionalUuidTypeHandler")),
+          // NUMERIC の既定は BigDecimal なので、FixedDecimal は結果マップでのみ使う
+          Map.entry(
+              TYPE_HANDLER_PACKAGE + "FixedDecimal",
+              Handler.resultOnly("NUMERIC", "OptionalFixedDecimalTypeHandler")));
+
+  private final List<String> generated = new ArrayList<>();
+
+  /**
+   * Type handler chosen for a column.
+   *
+   * @param jdbcType JDBC の型の名前. 未指定の場合は {@code null}
+   * @param typeHandler TypeHandler の完全修飾名. 型から解決する場合は {@code null}
+   * @param standard {@code Optional} と JDBC の型の組み合わせの既定として登録する場合は {@code true}
+   */
+  record Handler(String jdbcType, String typeHandler, boolean standard) {
+
+    static Handler standard(String jdbcType, String simpleName) {
+      return new Handler(jdbcType, TYPE_HANDLER_PACKAGE + simpleName, true);
+    }
+
+    static Handler resultOnly(String jdbcType, String simpleName) {
+      return new Handler(jdbcType, TYPE_HANDLER_PACKAGE + simpleName, false);
+    }
+  }
+
+  /**
+   * Generated mapping of one field or record component.
+   *
+   * @param property プロパティ名. コンストラクタ引数の場合は {@code null}
+   * @param column 列名
+   * @param javaType 型のクラスリテラル
+   * @param handler TypeHandler
+   * @param id ID の列かどうか
+   */
+  record Mapping(String property, String column, String javaType, Handler handler, boolean id) {}
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement entity = processingEnv.getElementUtils().getTypeElement(ENTITY);
+    if (entity != null) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(entity)) {
+        if (element.getKind() == ElementKind.CLASS || element.getKind() == ElementKind.RECORD) {
+          generate((TypeElement) element);
+        } else {
+          error(element, "@OptionalEntity is only allowed on classes and records");
+        }
+      }
+    }
+    if (roundEnv.processingOver() && !generated.isEmpty()) {
+      writeServices();
+    }
+    return true;
+  }
+
+  private void generate(TypeElement type) {
+    AnnotationMirror annotation = annotation(type, ENTITY);
+    if (annotation == null) {
+      return;
+    }
+    String namespace = (String) value(annotation, "namespace");
+    String id = (String) value(annotation, "id");
+    if (id.isEmpty()) {
+      String simpleName = type.getSimpleName().toString();
+      id = Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1) + "ResultMap";
+    }
+    boolean constructor = type.getKind() == ElementKind.RECORD;
+    List<Mapping> mappings = new ArrayList<>();
+    boolean valid = true;
+    for (Element member : members(type)) {
+      AnnotationMirror column = annotation(member, COLUMN);
+      if (column != null && (Boolean) value(column, "ignore")) {
+        continue;
+      }
+      Mapping mapping = mapping(member, column, constructor);
+      if (mapping == null) {
+        valid = false;
+      } else {
+        mappings.add(mapping);
+      }
+    }
+    if (valid) {
+      write(type, namespace + "." + id, mappings);
+    }
+  }
+
+  /** レコードの場合は構成要素を、クラスの場合はスーパークラスから順にインスタンスフィールドを返す. */
+  private List<Element> members(TypeElement type) {
+    List<Element> members = new ArrayList<>();
+    if (type.getKind() == ElementKind.RECORD) {
+      members.addAll(type.getRecordComponents());
+      return members;
+    }
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() == TypeKind.DECLARED) {
+      TypeElement superElement = (TypeElement) ((DeclaredType) superclass).asElement();
+      if (!superElement.getQualifiedName().contentEquals("java.lang.Object")) {
+        members.addAll(members(superElement));
+      }
+    }
+    for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+      Set<Modifier> modifiers = field.getModifiers();
+      if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)) {
+        members.add(field);
+      }
+    }
+    return members;
+  }
+
+  /** 列のマッピングを返す. 誤りがある場合はエラーを報告して {@code null} を返す. */
+  private Mapping mapping(Element member, AnnotationMirror column, boolean constructor) {
+    String name = member.getSimpleName().toString();
+    String columnName = column == null ? "" : (String) value(column, "name");
+    String jdbcType = column == null ? "UNDEFINED" : enumValue(column, "jdbcType");
+    TypeElement typeHandler = column == null ? null : typeElement(value(column, "typeHandler"));
+    if (typeHandler != null && typeHandler.getQualifiedName().contentEquals(UNKNOWN_TYPE_HANDLER)) {
+      typeHandler = null;
+    }
+    if (typeHandler != null && !isInstantiable(typeHandler)) {
+      error(member, typeHandler + " needs a public no-arg constructor to be used by @Column");
+      return null;
+    }
+
+    TypeMirror type = member.asType();
+    TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+    Handler handler = new Handler(null, null, false);
+    if (erasure.toString().equals(OPTIONAL) && typeHandler == null) {
+      handler = optionalHandler(type);
+      if (handler == null) {
+        error(
+            member,
+            "No Optional type handler for "
+                + type
+                + "; specify one with @Column(typeHandler = ...)");
+        return null;
+      }
+    } else if (typeHandler != null) {
+      handler = new Handler(null, typeHandler.getQualifiedName().toString(), false);
+    }
+    if (!"UNDEFINED".equals(jdbcType)) {
+      handler = new Handler(jdbcType, handler.typeHandler(), false);
+    }
+    boolean id = column != null && (Boolean) value(column, "id");
+    return new Mapping(
+        constructor ? null : name,
+        columnName.isEmpty() ? snakeCase(name) : columnName,
+        erasure + ".class",
+        handler,
+        id);
+  }
+
+  private Handler optionalHandler(TypeMirror type) {
+    if (!(type instanceof DeclaredType declared) || declared.getTypeArguments().size() != 1) {
+      return null;
+    }
+    if (!(declared.getTypeArguments().get(0) instanceof DeclaredType element)) {
+      return null;
+    }
+    TypeElement elementType = (TypeElement) element.asElement();
+    return HANDLERS.get(elementType.getQualifiedName().toString());
+  }
+
+  private void write(TypeElement type, String resultMapId, List<Mapping> mappings) {
+    String packageName =
+        processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    String simpleName =
+        (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_')
+            + "MappingRegistration";
+    String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+    StringBuilder body = new StringBuilder();
+    Map<String, String> handlers = new LinkedHashMap<>();
+    for (Mapping mapping : mappings) {
+      String typeHandler = mapping.handler().typeHandler();
+      if (typeHandler != null && !handlers.containsKey(typeHandler)) {
+        String variable = "handler" + handlers.size();
+        handlers.put(typeHandler, variable);
+        body.append("    org.apache.ibatis.type.TypeHandler<?> ")
+            .append(variable)
+            .append(" =\n        ")
+            .append(REGISTRATIONS)
+            .append(".typeHandler(configuration, ")
+            .append(typeHandler)
+            .append(".class, ")
+            .append(typeHandler)
+            .append("::new);\n");
+      }
+      if (mapping.handler().standard()) {
+        body.append("    ")
+            .append(REGISTRATIONS)
+            .append(".registerOptional(configuration, org.apache.ibatis.type.JdbcType.")
+            .append(mapping.handler().jdbcType())
+            .append(", ")
+            .append(handlers.get(typeHandler))
+            .append(");\n");
+      }
+    }
+    body.append("    java.util.List<org.apache.ibatis.mapping.ResultMapping> mappings =")
+        .append(" new java.util.ArrayList<>();\n");
+    for (Mapping mapping : mappings) {
+      body.append("    mappings.add(")
+          .append(REGISTRATIONS)
+          .append(".result(configuration, ")
+          .append(literal(mapping.property()))
+          .append(", ")
+          .append(literal(mapping.column()))
+          .append(", ")
+          .append(mapping.javaType())
+          .append(", ")
+          .append(
+              mapping.handler().jdbcType() == null
+                  ? "null"
+                  : "org.apache.ibatis.type.JdbcType." + mapping.handler().jdbcType())
+          .append(", ")
+          .append(
+              mapping.handler().typeHandler() == null
+                  ? "null"
+                  : handlers.get(mapping.handler().typeHandler()));
+      if (mapping.property() == null) {
+        body.append(", org.apache.ibatis.mapping.ResultFlag.CONSTRUCTOR");
+      }
+      if (mapping.id()) {
+        body.append(", org.apache.ibatis.mapping.ResultFlag.ID");
+      }
+      body.append("));\n");
+    }
+    body.append("    ")
+        .append(REGISTRATIONS)
+        .append(".addResultMap(configuration, ")
+        .append(literal(resultMapId))
+        .append(", ")
+        .append(type.getQualifiedName())
+        .append(".class, mappings);\n");
+
+    StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+    source
+        .append("/** Registers the result map of {@link ")
+        .append(type.getQualifiedName())
+        .append("}. */\n")
+        .append("@javax.annotation.processing.Generated(\"")
+        .append(OptionalMappingProcessor.class.getName())
+        .append("\")\n")
+        .append("public final class ")
+        .append(simpleName)
+        .append(" implements ")
+        .append(REGISTRATION)
+        .append(" {\n\n")
+        .append("  @Override\n")
+        .append("  public void register(org.apache.ibatis.session.Configuration configuration) {\n")
+        .append(body)
+        .append("  }\n")
+        .append("}\n");
+    try (Writer writer =
+        processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+      writer.write(source.toString());
+      generated.add(qualifiedName);
+    } catch (IOException e) {
+      error(type, "Cannot write " + qualifiedName + ": " + e.getMessage());
+    }
+  }
+
+  private void writeServices() {
+    String resource = "META-INF/services/" + REGISTRATION;
+    try (Writer writer =
+        processingEnv
+            .getFiler()
+            .createResource(StandardLocation.CLASS_OUTPUT, "", resource)
+            .openWriter()) {
+      for (String name : generated) {
+        writer.write(name + "\n");
+      }
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(Diagnostic.Kind.ERROR, "Cannot write " + resource + ": " + e.getMessage());
+    }
+  }
+
+  /** 指定した名前の注釈を返す. ない場合は {@code null} を返す. */
+  private static AnnotationMirror annotation(Element element, String name) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+      if (type.getQualifiedName().contentEquals(name)) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  private Object value(AnnotationMirror annotation, String name) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+        processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(name)) {
+        return entry.getValue().getValue();
+      }
+    }
+    throw new IllegalArgumentException("No annotation value: " + name);
+  }
+
+  private String enumValue(AnnotationMirror annotation, String name) {
+    return ((VariableElement) value(annotation, name)).getSimpleName().toString();
+  }
+
+  private static TypeElement typeElement(Object classValue) {
+    return classValue instanceof DeclaredType declared
+        ? (TypeElement) declared.asElement()
+        : null;
+  }
+
+  private static boolean isInstantiable(TypeElement type) {
+    if (!type.getModifiers().contains(Modifier.PUBLIC)
+        || type.getModifiers().contains(Modifier.ABSTRACT)) {
+      return false;
+    }
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty()
+          && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String literal(String value) {
+    return value == null ? "null" : processingEnv.getElementUtils().getConstantExpression(value);
+  }
+
+  /** {@code birthDate} を {@code birth_date} に変換する. */
+  static String snakeCase(String name) {
+    StringBuilder result = new StringBuilder(name.length() + 4);
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (Character.isUpperCase(c) && i > 0) {
+        result.append('_');
+      }
+      result.append(Character.toLowerCase(c));
+    }
+    return result.toString();
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+}
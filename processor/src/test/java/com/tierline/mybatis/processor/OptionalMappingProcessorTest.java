@@ -0,0 +1,235 @@
+package com.tierline.mybatis.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Test class for {@link OptionalMappingProcessor}. */
+@DisplayName("OptionalMappingProcessor のテスト")
+class OptionalMappingProcessorTest {
+
+  @TempDir Path output;
+
+  /** Source file held in memory. */
+  private static final class Source extends SimpleJavaFileObject {
+    private final String code;
+
+    Source(String className, String code) {
+      super(
+          URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension),
+          Kind.SOURCE);
+      this.code = code;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return code;
+    }
+  }
+
+  @Test
+  @DisplayName("クラスのフィールドごとに結果マッピングを生成し、サービスとして登録する")
+  void testGenerateForClass() throws IOException {
+    DiagnosticCollector<JavaFileObject> diagnostics =
+        compile(
+            "com.example.User",
+            """
+            package com.example;
+
+            import com.tierline.mybatis.registration.Column;
+            import com.tierline.mybatis.registration.OptionalEntity;
+            import java.time.OffsetDateTime;
+            import java.util.Optional;
+            import java.util.UUID;
+            import org.apache.ibatis.type.JdbcType;
+
+            @OptionalEntity(namespace = "com.example.UserMapper")
+            public class User {
+              private static final long serialVersionUID = 1L;
+              @Column(id = true)
+              private Integer id;
+              private Optional<String> displayName;
+              @Column(name = "created", jdbcType = JdbcType.TIMESTAMP_WITH_TIMEZONE)
+              private Optional<OffsetDateTime> createdAt;
+              private Optional<UUID> token;
+              @Column(ignore = true)
+              private String cache;
+              private transient int hits;
+            }
+            """);
+
+    assertTrue(diagnostics.getDiagnostics().isEmpty(), diagnostics.getDiagnostics().toString());
+    String generated = generated("com/example/UserMappingRegistration.java");
+    assertTrue(generated.contains("\"id\", \"id\", java.lang.Integer.class, null, null,"));
+    assertTrue(generated.contains("org.apache.ibatis.mapping.ResultFlag.ID"));
+    assertTrue(
+        generated.contains(
+            "\"displayName\", \"display_name\", java.util.Optional.class,"
+                + " org.apache.ibatis.type.JdbcType.VARCHAR, handler0"));
+    assertTrue(
+        generated.contains(
+            "\"createdAt\", \"created\", java.util.Optional.class,"
+                + " org.apache.ibatis.type.JdbcType.TIMESTAMP_WITH_TIMEZONE, handler1"));
+    assertTrue(
+        generated.contains(
+            "registerOptional(configuration, org.apache.ibatis.type.JdbcType.VARCHAR, handler0)"));
+    assertFalse(generated.contains("TIMESTAMP_WITH_TIMEZONE, handler1);"));
+    assertTrue(
+        generated.contains(
+            "\"token\", \"token\", java.util.Optional.class,"
+                + " org.apache.ibatis.type.JdbcType.OTHER, handler2"));
+    assertFalse(generated.contains("JdbcType.OTHER, handler2);"));
+    assertFalse(generated.contains("\"cache\""));
+    assertFalse(generated.contains("\"hits\""));
+    assertTrue(generated.contains("\"com.example.UserMapper.userResultMap\""));
+    Path services =
+        output.resolve("classes/META-INF/services/" + OptionalMappingProcessor.REGISTRATION);
+    assertEquals(List.of("com.example.UserMappingRegistration"), Files.readAllLines(services));
+  }
+
+  @Test
+  @DisplayName("レコードの構成要素はコンストラクタ引数としてマッピングされる")
+  void testGenerateForRecord() throws IOException {
+    DiagnosticCollector<JavaFileObject> diagnostics =
+        compile(
+            "com.example.Item",
+            """
+            package com.example;
+
+            import com.tierline.mybatis.registration.OptionalEntity;
+            import java.math.BigDecimal;
+            import java.util.Optional;
+
+            @OptionalEntity(namespace = "com.example.ItemMapper", id = "item")
+            public record Item(Long id, Optional<BigDecimal> price) {}
+            """);
+
+    assertTrue(diagnostics.getDiagnostics().isEmpty(), diagnostics.getDiagnostics().toString());
+    String generated = generated("com/example/ItemMappingRegistration.java");
+    // id という名前だけでは ID の列にならない
+    assertTrue(
+        generated.contains(
+            "null, \"id\", java.lang.Long.class, null, null,"
+                + " org.apache.ibatis.mapping.ResultFlag.CONSTRUCTOR)"));
+    assertFalse(generated.contains("ResultFlag.ID"));
+    assertTrue(generated.contains("null, \"price\", java.util.Optional.class"));
+    assertTrue(generated.contains("\"com.example.ItemMapper.item\""));
+  }
+
+  @Test
+  @DisplayName("TypeHandler が決まらない Optional のフィールドはコンパイルエラーとなる")
+  void testUnsupportedOptional() throws IOException {
+    DiagnosticCollector<JavaFileObject> diagnostics =
+        compile(
+            "com.example.Unsupported",
+            """
+            package com.example;
+
+            import com.tierline.mybatis.registration.OptionalEntity;
+            import java.util.Optional;
+
+            @OptionalEntity(namespace = "com.example.UnsupportedMapper")
+            public class Unsupported {
+              private Optional<Character> initial;
+            }
+            """);
+
+    assertError(
+        diagnostics, "No Optional type handler for java.util.Optional<java.lang.Character>");
+    assertFalse(
+        Files.exists(output.resolve("generated/com/example/UnsupportedMappingRegistration.java")));
+  }
+
+  @Test
+  @DisplayName("引数のないコンストラクタを持たない TypeHandler はコンパイルエラーとなる")
+  void testTypeHandlerWithoutNoArgConstructor() throws IOException {
+    DiagnosticCollector<JavaFileObject> diagnostics =
+        compile(
+            "com.example.Event",
+            """
+            package com.example;
+
+            import com.tierline.mybatis.registration.Column;
+            import com.tierline.mybatis.registration.OptionalEntity;
+            import com.tierline.mybatis.typehandler.OptionalEnumTypeHandler;
+            import java.time.DayOfWeek;
+            import java.util.Optional;
+
+            @OptionalEntity(namespace = "com.example.EventMapper")
+            public class Event {
+              @Column(typeHandler = OptionalEnumTypeHandler.class)
+              private Optional<DayOfWeek> day;
+            }
+            """);
+
+    assertError(diagnostics, "needs a public no-arg constructor");
+  }
+
+  @Test
+  @DisplayName("フィールド名はスネークケースの列名に変換される")
+  void testSnakeCase() {
+    assertEquals("birth_date", OptionalMappingProcessor.snakeCase("birthDate"));
+    assertEquals("id", OptionalMappingProcessor.snakeCase("id"));
+    assertEquals("a_b_c", OptionalMappingProcessor.snakeCase("aBC"));
+  }
+
+  private DiagnosticCollector<JavaFileObject> compile(String className, String code)
+      throws IOException {
+    Path classes = Files.createDirectories(output.resolve("classes"));
+    Path generated = Files.createDirectories(output.resolve("generated"));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null,
+              fileManager,
+              diagnostics,
+              List.of(
+                  "-classpath",
+                  System.getProperty("java.class.path"),
+                  "-d",
+                  classes.toString(),
+                  "-s",
+                  generated.toString(),
+                  "-proc:full"),
+              null,
+              List.of(new Source(className, code)));
+      task.setProcessors(List.of(new OptionalMappingProcessor()));
+      task.call();
+    }
+    return diagnostics;
+  }
+
+  private String generated(String path) throws IOException {
+    return Files.readString(output.resolve("generated").resolve(path));
+  }
+
+  private static void assertError(DiagnosticCollector<JavaFileObject> diagnostics, String message) {
+    assertTrue(
+        diagnostics.getDiagnostics().stream()
+            .anyMatch(
+                d ->
+                    d.getKind() == Diagnostic.Kind.ERROR
+                        && d.getMessage(null).contains(message)),
+        diagnostics.getDiagnostics().toString());
+  }
+}